@@ -0,0 +1,51 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of a frame of a loaded event map: culling, pointer setup and seat titles.
+ * At scale 1 the whole map is visible and titles are too small to draw,
+ * at larger scales the frame is dominated by drawing titles of the visible seats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DrawBenchmark {
+    @Param({"10000", "200000"})
+    public int seats;
+
+    @Param({"true", "false"})
+    public boolean titled;
+
+    @Param({"1", "8", "32"})
+    public float scale;
+
+    private HeadlessEventMap mEventMap;
+
+    @Setup
+    public void setUp() {
+        mEventMap = new HeadlessEventMap(new SyntheticHall(seats, titled));
+        mEventMap.load();
+        mEventMap.lookAt(scale, 0, 0);
+    }
+
+    @Benchmark
+    public void draw() {
+        mEventMap.draw();
+    }
+}
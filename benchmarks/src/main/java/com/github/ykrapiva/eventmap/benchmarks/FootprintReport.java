@@ -0,0 +1,46 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
+
+/**
+ * Prints how much memory reference halls keep per seat. On the Java heap: what an event map holds once seats
+ * are added, figures themselves aside. Outside of it, once the hall is loaded: seat vertices in direct buffers
+ * and everything accounted by {@link ResourceAccounting}, fonts included.
+ */
+public class FootprintReport {
+    private static final int[] SEATS = {1000, 10000, 50000, 100000, 200000};
+
+    public static void main(String[] args) {
+        System.out.println("seats\theapBytes\theapBytesPerSeat\tvertexBytes\tvertexBytesPerSeat\tdirectBytes\tbufferObjectBytes\ttextureBytes");
+
+        for (int seats : SEATS) {
+            long directAtStart = ResourceAccounting.getBytes(ResourceAccounting.Kind.DIRECT_BUFFER);
+            long bufferObjectsAtStart = ResourceAccounting.getBytes(ResourceAccounting.Kind.BUFFER_OBJECT);
+            long texturesAtStart = ResourceAccounting.getBytes(ResourceAccounting.Kind.TEXTURE);
+
+            SyntheticHall hall = new SyntheticHall(seats, true);
+            long heapAtStart = getUsedHeap();
+            HeadlessEventMap eventMap = new HeadlessEventMap(hall);
+            long heapBytes = getUsedHeap() - heapAtStart;
+
+            eventMap.load();
+
+            int vertexBytes = eventMap.getEventMap().getSeatBufferSize();
+            System.out.println(seats + "\t" + heapBytes + "\t" + (float) heapBytes / seats
+                    + "\t" + vertexBytes + "\t" + (float) vertexBytes / seats
+                    + "\t" + (ResourceAccounting.getBytes(ResourceAccounting.Kind.DIRECT_BUFFER) - directAtStart)
+                    + "\t" + (ResourceAccounting.getBytes(ResourceAccounting.Kind.BUFFER_OBJECT) - bufferObjectsAtStart)
+                    + "\t" + (ResourceAccounting.getBytes(ResourceAccounting.Kind.TEXTURE) - texturesAtStart));
+
+            eventMap.pause(false);
+        }
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
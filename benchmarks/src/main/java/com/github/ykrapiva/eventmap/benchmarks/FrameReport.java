@@ -0,0 +1,35 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+/**
+ * Prints what a frame of reference halls asks GL to do at several zoom levels: draw calls, vertices,
+ * state changes and bytes submitted. Frames are drawn twice, the second one shows the steady state.
+ * Draws are validated by {@link RecordingGL}, so the report also fails on out of range indices.
+ */
+public class FrameReport {
+    private static final int[] SEATS = {1000, 10000, 200000};
+    private static final float[] SCALES = {1, 8, 32};
+
+    public static void main(String[] args) {
+        System.out.println("seats\tscale\tframe\tcalls\tdraws\tvertices\tstates\tredundant\tpointerBytes\tuploadedBytes");
+
+        for (int seats : SEATS) {
+            RecordingGL gl = new RecordingGL();
+            HeadlessEventMap eventMap = new HeadlessEventMap(new SyntheticHall(seats, true), gl);
+            eventMap.load();
+
+            for (float scale : SCALES) {
+                eventMap.lookAt(scale, 0, 0);
+
+                for (int frame = 1; frame <= 2; frame++) {
+                    gl.resetCounters();
+                    eventMap.draw();
+
+                    System.out.println(seats + "\t" + scale + "\t" + frame + "\t" + gl.getCallCount()
+                            + "\t" + gl.getDrawCallCount() + "\t" + gl.getVertexCount()
+                            + "\t" + gl.getStateChangeCount() + "\t" + gl.getRedundantStateChangeCount()
+                            + "\t" + gl.getPointerBytes() + "\t" + gl.getUploadedBytes());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.android.texample.GLText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measuring seat titles, done for every title drawn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GLTextBenchmark {
+    private static final int NUM_TITLES = 1024;
+
+    private GLText mText;
+    private final String[] mTitles = new String[NUM_TITLES];
+    private int mTitle;
+
+    @Setup
+    public void setUp() {
+        mText = new GLText(new StubGL());
+        mText.load(24, 2, 2);
+
+        for (int i = 0; i < NUM_TITLES; i++) {
+            mTitles[i] = String.valueOf(i + 1);
+        }
+    }
+
+    @Benchmark
+    public float getLength() {
+        return mText.getLength(mTitles[mTitle++ & (NUM_TITLES - 1)]);
+    }
+}
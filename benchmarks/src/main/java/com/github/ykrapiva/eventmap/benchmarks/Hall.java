@@ -0,0 +1,90 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * JSON hall schema of the sample app, copied because the sample can't be built for a desktop JVM.
+ * Keep in sync with the sample's Hall.
+ */
+public class Hall implements Serializable {
+    @JsonProperty("siteId")
+    public long siteId;
+    @JsonProperty("hallId")
+    public long hallId;
+    @JsonProperty("name")
+    public String name;
+    @JsonProperty("image")
+    public String image;
+    @JsonProperty("width")
+    public int width;
+    @JsonProperty("height")
+    public int height;
+    @JsonProperty("placeShape")
+    public String placeShape;
+    @JsonProperty("sectors")
+    public List<Sector> sectors;
+
+    public static class Sector implements Serializable {
+        @JsonProperty("sectorId")
+        public long sectorId;
+        @JsonProperty("name")
+        public String name;
+        @JsonProperty("x")
+        public int x;
+        @JsonProperty("y")
+        public int y;
+        @JsonProperty("width")
+        public int width;
+        @JsonProperty("height")
+        public int height;
+        @JsonProperty("angle")
+        public int angle;
+        @JsonProperty("rows")
+        public List<Row> rows;
+    }
+
+    public static class Row implements Serializable {
+        @JsonProperty("rowId")
+        public long rowId;
+        @JsonProperty("number")
+        public int number;
+        @JsonProperty("places")
+        public List<Place> places;
+    }
+
+    public static class Place implements Serializable {
+        @JsonProperty("placeId")
+        public long placeId;
+        @JsonProperty("number")
+        public int number;
+        @JsonProperty("seatCount")
+        public int seatCount;
+        @JsonProperty("status")
+        public int status;
+        @JsonProperty("x")
+        public int x;
+        @JsonProperty("y")
+        public int y;
+        @JsonProperty("width")
+        public int width;
+        @JsonProperty("height")
+        public int height;
+        @JsonProperty("prices")
+        public List<Price> prices;
+    }
+
+    public static class Price implements Serializable {
+        @JsonProperty("priceId")
+        public int priceId;
+        @JsonProperty("price")
+        public BigDecimal price;
+        @JsonProperty("color")
+        public int color;
+        @JsonProperty("name")
+        public String name;
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import android.graphics.RectF;
+import android.opengl.GLU;
+import com.github.ykrapiva.eventmap.EventMap;
+import com.github.ykrapiva.eventmap.EventMapFigure;
+import com.github.ykrapiva.eventmap.gl.GLTextRegistry;
+import com.github.ykrapiva.eventmap.gl.MatrixTrackingGL;
+import com.github.ykrapiva.eventmap.gl.QuadIndexBuffer;
+import com.github.ykrapiva.eventmap.gl.Ray;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Event map driven the way EventMapRenderer drives it, but with a GL that draws nothing
+ * and a screen of {@link #SCREEN_WIDTH} x {@link #SCREEN_HEIGHT} unless it's {@link #resize(int, int) resized}.
+ */
+public class HeadlessEventMap {
+    public static final int SCREEN_WIDTH = 1080;
+    public static final int SCREEN_HEIGHT = 1920;
+
+    // Nothing should wait for frames when loading
+    private static final long LOAD_BUDGET_MILLIS = 60 * 1000;
+
+    private MatrixTrackingGL mGL;
+    private final EventMap<EventMapFigure> mEventMap;
+    private final RectF mVisibleRect = new RectF();
+
+    private int mScreenWidth = SCREEN_WIDTH;
+    private int mScreenHeight = SCREEN_HEIGHT;
+
+    private float mProjectionWidth;
+    private float mProjectionHeight;
+    private float mEyeZ;
+    private float mScale;
+    private float mCenterX;
+    private float mCenterY;
+
+    public HeadlessEventMap(SyntheticHall hall) {
+        this(hall, new StubGL());
+    }
+
+    /**
+     * @param gl GL to draw with, e.g. a {@link RecordingGL}
+     */
+    public HeadlessEventMap(SyntheticHall hall, GL10 gl) {
+        mGL = new MatrixTrackingGL(gl);
+        mEventMap = new EventMap<EventMapFigure>(hall.getWidth(), hall.getHeight());
+        mEventMap.add(hall.getSeats());
+        mEventMap.setLoadBudget(LOAD_BUDGET_MILLIS);
+        setUpProjection();
+        lookAt(1.0f, 0, 0);
+    }
+
+    public EventMap<EventMapFigure> getEventMap() {
+        return mEventMap;
+    }
+
+    public GL10 getGL() {
+        return mGL;
+    }
+
+    /**
+     * Draws frames until all the seats and fonts are loaded.
+     */
+    public void load() {
+        do {
+            draw();
+        } while (mEventMap.isLoading());
+    }
+
+    public void draw() {
+        mEventMap.draw(mGL, mVisibleRect);
+    }
+
+    /**
+     * Pauses the way EventMapView does: GL resources are released unless the context is preserved.
+     */
+    public void pause(boolean preserveContext) {
+        if (!preserveContext) {
+            mEventMap.releaseGLResources(mGL);
+            QuadIndexBuffer.release(mGL);
+            GLTextRegistry.release(mGL);
+        }
+    }
+
+    /**
+     * Resumes the way the renderer does.
+     *
+     * @param gl GL of a new context, which the previous one was lost for, null if the context was preserved
+     */
+    public void resume(GL10 gl) {
+        if (gl == null) {
+            return;
+        }
+
+        QuadIndexBuffer.invalidate(mGL);
+        GLTextRegistry.invalidate(mGL);
+        mGL = new MatrixTrackingGL(gl);
+        mEventMap.releaseGLResources(null);
+
+        // Matrices are gone with the context too
+        setUpProjection();
+        lookAt(mScale, mCenterX, mCenterY);
+    }
+
+    /**
+     * Changes the screen size the way the renderer handles it, e.g. on rotation: only the projection is set up again.
+     */
+    public void resize(int width, int height) {
+        mScreenWidth = width;
+        mScreenHeight = height;
+        setUpProjection();
+        lookAt(mScale, mCenterX, mCenterY);
+    }
+
+    /**
+     * Sets up the model view matrix like the renderer does.
+     *
+     * @param scale   Scale factor, 1 shows the whole map
+     * @param centerX World point to show at the screen center
+     */
+    public void lookAt(float scale, float centerX, float centerY) {
+        mScale = scale;
+        mCenterX = centerX;
+        mCenterY = centerY;
+
+        float offsetX = -centerX * scale;
+        float offsetY = -centerY * scale;
+
+        mGL.glMatrixMode(GL10.GL_MODELVIEW);
+        mGL.glLoadIdentity();
+        mGL.glTranslatef(offsetX, offsetY, 0);
+        mGL.glScalef(scale, scale, 1.0f);
+        GLU.gluLookAt(mGL, 0, 0, mEyeZ, 0, 0, 0, 0, 1, 0);
+
+        float halfWidth = mProjectionWidth / scale / 2.0f;
+        float halfHeight = mProjectionHeight / scale / 2.0f;
+        mVisibleRect.set(centerX - halfWidth, centerY + halfHeight, centerX + halfWidth, centerY - halfHeight);
+    }
+
+    public Ray createRay(float screenX, float screenY) {
+        return new Ray(mGL, mScreenWidth, mScreenHeight, screenX, screenY);
+    }
+
+    private void setUpProjection() {
+        RectF bounds = mEventMap.getBounds();
+        float eventMapWidth = Math.abs(bounds.width());
+        float eventMapHeight = Math.abs(bounds.height());
+        float boundingSphereDiameter = Math.max(eventMapWidth, eventMapHeight);
+        float left = bounds.centerX() - boundingSphereDiameter / 2.0f;
+        float right = bounds.centerX() + boundingSphereDiameter / 2.0f;
+        float bottom = bounds.centerY() - boundingSphereDiameter / 2.0f;
+        float top = bounds.centerY() + boundingSphereDiameter / 2.0f;
+        float zNear = 1.0f;
+        float zFar = zNear + boundingSphereDiameter;
+
+        float ratio = mScreenWidth / (float) mScreenHeight;
+        if (ratio < 1.0f) {
+            float extraSpaceAdded = (eventMapHeight * ratio - eventMapHeight) / 2.0f;
+            bottom += extraSpaceAdded;
+            top -= extraSpaceAdded;
+        } else {
+            float extraSpaceAdded = (eventMapWidth * ratio - eventMapWidth) / 2.0f;
+            left -= extraSpaceAdded;
+            right += extraSpaceAdded;
+        }
+
+        mGL.glViewport(0, 0, mScreenWidth, mScreenHeight);
+        mGL.glMatrixMode(GL10.GL_PROJECTION);
+        mGL.glLoadIdentity();
+        mGL.glOrthof(left, right, bottom, top, zNear, zFar);
+
+        mProjectionWidth = right - left;
+        mProjectionHeight = top - bottom;
+        mEyeZ = boundingSphereDiameter;
+    }
+}
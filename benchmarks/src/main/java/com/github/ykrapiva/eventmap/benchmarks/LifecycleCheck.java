@@ -0,0 +1,70 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
+
+/**
+ * Runs rotations and pause/resume cycles of a loaded map through {@link RecordingGL} and fails on redundant uploads.
+ * Rotating and resuming with a preserved context upload nothing. Resuming with a lost context uploads just
+ * the textures and buffer objects there were, within one frame and without laying seats out again,
+ * and nothing may be left behind in the lost context.
+ */
+public class LifecycleCheck {
+    private static final int SEATS = 50000;
+    private static final int CYCLES = 3;
+
+    public static void main(String[] args) {
+        RecordingGL gl = new RecordingGL();
+        HeadlessEventMap eventMap = new HeadlessEventMap(new SyntheticHall(SEATS, true), gl);
+        eventMap.load();
+        eventMap.draw();
+
+        int textures = gl.getTextureCount();
+        int buffers = gl.getBufferCount();
+        long accountedBytes = ResourceAccounting.getTotalBytes();
+
+        for (int cycle = 1; cycle <= CYCLES; cycle++) {
+            gl.resetCounters();
+            eventMap.resize(HeadlessEventMap.SCREEN_HEIGHT, HeadlessEventMap.SCREEN_WIDTH);
+            eventMap.draw();
+            eventMap.resize(HeadlessEventMap.SCREEN_WIDTH, HeadlessEventMap.SCREEN_HEIGHT);
+            eventMap.draw();
+
+            check(gl.getCallCount("glGenTextures") == 0 && gl.getCallCount("glGenBuffers") == 0 && gl.getUploadedBytes() == 0,
+                    "Uploads after rotation: " + gl.getUploadedBytes() + " bytes");
+
+            eventMap.pause(true);
+            eventMap.resume(null);
+            eventMap.draw();
+
+            check(gl.getCallCount("glGenTextures") == 0 && gl.getCallCount("glGenBuffers") == 0 && gl.getUploadedBytes() == 0,
+                    "Uploads after resuming with a preserved context: " + gl.getUploadedBytes() + " bytes");
+
+            eventMap.pause(false);
+            check(gl.getTextureCount() == 0 && gl.getBufferCount() == 0,
+                    "Left after pause: " + gl.getTextureCount() + " textures, " + gl.getBufferCount() + " buffers");
+
+            RecordingGL newGL = new RecordingGL();
+            eventMap.resume(newGL);
+            long start = System.nanoTime();
+            eventMap.draw();
+            long restoreMicros = (System.nanoTime() - start) / 1000;
+
+            check(!eventMap.getEventMap().isLoading(), "Seats are loaded again after resuming with a new context");
+            check(newGL.getTextureCount() == textures && newGL.getBufferCount() == buffers,
+                    "Restored " + newGL.getTextureCount() + " of " + textures + " textures, "
+                            + newGL.getBufferCount() + " of " + buffers + " buffers");
+            check(ResourceAccounting.getTotalBytes() == accountedBytes,
+                    "Accounted " + ResourceAccounting.getTotalBytes() + " bytes, " + accountedBytes + " before pause");
+
+            System.out.println("cycle " + cycle + ": restored " + textures + " textures and " + buffers + " buffers, "
+                    + newGL.getUploadedBytes() + " bytes in " + restoreMicros + " us");
+            gl = newGL;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding seats to a new event map and drawing frames until all of its seat chunks and fonts are built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"1000", "10000", "50000", "200000"})
+    public int seats;
+
+    @Param({"true", "false"})
+    public boolean titled;
+
+    private SyntheticHall mHall;
+
+    @Setup
+    public void setUp() {
+        mHall = new SyntheticHall(seats, titled);
+    }
+
+    @Benchmark
+    public HeadlessEventMap add() {
+        return new HeadlessEventMap(mHall);
+    }
+
+    @Benchmark
+    public HeadlessEventMap load() {
+        HeadlessEventMap eventMap = new HeadlessEventMap(mHall);
+        eventMap.load();
+        return eventMap;
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.github.ykrapiva.eventmap.EventMapFigure;
+import com.github.ykrapiva.eventmap.gl.Ray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the seat under a tap: unprojecting the tap into a ray and intersecting it with the seats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PickBenchmark {
+    private static final int NUM_TAPS = 1024;
+
+    @Param({"1000", "10000", "50000", "200000"})
+    public int seats;
+
+    @Param({"1", "8"})
+    public float scale;
+
+    private HeadlessEventMap mEventMap;
+    private final float[] mTapsX = new float[NUM_TAPS];
+    private final float[] mTapsY = new float[NUM_TAPS];
+    private int mTap;
+
+    @Setup
+    public void setUp() {
+        mEventMap = new HeadlessEventMap(new SyntheticHall(seats, false));
+        mEventMap.load();
+        mEventMap.lookAt(scale, 0, 0);
+
+        Random random = new Random(NUM_TAPS);
+        for (int i = 0; i < NUM_TAPS; i++) {
+            mTapsX[i] = random.nextFloat() * HeadlessEventMap.SCREEN_WIDTH;
+            mTapsY[i] = random.nextFloat() * HeadlessEventMap.SCREEN_HEIGHT;
+        }
+    }
+
+    @Benchmark
+    public EventMapFigure findIntersection() {
+        int tap = mTap++ & (NUM_TAPS - 1);
+        Ray ray = mEventMap.createRay(mTapsX[tap], mTapsY[tap]);
+        return mEventMap.getEventMap().findIntersection(mEventMap.getGL(), ray);
+    }
+}
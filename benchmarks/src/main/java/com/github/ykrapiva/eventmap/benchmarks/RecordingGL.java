@@ -0,0 +1,1493 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.github.ykrapiva.eventmap.gl.MatrixTrackingGL;
+
+import javax.microedition.khronos.opengles.GL11;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OpenGL ES 1.1 which draws nothing but records what it's asked to do, so that render paths can be checked
+ * on a machine without a GPU. It counts calls, draw calls and state changes, tracks bound textures, buffers,
+ * enabled capabilities and client states, and sums up bytes read from client side arrays and uploaded
+ * into buffer objects and textures.
+ * <p/>
+ * Draws are validated: every enabled array must be set up and hold the vertices addressed by the draw,
+ * indices must lie within their array or element buffer. Violations throw {@link IllegalStateException}.
+ * <p/>
+ * Unlike {@link MatrixTrackingGL} it doesn't wrap another GL. Wrap it with {@link MatrixTrackingGL}
+ * for code which reads matrices back. Bitmaps uploaded with {@link android.opengl.GLUtils} bypass the GL object
+ * and are not counted.
+ */
+public class RecordingGL implements GL11 {
+    private static final int MAX_TEXTURE_SIZE = 4096;
+    // Matrix mode query of GL 1.1, missing from the stub GL11
+    private static final int GL_MATRIX_MODE = 0xBA0;
+
+    private int mLastName;
+
+    // Counters
+    private final Map<String, int[]> mCallCounts = new HashMap<String, int[]>();
+    private int mCallCount;
+    private int mDrawCallCount;
+    private int mVertexCount;
+    private int mStateChangeCount;
+    private int mRedundantStateChangeCount;
+    private int mPointerBytes;
+    private int mUploadedBytes;
+
+    // State
+    private final Set<Integer> mEnabledCaps = new HashSet<Integer>();
+    private final Set<Integer> mEnabledClientStates = new HashSet<Integer>();
+    private final Set<Integer> mTextures = new HashSet<Integer>();
+    private final Map<Integer, BufferObject> mBuffers = new HashMap<Integer, BufferObject>();
+    private int mBoundTexture;
+    private int mArrayBuffer;
+    private int mElementArrayBuffer;
+    private int mBlendSrc = GL_ONE;
+    private int mBlendDst = GL_ZERO;
+    private int mMatrixMode = GL_MODELVIEW;
+
+    private final ArrayPointer mVertexArray = new ArrayPointer(GL_VERTEX_ARRAY, "vertex");
+    private final ArrayPointer mColorArray = new ArrayPointer(GL_COLOR_ARRAY, "color");
+    private final ArrayPointer mTexCoordArray = new ArrayPointer(GL_TEXTURE_COORD_ARRAY, "texture coordinate");
+    private final ArrayPointer mNormalArray = new ArrayPointer(GL_NORMAL_ARRAY, "normal");
+    private final ArrayPointer[] mArrays = {mVertexArray, mColorArray, mTexCoordArray, mNormalArray};
+
+    // Result of readIndexRange()
+    private int mMinIndex;
+    private int mMaxIndex;
+
+    /**
+     * @return number of GL calls since the last {@link #resetCounters()}
+     */
+    public int getCallCount() {
+        return mCallCount;
+    }
+
+    /**
+     * @param method Name of a GL method, e.g. "glDrawElements"
+     * @return number of calls of the method since the last {@link #resetCounters()}
+     */
+    public int getCallCount(String method) {
+        int[] count = mCallCounts.get(method);
+        return count != null ? count[0] : 0;
+    }
+
+    /**
+     * @return number of glDrawArrays and glDrawElements calls since the last {@link #resetCounters()}
+     */
+    public int getDrawCallCount() {
+        return mDrawCallCount;
+    }
+
+    /**
+     * @return number of vertices, or indices for indexed draws, submitted since the last {@link #resetCounters()}
+     */
+    public int getVertexCount() {
+        return mVertexCount;
+    }
+
+    /**
+     * @return number of capability, client state, blend function, texture and buffer binding calls
+     * since the last {@link #resetCounters()}
+     */
+    public int getStateChangeCount() {
+        return mStateChangeCount;
+    }
+
+    /**
+     * @return number of state changing calls which set the state it already had, included in {@link #getStateChangeCount()}
+     */
+    public int getRedundantStateChangeCount() {
+        return mRedundantStateChangeCount;
+    }
+
+    /**
+     * @return number of bytes read by draws from client side vertex and index arrays since the last {@link #resetCounters()}
+     */
+    public int getPointerBytes() {
+        return mPointerBytes;
+    }
+
+    /**
+     * @return number of bytes uploaded into buffer objects and textures since the last {@link #resetCounters()}
+     */
+    public int getUploadedBytes() {
+        return mUploadedBytes;
+    }
+
+    public void resetCounters() {
+        mCallCounts.clear();
+        mCallCount = 0;
+        mDrawCallCount = 0;
+        mVertexCount = 0;
+        mStateChangeCount = 0;
+        mRedundantStateChangeCount = 0;
+        mPointerBytes = 0;
+        mUploadedBytes = 0;
+    }
+
+    public boolean isClientStateEnabled(int array) {
+        return mEnabledClientStates.contains(array);
+    }
+
+    public int getBoundTexture() {
+        return mBoundTexture;
+    }
+
+    /**
+     * @param target {@link #GL_ARRAY_BUFFER} or {@link #GL_ELEMENT_ARRAY_BUFFER}
+     * @return name of the bound buffer, 0 if none
+     */
+    public int getBoundBufferName(int target) {
+        return target == GL_ELEMENT_ARRAY_BUFFER ? mElementArrayBuffer : mArrayBuffer;
+    }
+
+    public int getMatrixMode() {
+        return mMatrixMode;
+    }
+
+    /**
+     * @return number of textures generated and not deleted
+     */
+    public int getTextureCount() {
+        return mTextures.size();
+    }
+
+    /**
+     * @return number of buffer objects generated and not deleted
+     */
+    public int getBufferCount() {
+        return mBuffers.size();
+    }
+
+    /**
+     * @return size of the buffer's data store in bytes, -1 if there's no such buffer
+     */
+    public int getBufferSize(int buffer) {
+        BufferObject bufferObject = mBuffers.get(buffer);
+        return bufferObject != null ? bufferObject.size : -1;
+    }
+
+    // ---------------------------------------------------------------------
+    // GL methods:
+
+    @Override
+    public void glActiveTexture(int texture) {
+        record("glActiveTexture");
+    }
+
+    @Override
+    public void glAlphaFunc(int func, float ref) {
+        record("glAlphaFunc");
+    }
+
+    @Override
+    public void glAlphaFuncx(int func, int ref) {
+        record("glAlphaFuncx");
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        record("glBindTexture");
+        onStateChange(mBoundTexture != texture);
+        mBoundTexture = texture;
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        record("glBlendFunc");
+        onStateChange(mBlendSrc != sfactor || mBlendDst != dfactor);
+        mBlendSrc = sfactor;
+        mBlendDst = dfactor;
+    }
+
+    @Override
+    public void glClear(int mask) {
+        record("glClear");
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        record("glClearColor");
+    }
+
+    @Override
+    public void glClearColorx(int red, int green, int blue, int alpha) {
+        record("glClearColorx");
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+        record("glClearDepthf");
+    }
+
+    @Override
+    public void glClearDepthx(int depth) {
+        record("glClearDepthx");
+    }
+
+    @Override
+    public void glClearStencil(int s) {
+        record("glClearStencil");
+    }
+
+    @Override
+    public void glClientActiveTexture(int texture) {
+        record("glClientActiveTexture");
+    }
+
+    @Override
+    public void glColor4f(float red, float green, float blue, float alpha) {
+        record("glColor4f");
+    }
+
+    @Override
+    public void glColor4x(int red, int green, int blue, int alpha) {
+        record("glColor4x");
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        record("glColorMask");
+    }
+
+    @Override
+    public void glColorPointer(int size, int type, int stride, Buffer pointer) {
+        record("glColorPointer");
+        mColorArray.set(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        record("glCompressedTexImage2D");
+        mUploadedBytes += imageSize;
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+        record("glCompressedTexSubImage2D");
+        mUploadedBytes += imageSize;
+    }
+
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+        record("glCopyTexImage2D");
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+        record("glCopyTexSubImage2D");
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        record("glCullFace");
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        record("glDeleteTextures");
+        for (int i = 0; i < n; i++) {
+            deleteTexture(textures[offset + i]);
+        }
+    }
+
+    @Override
+    public void glDeleteTextures(int n, IntBuffer textures) {
+        record("glDeleteTextures");
+        for (int i = 0; i < n; i++) {
+            deleteTexture(textures.get(textures.position() + i));
+        }
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        record("glDepthFunc");
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        record("glDepthMask");
+    }
+
+    @Override
+    public void glDepthRangef(float near, float far) {
+        record("glDepthRangef");
+    }
+
+    @Override
+    public void glDepthRangex(int near, int far) {
+        record("glDepthRangex");
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        record("glDisable");
+        onStateChange(mEnabledCaps.remove(cap));
+    }
+
+    @Override
+    public void glDisableClientState(int array) {
+        record("glDisableClientState");
+        onStateChange(mEnabledClientStates.remove(array));
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        record("glDrawArrays");
+        onDraw(first, first + count - 1, count);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        record("glDrawElements");
+        checkRemaining(indices, count * getTypeSize(type));
+        readIndexRange(indices, count, type);
+        mPointerBytes += count * getTypeSize(type);
+        onDraw(mMinIndex, mMaxIndex, count);
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        record("glEnable");
+        onStateChange(mEnabledCaps.add(cap));
+    }
+
+    @Override
+    public void glEnableClientState(int array) {
+        record("glEnableClientState");
+        onStateChange(mEnabledClientStates.add(array));
+    }
+
+    @Override
+    public void glFinish() {
+        record("glFinish");
+    }
+
+    @Override
+    public void glFlush() {
+        record("glFlush");
+    }
+
+    @Override
+    public void glFogf(int pname, float param) {
+        record("glFogf");
+    }
+
+    @Override
+    public void glFogfv(int pname, float[] params, int offset) {
+        record("glFogfv");
+    }
+
+    @Override
+    public void glFogfv(int pname, FloatBuffer params) {
+        record("glFogfv");
+    }
+
+    @Override
+    public void glFogx(int pname, int param) {
+        record("glFogx");
+    }
+
+    @Override
+    public void glFogxv(int pname, int[] params, int offset) {
+        record("glFogxv");
+    }
+
+    @Override
+    public void glFogxv(int pname, IntBuffer params) {
+        record("glFogxv");
+    }
+
+    @Override
+    public void glFrontFace(int mode) {
+        record("glFrontFace");
+    }
+
+    @Override
+    public void glFrustumf(float left, float right, float bottom, float top, float near, float far) {
+        record("glFrustumf");
+    }
+
+    @Override
+    public void glFrustumx(int left, int right, int bottom, int top, int near, int far) {
+        record("glFrustumx");
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        record("glGenTextures");
+        for (int i = 0; i < n; i++) {
+            textures[offset + i] = ++mLastName;
+            mTextures.add(mLastName);
+        }
+    }
+
+    @Override
+    public void glGenTextures(int n, IntBuffer textures) {
+        record("glGenTextures");
+        for (int i = 0; i < n; i++) {
+            textures.put(textures.position() + i, ++mLastName);
+            mTextures.add(mLastName);
+        }
+    }
+
+    @Override
+    public int glGetError() {
+        record("glGetError");
+        return GL_NO_ERROR;
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        record("glGetIntegerv");
+        params[offset] = getInteger(pname);
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, IntBuffer params) {
+        record("glGetIntegerv");
+        params.put(params.position(), getInteger(pname));
+    }
+
+    @Override
+    public String glGetString(int name) {
+        record("glGetString");
+        switch (name) {
+            case GL_VERSION:
+                return "OpenGL ES-CM 1.1 " + getClass().getSimpleName();
+            case GL_RENDERER:
+                return getClass().getSimpleName();
+            default:
+                return "";
+        }
+    }
+
+    @Override
+    public void glHint(int target, int mode) {
+        record("glHint");
+    }
+
+    @Override
+    public void glLightModelf(int pname, float param) {
+        record("glLightModelf");
+    }
+
+    @Override
+    public void glLightModelfv(int pname, float[] params, int offset) {
+        record("glLightModelfv");
+    }
+
+    @Override
+    public void glLightModelfv(int pname, FloatBuffer params) {
+        record("glLightModelfv");
+    }
+
+    @Override
+    public void glLightModelx(int pname, int param) {
+        record("glLightModelx");
+    }
+
+    @Override
+    public void glLightModelxv(int pname, int[] params, int offset) {
+        record("glLightModelxv");
+    }
+
+    @Override
+    public void glLightModelxv(int pname, IntBuffer params) {
+        record("glLightModelxv");
+    }
+
+    @Override
+    public void glLightf(int light, int pname, float param) {
+        record("glLightf");
+    }
+
+    @Override
+    public void glLightfv(int light, int pname, float[] params, int offset) {
+        record("glLightfv");
+    }
+
+    @Override
+    public void glLightfv(int light, int pname, FloatBuffer params) {
+        record("glLightfv");
+    }
+
+    @Override
+    public void glLightx(int light, int pname, int param) {
+        record("glLightx");
+    }
+
+    @Override
+    public void glLightxv(int light, int pname, int[] params, int offset) {
+        record("glLightxv");
+    }
+
+    @Override
+    public void glLightxv(int light, int pname, IntBuffer params) {
+        record("glLightxv");
+    }
+
+    @Override
+    public void glLineWidth(float width) {
+        record("glLineWidth");
+    }
+
+    @Override
+    public void glLineWidthx(int width) {
+        record("glLineWidthx");
+    }
+
+    @Override
+    public void glLoadIdentity() {
+        record("glLoadIdentity");
+    }
+
+    @Override
+    public void glLoadMatrixf(float[] m, int offset) {
+        record("glLoadMatrixf");
+    }
+
+    @Override
+    public void glLoadMatrixf(FloatBuffer m) {
+        record("glLoadMatrixf");
+    }
+
+    @Override
+    public void glLoadMatrixx(int[] m, int offset) {
+        record("glLoadMatrixx");
+    }
+
+    @Override
+    public void glLoadMatrixx(IntBuffer m) {
+        record("glLoadMatrixx");
+    }
+
+    @Override
+    public void glLogicOp(int opcode) {
+        record("glLogicOp");
+    }
+
+    @Override
+    public void glMaterialf(int face, int pname, float param) {
+        record("glMaterialf");
+    }
+
+    @Override
+    public void glMaterialfv(int face, int pname, float[] params, int offset) {
+        record("glMaterialfv");
+    }
+
+    @Override
+    public void glMaterialfv(int face, int pname, FloatBuffer params) {
+        record("glMaterialfv");
+    }
+
+    @Override
+    public void glMaterialx(int face, int pname, int param) {
+        record("glMaterialx");
+    }
+
+    @Override
+    public void glMaterialxv(int face, int pname, int[] params, int offset) {
+        record("glMaterialxv");
+    }
+
+    @Override
+    public void glMaterialxv(int face, int pname, IntBuffer params) {
+        record("glMaterialxv");
+    }
+
+    @Override
+    public void glMatrixMode(int mode) {
+        record("glMatrixMode");
+        mMatrixMode = mode;
+    }
+
+    @Override
+    public void glMultMatrixf(float[] m, int offset) {
+        record("glMultMatrixf");
+    }
+
+    @Override
+    public void glMultMatrixf(FloatBuffer m) {
+        record("glMultMatrixf");
+    }
+
+    @Override
+    public void glMultMatrixx(int[] m, int offset) {
+        record("glMultMatrixx");
+    }
+
+    @Override
+    public void glMultMatrixx(IntBuffer m) {
+        record("glMultMatrixx");
+    }
+
+    @Override
+    public void glMultiTexCoord4f(int target, float s, float t, float r, float q) {
+        record("glMultiTexCoord4f");
+    }
+
+    @Override
+    public void glMultiTexCoord4x(int target, int s, int t, int r, int q) {
+        record("glMultiTexCoord4x");
+    }
+
+    @Override
+    public void glNormal3f(float nx, float ny, float nz) {
+        record("glNormal3f");
+    }
+
+    @Override
+    public void glNormal3x(int nx, int ny, int nz) {
+        record("glNormal3x");
+    }
+
+    @Override
+    public void glNormalPointer(int type, int stride, Buffer pointer) {
+        record("glNormalPointer");
+        mNormalArray.set(3, type, stride, pointer);
+    }
+
+    @Override
+    public void glOrthof(float left, float right, float bottom, float top, float near, float far) {
+        record("glOrthof");
+    }
+
+    @Override
+    public void glOrthox(int left, int right, int bottom, int top, int near, int far) {
+        record("glOrthox");
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+        record("glPixelStorei");
+    }
+
+    @Override
+    public void glPointSize(float size) {
+        record("glPointSize");
+    }
+
+    @Override
+    public void glPointSizex(int size) {
+        record("glPointSizex");
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+        record("glPolygonOffset");
+    }
+
+    @Override
+    public void glPolygonOffsetx(int factor, int units) {
+        record("glPolygonOffsetx");
+    }
+
+    @Override
+    public void glPopMatrix() {
+        record("glPopMatrix");
+    }
+
+    @Override
+    public void glPushMatrix() {
+        record("glPushMatrix");
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        record("glReadPixels");
+    }
+
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+        record("glRotatef");
+    }
+
+    @Override
+    public void glRotatex(int angle, int x, int y, int z) {
+        record("glRotatex");
+    }
+
+    @Override
+    public void glSampleCoverage(float value, boolean invert) {
+        record("glSampleCoverage");
+    }
+
+    @Override
+    public void glSampleCoveragex(int value, boolean invert) {
+        record("glSampleCoveragex");
+    }
+
+    @Override
+    public void glScalef(float x, float y, float z) {
+        record("glScalef");
+    }
+
+    @Override
+    public void glScalex(int x, int y, int z) {
+        record("glScalex");
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        record("glScissor");
+    }
+
+    @Override
+    public void glShadeModel(int mode) {
+        record("glShadeModel");
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+        record("glStencilFunc");
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+        record("glStencilMask");
+    }
+
+    @Override
+    public void glStencilOp(int fail, int zfail, int zpass) {
+        record("glStencilOp");
+    }
+
+    @Override
+    public void glTexCoordPointer(int size, int type, int stride, Buffer pointer) {
+        record("glTexCoordPointer");
+        mTexCoordArray.set(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glTexEnvf(int target, int pname, float param) {
+        record("glTexEnvf");
+    }
+
+    @Override
+    public void glTexEnvfv(int target, int pname, float[] params, int offset) {
+        record("glTexEnvfv");
+    }
+
+    @Override
+    public void glTexEnvfv(int target, int pname, FloatBuffer params) {
+        record("glTexEnvfv");
+    }
+
+    @Override
+    public void glTexEnvx(int target, int pname, int param) {
+        record("glTexEnvx");
+    }
+
+    @Override
+    public void glTexEnvxv(int target, int pname, int[] params, int offset) {
+        record("glTexEnvxv");
+    }
+
+    @Override
+    public void glTexEnvxv(int target, int pname, IntBuffer params) {
+        record("glTexEnvxv");
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        record("glTexImage2D");
+        if (pixels != null) {
+            mUploadedBytes += getRemainingBytes(pixels);
+        }
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        record("glTexParameterf");
+    }
+
+    @Override
+    public void glTexParameterx(int target, int pname, int param) {
+        record("glTexParameterx");
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        record("glTexSubImage2D");
+        mUploadedBytes += getRemainingBytes(pixels);
+    }
+
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+        record("glTranslatef");
+    }
+
+    @Override
+    public void glTranslatex(int x, int y, int z) {
+        record("glTranslatex");
+    }
+
+    @Override
+    public void glVertexPointer(int size, int type, int stride, Buffer pointer) {
+        record("glVertexPointer");
+        mVertexArray.set(size, type, stride, pointer);
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        record("glViewport");
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, int[] params, int offset) {
+        record("glTexParameteriv");
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, IntBuffer params) {
+        record("glTexParameteriv");
+    }
+
+    @Override
+    public void glClipPlanef(int plane, float[] equation, int offset) {
+        record("glClipPlanef");
+    }
+
+    @Override
+    public void glClipPlanef(int plane, FloatBuffer equation) {
+        record("glClipPlanef");
+    }
+
+    @Override
+    public void glClipPlanex(int plane, int[] equation, int offset) {
+        record("glClipPlanex");
+    }
+
+    @Override
+    public void glClipPlanex(int plane, IntBuffer equation) {
+        record("glClipPlanex");
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        record("glBindBuffer");
+        if (buffer != 0 && !mBuffers.containsKey(buffer)) {
+            // Names don't have to be generated
+            mBuffers.put(buffer, new BufferObject());
+        }
+
+        if (target == GL_ARRAY_BUFFER) {
+            onStateChange(mArrayBuffer != buffer);
+            mArrayBuffer = buffer;
+        } else if (target == GL_ELEMENT_ARRAY_BUFFER) {
+            onStateChange(mElementArrayBuffer != buffer);
+            mElementArrayBuffer = buffer;
+        } else {
+            throw new IllegalArgumentException("Unknown buffer target: " + target);
+        }
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        record("glBufferData");
+        BufferObject bufferObject = getBoundBuffer(target);
+        bufferObject.size = size;
+        bufferObject.data = null;
+
+        if (target == GL_ELEMENT_ARRAY_BUFFER) {
+            // Indices are needed to validate draws
+            bufferObject.data = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+            if (data != null) {
+                copy(data, bufferObject.data, 0, size);
+            }
+        }
+
+        if (data != null) {
+            checkRemaining(data, size);
+            mUploadedBytes += size;
+        }
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        record("glBufferSubData");
+        BufferObject bufferObject = getBoundBuffer(target);
+        if (offset < 0 || size < 0 || offset + size > bufferObject.size) {
+            throw new IllegalStateException("Range " + offset + ".." + (offset + size) + " is out of buffer " + bufferObject.size + " bytes long");
+        }
+
+        checkRemaining(data, size);
+        if (bufferObject.data != null) {
+            copy(data, bufferObject.data, offset, size);
+        }
+        mUploadedBytes += size;
+    }
+
+    @Override
+    public void glColor4ub(byte red, byte green, byte blue, byte alpha) {
+        record("glColor4ub");
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        record("glDeleteBuffers");
+        for (int i = 0; i < n; i++) {
+            deleteBuffer(buffers[offset + i]);
+        }
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+        record("glDeleteBuffers");
+        for (int i = 0; i < n; i++) {
+            deleteBuffer(buffers.get(buffers.position() + i));
+        }
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        record("glGenBuffers");
+        for (int i = 0; i < n; i++) {
+            buffers[offset + i] = ++mLastName;
+            mBuffers.put(mLastName, new BufferObject());
+        }
+    }
+
+    @Override
+    public void glGenBuffers(int n, IntBuffer buffers) {
+        record("glGenBuffers");
+        for (int i = 0; i < n; i++) {
+            buffers.put(buffers.position() + i, ++mLastName);
+            mBuffers.put(mLastName, new BufferObject());
+        }
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, boolean[] params, int offset) {
+        record("glGetBooleanv");
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, IntBuffer params) {
+        record("glGetBooleanv");
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, int[] params, int offset) {
+        record("glGetBufferParameteriv");
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+        record("glGetBufferParameteriv");
+    }
+
+    @Override
+    public void glGetClipPlanef(int pname, float[] eqn, int offset) {
+        record("glGetClipPlanef");
+    }
+
+    @Override
+    public void glGetClipPlanef(int pname, FloatBuffer eqn) {
+        record("glGetClipPlanef");
+    }
+
+    @Override
+    public void glGetClipPlanex(int pname, int[] eqn, int offset) {
+        record("glGetClipPlanex");
+    }
+
+    @Override
+    public void glGetClipPlanex(int pname, IntBuffer eqn) {
+        record("glGetClipPlanex");
+    }
+
+    @Override
+    public void glGetFixedv(int pname, int[] params, int offset) {
+        record("glGetFixedv");
+    }
+
+    @Override
+    public void glGetFixedv(int pname, IntBuffer params) {
+        record("glGetFixedv");
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+        record("glGetFloatv");
+    }
+
+    @Override
+    public void glGetFloatv(int pname, FloatBuffer params) {
+        record("glGetFloatv");
+    }
+
+    @Override
+    public void glGetLightfv(int light, int pname, float[] params, int offset) {
+        record("glGetLightfv");
+    }
+
+    @Override
+    public void glGetLightfv(int light, int pname, FloatBuffer params) {
+        record("glGetLightfv");
+    }
+
+    @Override
+    public void glGetLightxv(int light, int pname, int[] params, int offset) {
+        record("glGetLightxv");
+    }
+
+    @Override
+    public void glGetLightxv(int light, int pname, IntBuffer params) {
+        record("glGetLightxv");
+    }
+
+    @Override
+    public void glGetMaterialfv(int face, int pname, float[] params, int offset) {
+        record("glGetMaterialfv");
+    }
+
+    @Override
+    public void glGetMaterialfv(int face, int pname, FloatBuffer params) {
+        record("glGetMaterialfv");
+    }
+
+    @Override
+    public void glGetMaterialxv(int face, int pname, int[] params, int offset) {
+        record("glGetMaterialxv");
+    }
+
+    @Override
+    public void glGetMaterialxv(int face, int pname, IntBuffer params) {
+        record("glGetMaterialxv");
+    }
+
+    @Override
+    public void glGetTexEnviv(int env, int pname, int[] params, int offset) {
+        record("glGetTexEnviv");
+    }
+
+    @Override
+    public void glGetTexEnviv(int env, int pname, IntBuffer params) {
+        record("glGetTexEnviv");
+    }
+
+    @Override
+    public void glGetTexEnvxv(int env, int pname, int[] params, int offset) {
+        record("glGetTexEnvxv");
+    }
+
+    @Override
+    public void glGetTexEnvxv(int env, int pname, IntBuffer params) {
+        record("glGetTexEnvxv");
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, float[] params, int offset) {
+        record("glGetTexParameterfv");
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+        record("glGetTexParameterfv");
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, int[] params, int offset) {
+        record("glGetTexParameteriv");
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+        record("glGetTexParameteriv");
+    }
+
+    @Override
+    public void glGetTexParameterxv(int target, int pname, int[] params, int offset) {
+        record("glGetTexParameterxv");
+    }
+
+    @Override
+    public void glGetTexParameterxv(int target, int pname, IntBuffer params) {
+        record("glGetTexParameterxv");
+    }
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        record("glIsBuffer");
+        return mBuffers.containsKey(buffer);
+    }
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        record("glIsEnabled");
+        return mEnabledCaps.contains(cap) || mEnabledClientStates.contains(cap);
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        record("glIsTexture");
+        return mTextures.contains(texture);
+    }
+
+    @Override
+    public void glPointParameterf(int pname, float param) {
+        record("glPointParameterf");
+    }
+
+    @Override
+    public void glPointParameterfv(int pname, float[] params, int offset) {
+        record("glPointParameterfv");
+    }
+
+    @Override
+    public void glPointParameterfv(int pname, FloatBuffer params) {
+        record("glPointParameterfv");
+    }
+
+    @Override
+    public void glPointParameterx(int pname, int param) {
+        record("glPointParameterx");
+    }
+
+    @Override
+    public void glPointParameterxv(int pname, int[] params, int offset) {
+        record("glPointParameterxv");
+    }
+
+    @Override
+    public void glPointParameterxv(int pname, IntBuffer params) {
+        record("glPointParameterxv");
+    }
+
+    @Override
+    public void glPointSizePointerOES(int type, int stride, Buffer pointer) {
+        record("glPointSizePointerOES");
+    }
+
+    @Override
+    public void glTexEnvi(int target, int pname, int param) {
+        record("glTexEnvi");
+    }
+
+    @Override
+    public void glTexEnviv(int target, int pname, int[] params, int offset) {
+        record("glTexEnviv");
+    }
+
+    @Override
+    public void glTexEnviv(int target, int pname, IntBuffer params) {
+        record("glTexEnviv");
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, float[] params, int offset) {
+        record("glTexParameterfv");
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+        record("glTexParameterfv");
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        record("glTexParameteri");
+    }
+
+    @Override
+    public void glTexParameterxv(int target, int pname, int[] params, int offset) {
+        record("glTexParameterxv");
+    }
+
+    @Override
+    public void glTexParameterxv(int target, int pname, IntBuffer params) {
+        record("glTexParameterxv");
+    }
+
+    @Override
+    public void glColorPointer(int size, int type, int stride, int offset) {
+        record("glColorPointer");
+        mColorArray.set(size, type, stride, mArrayBuffer, offset);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+        record("glDrawElements");
+        BufferObject bufferObject = getBoundBuffer(GL_ELEMENT_ARRAY_BUFFER);
+        if (offset < 0 || offset + count * getTypeSize(type) > bufferObject.size) {
+            throw new IllegalStateException("Indices " + offset + ".." + (offset + count * getTypeSize(type)) + " are out of element buffer " + bufferObject.size + " bytes long");
+        }
+
+        ByteBuffer indices = bufferObject.data.duplicate().order(ByteOrder.nativeOrder());
+        indices.position(offset);
+        readIndexRange(indices, count, type);
+        onDraw(mMinIndex, mMaxIndex, count);
+    }
+
+    @Override
+    public void glGetPointerv(int pname, Buffer[] params) {
+        record("glGetPointerv");
+    }
+
+    @Override
+    public void glNormalPointer(int type, int stride, int offset) {
+        record("glNormalPointer");
+        mNormalArray.set(3, type, stride, mArrayBuffer, offset);
+    }
+
+    @Override
+    public void glTexCoordPointer(int size, int type, int stride, int offset) {
+        record("glTexCoordPointer");
+        mTexCoordArray.set(size, type, stride, mArrayBuffer, offset);
+    }
+
+    @Override
+    public void glVertexPointer(int size, int type, int stride, int offset) {
+        record("glVertexPointer");
+        mVertexArray.set(size, type, stride, mArrayBuffer, offset);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void record(String method) {
+        mCallCount++;
+
+        int[] count = mCallCounts.get(method);
+        if (count == null) {
+            count = new int[1];
+            mCallCounts.put(method, count);
+        }
+        count[0]++;
+    }
+
+    private void onStateChange(boolean changed) {
+        mStateChangeCount++;
+        if (!changed) {
+            mRedundantStateChangeCount++;
+        }
+    }
+
+    private void onDraw(int minIndex, int maxIndex, int count) {
+        mDrawCallCount++;
+        mVertexCount += count;
+
+        if (count <= 0) {
+            return;
+        }
+        if (minIndex < 0) {
+            throw new IllegalStateException("Negative vertex index " + minIndex);
+        }
+        if (!mEnabledClientStates.contains(GL_VERTEX_ARRAY)) {
+            throw new IllegalStateException("Drawing with vertex array disabled");
+        }
+
+        for (ArrayPointer array : mArrays) {
+            if (!mEnabledClientStates.contains(array.array)) {
+                continue;
+            }
+            if (array.elementSize == 0) {
+                throw new IllegalStateException("Drawing with " + array.name + " array enabled, but not set up");
+            }
+
+            int availableBytes;
+            if (array.buffer != 0) {
+                BufferObject bufferObject = mBuffers.get(array.buffer);
+                if (bufferObject == null) {
+                    throw new IllegalStateException("The " + array.name + " array points into deleted buffer " + array.buffer);
+                }
+                availableBytes = bufferObject.size - array.offset;
+            } else {
+                availableBytes = array.clientBytes;
+                mPointerBytes += (maxIndex - minIndex + 1) * array.elementSize;
+            }
+
+            if (maxIndex * array.stride + array.elementSize > availableBytes) {
+                throw new IllegalStateException("Vertex " + maxIndex + " is out of the " + array.name + " array of " + availableBytes + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Finds the min and max of {@code count} indices of the type starting at the buffer's position.
+     */
+    private void readIndexRange(Buffer indices, int count, int type) {
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        int position = indices.position();
+
+        for (int i = 0; i < count; i++) {
+            int index;
+            if (indices instanceof ShortBuffer) {
+                index = ((ShortBuffer) indices).get(position + i) & 0xFFFF;
+            } else if (indices instanceof ByteBuffer && type == GL_UNSIGNED_SHORT) {
+                index = ((ByteBuffer) indices).getShort(position + i * 2) & 0xFFFF;
+            } else if (indices instanceof ByteBuffer && type == GL_UNSIGNED_BYTE) {
+                index = ((ByteBuffer) indices).get(position + i) & 0xFF;
+            } else {
+                throw new IllegalArgumentException("Unsupported indices " + indices + " of type " + type);
+            }
+
+            min = Math.min(min, index);
+            max = Math.max(max, index);
+        }
+
+        mMinIndex = min;
+        mMaxIndex = max;
+    }
+
+    private BufferObject getBoundBuffer(int target) {
+        int buffer = getBoundBufferName(target);
+        if (buffer == 0) {
+            throw new IllegalStateException("No buffer bound to target " + target);
+        }
+        return mBuffers.get(buffer);
+    }
+
+    private void deleteTexture(int texture) {
+        if (mTextures.remove(texture) && mBoundTexture == texture) {
+            mBoundTexture = 0;
+        }
+    }
+
+    private void deleteBuffer(int buffer) {
+        if (mBuffers.remove(buffer) == null) {
+            return;
+        }
+        if (mArrayBuffer == buffer) {
+            mArrayBuffer = 0;
+        }
+        if (mElementArrayBuffer == buffer) {
+            mElementArrayBuffer = 0;
+        }
+    }
+
+    private int getInteger(int pname) {
+        switch (pname) {
+            case GL_MAX_TEXTURE_SIZE:
+                return MAX_TEXTURE_SIZE;
+            case GL_TEXTURE_BINDING_2D:
+                return mBoundTexture;
+            case GL_ARRAY_BUFFER_BINDING:
+                return mArrayBuffer;
+            case GL_ELEMENT_ARRAY_BUFFER_BINDING:
+                return mElementArrayBuffer;
+            case GL_MATRIX_MODE:
+                return mMatrixMode;
+            default:
+                return 0;
+        }
+    }
+
+    private static void checkRemaining(Buffer data, int size) {
+        if (getRemainingBytes(data) < size) {
+            throw new IllegalArgumentException("Only " + getRemainingBytes(data) + " bytes remaining, " + size + " needed");
+        }
+    }
+
+    private static int getRemainingBytes(Buffer data) {
+        if (data instanceof ByteBuffer) {
+            return data.remaining();
+        } else if (data instanceof ShortBuffer || data instanceof CharBuffer) {
+            return data.remaining() * 2;
+        } else if (data instanceof LongBuffer || data instanceof DoubleBuffer) {
+            return data.remaining() * 8;
+        }
+        return data.remaining() * 4;
+    }
+
+    private static int getTypeSize(int type) {
+        switch (type) {
+            case GL_BYTE:
+            case GL_UNSIGNED_BYTE:
+                return 1;
+            case GL_SHORT:
+            case GL_UNSIGNED_SHORT:
+                return 2;
+            case GL_FIXED:
+            case GL_FLOAT:
+                return 4;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    /**
+     * Copies {@code size} bytes from the position of the source into the destination at the offset.
+     */
+    private static void copy(Buffer src, ByteBuffer dst, int offset, int size) {
+        ByteBuffer target = dst.duplicate().order(dst.order());
+        target.position(offset);
+
+        if (src instanceof ByteBuffer) {
+            ByteBuffer source = ((ByteBuffer) src).duplicate();
+            source.limit(source.position() + size);
+            target.put(source);
+        } else if (src instanceof ShortBuffer) {
+            ShortBuffer source = ((ShortBuffer) src).duplicate();
+            source.limit(source.position() + size / 2);
+            target.asShortBuffer().put(source);
+        } else if (src instanceof IntBuffer) {
+            IntBuffer source = ((IntBuffer) src).duplicate();
+            source.limit(source.position() + size / 4);
+            target.asIntBuffer().put(source);
+        } else if (src instanceof FloatBuffer) {
+            FloatBuffer source = ((FloatBuffer) src).duplicate();
+            source.limit(source.position() + size / 4);
+            target.asFloatBuffer().put(source);
+        } else {
+            throw new IllegalArgumentException("Unsupported buffer " + src);
+        }
+    }
+
+    private static class BufferObject {
+        int size;
+        // Contents of element buffers only
+        ByteBuffer data;
+    }
+
+    /**
+     * Vertex array set up with one of the gl*Pointer methods, either client side or in a buffer object.
+     */
+    private static class ArrayPointer {
+        final int array;
+        final String name;
+
+        // Bytes per vertex, 0 if not set up
+        int elementSize;
+        int stride;
+        int buffer;
+        int offset;
+        int clientBytes;
+
+        ArrayPointer(int array, String name) {
+            this.array = array;
+            this.name = name;
+        }
+
+        void set(int size, int type, int stride, Buffer pointer) {
+            set(size, type, stride, 0, 0);
+            // The address is taken at the call, later position changes don't matter
+            this.clientBytes = getRemainingBytes(pointer);
+        }
+
+        void set(int size, int type, int stride, int buffer, int offset) {
+            this.elementSize = size * getTypeSize(type);
+            this.stride = stride != 0 ? stride : elementSize;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.clientBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import android.graphics.RectF;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ykrapiva.eventmap.EventMap;
+import com.github.ykrapiva.eventmap.EventMapFigure;
+import com.github.ykrapiva.eventmap.FigureType;
+import com.github.ykrapiva.eventmap.io.SeatMapReader;
+import com.github.ykrapiva.eventmap.io.SeatRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the sample hall from memory into an event map: the binary seat map read with {@link SeatMapReader}
+ * against the JSON it was converted from, bound to {@link Hall} with Jackson databind the way the sample app
+ * loaded it. Both create figures the same way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SeatMapBenchmark {
+    private static final SeatMapReader.FigureFactory<EventMapFigure> FIGURE_FACTORY = new SeatMapReader.FigureFactory<EventMapFigure>() {
+        @Override
+        public EventMapFigure createFigure(SeatRecord record) {
+            return createSeat(record.x, record.y, record.width, record.height, record.color, record.title);
+        }
+    };
+
+    private byte[] mSeatMap;
+    private byte[] mJson;
+    private final ObjectMapper mMapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() throws IOException {
+        mSeatMap = readResource("/sample_map.seats");
+        mJson = readResource("/sample_map.json");
+    }
+
+    @Benchmark
+    public EventMap<EventMapFigure> loadSeatMap() throws IOException {
+        SeatMapReader reader = new SeatMapReader(new ByteArrayInputStream(mSeatMap));
+        try {
+            EventMap<EventMapFigure> eventMap = new EventMap<EventMapFigure>(reader.getMapWidth(), reader.getMapHeight());
+            reader.readInto(eventMap, FIGURE_FACTORY);
+            return eventMap;
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public EventMap<EventMapFigure> loadJson() throws IOException {
+        List<Hall> halls = mMapper.readValue(mJson, mMapper.getTypeFactory().constructCollectionType(List.class, Hall.class));
+        Hall hall = halls.get(0);
+
+        // Same places and map size as HallConverter writes
+        int mapWidth = hall.width;
+        int mapHeight = hall.height;
+        List<EventMapFigure> seats = new ArrayList<EventMapFigure>();
+
+        for (Hall.Sector sector : hall.sectors) {
+            for (Hall.Row row : sector.rows) {
+                for (Hall.Place place : row.places) {
+                    if (hall.width == 0 || hall.height == 0) {
+                        mapWidth = Math.max(mapWidth, place.x + place.width);
+                        mapHeight = Math.max(mapHeight, place.y + place.height);
+                    }
+
+                    if (place.prices == null || place.prices.isEmpty()) {
+                        continue;
+                    }
+
+                    seats.add(createSeat(place.x, place.y, place.width, place.height, 0xFF000000 | place.prices.get(0).color,
+                            String.valueOf(place.number)));
+                }
+            }
+        }
+
+        EventMap<EventMapFigure> eventMap = new EventMap<EventMapFigure>(mapWidth, mapHeight);
+        eventMap.add(seats);
+        return eventMap;
+    }
+
+    private static EventMapFigure createSeat(int x, int y, int width, int height, int color, String title) {
+        EventMapFigure seat = new EventMapFigure(FigureType.RECTANGLE, new RectF(x, y, x + width, y + height), color);
+        seat.setTitle(title);
+        return seat;
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        InputStream in = SeatMapBenchmark.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("No " + name + " on the class path");
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.github.ykrapiva.eventmap.FigureType;
+import com.github.ykrapiva.eventmap.io.SeatMapReader;
+import com.github.ykrapiva.eventmap.io.SeatMapWriter;
+import com.github.ykrapiva.eventmap.io.SeatRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes a seat map and reads it back, then reads every truncation of it and copies with random bytes
+ * overwritten. Fails unless the seats come back as written and damaged maps fail with an {@link IOException}
+ * or read without throwing anything else.
+ */
+public class SeatMapCheck {
+    private static final int SEATS = 5000;
+    private static final int CORRUPTED_COPIES = 20000;
+    private static final int[] COLORS = {0xFF4CAF50, 0xFFF44336, 0xFF9E9E9E, 0xFF2196F3};
+
+    public static void main(String[] args) throws IOException {
+        List<SeatRecord> records = createRecords();
+        byte[] map = write(records);
+
+        List<SeatRecord> read = read(map);
+        check(read.size() == records.size(), "Read " + read.size() + " seats of " + records.size());
+        for (int i = 0; i < records.size(); i++) {
+            check(read.get(i).toString().equals(records.get(i).toString()), "Read " + read.get(i) + " instead of " + records.get(i));
+        }
+
+        int truncatedFailures = 0;
+        for (int length = 0; length < map.length; length++) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(map, 0, truncated, 0, length);
+            check(readDamaged(truncated), "Map truncated to " + length + " bytes of " + map.length + " read without an error");
+            truncatedFailures++;
+        }
+
+        Random random = new Random(SEATS);
+        int corruptedFailures = 0;
+        for (int i = 0; i < CORRUPTED_COPIES; i++) {
+            byte[] corrupted = map.clone();
+            for (int j = random.nextInt(4); j >= 0; j--) {
+                corrupted[random.nextInt(corrupted.length)] = (byte) random.nextInt(256);
+            }
+            if (readDamaged(corrupted)) {
+                corruptedFailures++;
+            }
+        }
+
+        System.out.println(SEATS + " seats in " + map.length + " bytes, " + truncatedFailures + " truncations failed, "
+                + corruptedFailures + " of " + CORRUPTED_COPIES + " corrupted copies failed");
+    }
+
+    private static List<SeatRecord> createRecords() {
+        List<SeatRecord> records = new ArrayList<SeatRecord>(SEATS);
+        for (int i = 0; i < SEATS; i++) {
+            SeatRecord record = new SeatRecord();
+            record.id = 1000000L + i;
+            record.type = FigureType.values()[i % FigureType.values().length];
+            record.x = (i % 100) * 12;
+            record.y = (i / 100) * 12;
+            record.width = 10;
+            record.height = 10;
+            record.color = COLORS[i % COLORS.length];
+            record.title = i % 7 != 0 ? String.valueOf(i % 100 + 1) : null;
+            record.group = i / 100;
+            record.status = i % 3;
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static byte[] write(List<SeatRecord> records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SeatMapWriter writer = new SeatMapWriter(out, 1200, 600);
+        for (SeatRecord record : records) {
+            writer.write(record);
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static List<SeatRecord> read(byte[] map) throws IOException {
+        final List<SeatRecord> records = new ArrayList<SeatRecord>();
+        SeatMapReader reader = new SeatMapReader(new ByteArrayInputStream(map));
+        reader.read(new SeatMapReader.SeatListener() {
+            @Override
+            public void onSeat(SeatRecord record) {
+                SeatRecord copy = new SeatRecord();
+                copy.id = record.id;
+                copy.type = record.type;
+                copy.x = record.x;
+                copy.y = record.y;
+                copy.width = record.width;
+                copy.height = record.height;
+                copy.color = record.color;
+                copy.title = record.title;
+                copy.group = record.group;
+                copy.status = record.status;
+                records.add(copy);
+            }
+        });
+        reader.close();
+        return records;
+    }
+
+    /**
+     * @return whether reading failed, anything but an {@link IOException} is let through
+     */
+    private static boolean readDamaged(byte[] map) {
+        try {
+            read(map);
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
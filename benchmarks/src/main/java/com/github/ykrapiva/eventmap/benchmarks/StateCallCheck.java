@@ -0,0 +1,52 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+/**
+ * Draws reference halls at several zoom levels through {@link RecordingGL} and fails when state changing calls
+ * come back: redundant ones, or more than the element buffer bound around every draw call
+ * and the state set up once per frame take.
+ */
+public class StateCallCheck {
+    private static final int[] SEATS = {1000, 10000, 200000};
+    private static final float[] SCALES = {1, 8, 32};
+
+    // Blend function is unknown at the start of a frame, so it's set once even if it didn't change
+    private static final int MAX_REDUNDANT_CALLS_PER_FRAME = 1;
+    // Element buffer is bound for a draw call and unbound after it
+    private static final int MAX_STATE_CALLS_PER_DRAW = 2;
+    // Capabilities, arrays and textures of seats and text, and the buffer object of every seat chunk drawn
+    private static final int MAX_STATE_CALLS_PER_FRAME = 100;
+
+    public static void main(String[] args) {
+        for (int seats : SEATS) {
+            RecordingGL gl = new RecordingGL();
+            HeadlessEventMap eventMap = new HeadlessEventMap(new SyntheticHall(seats, true), gl);
+            eventMap.load();
+
+            for (float scale : SCALES) {
+                eventMap.lookAt(scale, 0, 0);
+                eventMap.draw();
+
+                gl.resetCounters();
+                eventMap.draw();
+
+                int states = gl.getStateChangeCount();
+                int redundant = gl.getRedundantStateChangeCount();
+                int draws = gl.getDrawCallCount();
+
+                check(redundant <= MAX_REDUNDANT_CALLS_PER_FRAME,
+                        seats + " seats at " + scale + ": " + redundant + " redundant state calls of " + states);
+                check(states <= draws * MAX_STATE_CALLS_PER_DRAW + MAX_STATE_CALLS_PER_FRAME,
+                        seats + " seats at " + scale + ": " + states + " state calls for " + draws + " draws");
+
+                System.out.println(seats + " seats at " + scale + ": " + states + " state calls, " + redundant
+                        + " redundant, " + draws + " draws");
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,795 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import javax.microedition.khronos.opengles.GL11;
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * OpenGL ES 1.1 which does nothing, so that benchmarks measure the library's CPU work only.
+ * Reports itself as version 1.1, hands out texture and buffer names and a max texture size.
+ * Wrap it with {@link com.github.ykrapiva.eventmap.gl.MatrixTrackingGL} for code which reads matrices back.
+ */
+public class StubGL implements GL11 {
+    private static final int MAX_TEXTURE_SIZE = 4096;
+
+    private int mLastName;
+
+    @Override
+    public void glActiveTexture(int texture) {
+    }
+
+    @Override
+    public void glAlphaFunc(int func, float ref) {
+    }
+
+    @Override
+    public void glAlphaFuncx(int func, int ref) {
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+    }
+
+    @Override
+    public void glClear(int mask) {
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+    }
+
+    @Override
+    public void glClearColorx(int red, int green, int blue, int alpha) {
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+    }
+
+    @Override
+    public void glClearDepthx(int depth) {
+    }
+
+    @Override
+    public void glClearStencil(int s) {
+    }
+
+    @Override
+    public void glClientActiveTexture(int texture) {
+    }
+
+    @Override
+    public void glColor4f(float red, float green, float blue, float alpha) {
+    }
+
+    @Override
+    public void glColor4x(int red, int green, int blue, int alpha) {
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+    }
+
+    @Override
+    public void glColorPointer(int size, int type, int stride, Buffer pointer) {
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+    }
+
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+    }
+
+    @Override
+    public void glDeleteTextures(int n, IntBuffer textures) {
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+    }
+
+    @Override
+    public void glDepthRangef(float near, float far) {
+    }
+
+    @Override
+    public void glDepthRangex(int near, int far) {
+    }
+
+    @Override
+    public void glDisable(int cap) {
+    }
+
+    @Override
+    public void glDisableClientState(int array) {
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+    }
+
+    @Override
+    public void glEnable(int cap) {
+    }
+
+    @Override
+    public void glEnableClientState(int array) {
+    }
+
+    @Override
+    public void glFinish() {
+    }
+
+    @Override
+    public void glFlush() {
+    }
+
+    @Override
+    public void glFogf(int pname, float param) {
+    }
+
+    @Override
+    public void glFogfv(int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glFogfv(int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glFogx(int pname, int param) {
+    }
+
+    @Override
+    public void glFogxv(int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glFogxv(int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glFrontFace(int mode) {
+    }
+
+    @Override
+    public void glFrustumf(float left, float right, float bottom, float top, float near, float far) {
+    }
+
+    @Override
+    public void glFrustumx(int left, int right, int bottom, int top, int near, int far) {
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        for (int i = 0; i < n; i++) {
+            textures[offset + i] = ++mLastName;
+        }
+    }
+
+    @Override
+    public void glGenTextures(int n, IntBuffer textures) {
+    }
+
+    @Override
+    public int glGetError() {
+        return GL_NO_ERROR;
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        if (pname == GL_MAX_TEXTURE_SIZE) {
+            params[offset] = MAX_TEXTURE_SIZE;
+        }
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, IntBuffer params) {
+    }
+
+    @Override
+    public String glGetString(int name) {
+        return name == GL_VERSION ? "OpenGL ES-CM 1.1 stub" : "";
+    }
+
+    @Override
+    public void glHint(int target, int mode) {
+    }
+
+    @Override
+    public void glLightModelf(int pname, float param) {
+    }
+
+    @Override
+    public void glLightModelfv(int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glLightModelfv(int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glLightModelx(int pname, int param) {
+    }
+
+    @Override
+    public void glLightModelxv(int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glLightModelxv(int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glLightf(int light, int pname, float param) {
+    }
+
+    @Override
+    public void glLightfv(int light, int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glLightfv(int light, int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glLightx(int light, int pname, int param) {
+    }
+
+    @Override
+    public void glLightxv(int light, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glLightxv(int light, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glLineWidth(float width) {
+    }
+
+    @Override
+    public void glLineWidthx(int width) {
+    }
+
+    @Override
+    public void glLoadIdentity() {
+    }
+
+    @Override
+    public void glLoadMatrixf(float[] m, int offset) {
+    }
+
+    @Override
+    public void glLoadMatrixf(FloatBuffer m) {
+    }
+
+    @Override
+    public void glLoadMatrixx(int[] m, int offset) {
+    }
+
+    @Override
+    public void glLoadMatrixx(IntBuffer m) {
+    }
+
+    @Override
+    public void glLogicOp(int opcode) {
+    }
+
+    @Override
+    public void glMaterialf(int face, int pname, float param) {
+    }
+
+    @Override
+    public void glMaterialfv(int face, int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glMaterialfv(int face, int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glMaterialx(int face, int pname, int param) {
+    }
+
+    @Override
+    public void glMaterialxv(int face, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glMaterialxv(int face, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glMatrixMode(int mode) {
+    }
+
+    @Override
+    public void glMultMatrixf(float[] m, int offset) {
+    }
+
+    @Override
+    public void glMultMatrixf(FloatBuffer m) {
+    }
+
+    @Override
+    public void glMultMatrixx(int[] m, int offset) {
+    }
+
+    @Override
+    public void glMultMatrixx(IntBuffer m) {
+    }
+
+    @Override
+    public void glMultiTexCoord4f(int target, float s, float t, float r, float q) {
+    }
+
+    @Override
+    public void glMultiTexCoord4x(int target, int s, int t, int r, int q) {
+    }
+
+    @Override
+    public void glNormal3f(float nx, float ny, float nz) {
+    }
+
+    @Override
+    public void glNormal3x(int nx, int ny, int nz) {
+    }
+
+    @Override
+    public void glNormalPointer(int type, int stride, Buffer pointer) {
+    }
+
+    @Override
+    public void glOrthof(float left, float right, float bottom, float top, float near, float far) {
+    }
+
+    @Override
+    public void glOrthox(int left, int right, int bottom, int top, int near, int far) {
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+    }
+
+    @Override
+    public void glPointSize(float size) {
+    }
+
+    @Override
+    public void glPointSizex(int size) {
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+    }
+
+    @Override
+    public void glPolygonOffsetx(int factor, int units) {
+    }
+
+    @Override
+    public void glPopMatrix() {
+    }
+
+    @Override
+    public void glPushMatrix() {
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+    }
+
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+    }
+
+    @Override
+    public void glRotatex(int angle, int x, int y, int z) {
+    }
+
+    @Override
+    public void glSampleCoverage(float value, boolean invert) {
+    }
+
+    @Override
+    public void glSampleCoveragex(int value, boolean invert) {
+    }
+
+    @Override
+    public void glScalef(float x, float y, float z) {
+    }
+
+    @Override
+    public void glScalex(int x, int y, int z) {
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void glShadeModel(int mode) {
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+    }
+
+    @Override
+    public void glStencilOp(int fail, int zfail, int zpass) {
+    }
+
+    @Override
+    public void glTexCoordPointer(int size, int type, int stride, Buffer pointer) {
+    }
+
+    @Override
+    public void glTexEnvf(int target, int pname, float param) {
+    }
+
+    @Override
+    public void glTexEnvfv(int target, int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glTexEnvfv(int target, int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glTexEnvx(int target, int pname, int param) {
+    }
+
+    @Override
+    public void glTexEnvxv(int target, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glTexEnvxv(int target, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+    }
+
+    @Override
+    public void glTexParameterx(int target, int pname, int param) {
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+    }
+
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+    }
+
+    @Override
+    public void glTranslatex(int x, int y, int z) {
+    }
+
+    @Override
+    public void glVertexPointer(int size, int type, int stride, Buffer pointer) {
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glClipPlanef(int plane, float[] equation, int offset) {
+    }
+
+    @Override
+    public void glClipPlanef(int plane, FloatBuffer equation) {
+    }
+
+    @Override
+    public void glClipPlanex(int plane, int[] equation, int offset) {
+    }
+
+    @Override
+    public void glClipPlanex(int plane, IntBuffer equation) {
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+    }
+
+    @Override
+    public void glColor4ub(byte red, byte green, byte blue, byte alpha) {
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        for (int i = 0; i < n; i++) {
+            buffers[offset + i] = ++mLastName;
+        }
+    }
+
+    @Override
+    public void glGenBuffers(int n, IntBuffer buffers) {
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, boolean[] params, int offset) {
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetClipPlanef(int pname, float[] eqn, int offset) {
+    }
+
+    @Override
+    public void glGetClipPlanef(int pname, FloatBuffer eqn) {
+    }
+
+    @Override
+    public void glGetClipPlanex(int pname, int[] eqn, int offset) {
+    }
+
+    @Override
+    public void glGetClipPlanex(int pname, IntBuffer eqn) {
+    }
+
+    @Override
+    public void glGetFixedv(int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetFixedv(int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glGetFloatv(int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glGetLightfv(int light, int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glGetLightfv(int light, int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glGetLightxv(int light, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetLightxv(int light, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetMaterialfv(int face, int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glGetMaterialfv(int face, int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glGetMaterialxv(int face, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetMaterialxv(int face, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetTexEnviv(int env, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetTexEnviv(int env, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetTexEnvxv(int env, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetTexEnvxv(int env, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glGetTexParameterxv(int target, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glGetTexParameterxv(int target, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        return false;
+    }
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        return false;
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        return false;
+    }
+
+    @Override
+    public void glPointParameterf(int pname, float param) {
+    }
+
+    @Override
+    public void glPointParameterfv(int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glPointParameterfv(int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glPointParameterx(int pname, int param) {
+    }
+
+    @Override
+    public void glPointParameterxv(int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glPointParameterxv(int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glPointSizePointerOES(int type, int stride, Buffer pointer) {
+    }
+
+    @Override
+    public void glTexEnvi(int target, int pname, int param) {
+    }
+
+    @Override
+    public void glTexEnviv(int target, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glTexEnviv(int target, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+    }
+
+    @Override
+    public void glTexParameterxv(int target, int pname, int[] params, int offset) {
+    }
+
+    @Override
+    public void glTexParameterxv(int target, int pname, IntBuffer params) {
+    }
+
+    @Override
+    public void glColorPointer(int size, int type, int stride, int offset) {
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+    }
+
+    @Override
+    public void glGetPointerv(int pname, Buffer[] params) {
+    }
+
+    @Override
+    public void glNormalPointer(int type, int stride, int offset) {
+    }
+
+    @Override
+    public void glTexCoordPointer(int size, int type, int stride, int offset) {
+    }
+
+    @Override
+    public void glVertexPointer(int size, int type, int stride, int offset) {
+    }
+}
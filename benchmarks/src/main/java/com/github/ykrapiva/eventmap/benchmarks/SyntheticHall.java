@@ -0,0 +1,74 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import android.graphics.RectF;
+import com.github.ykrapiva.eventmap.EventMapFigure;
+import com.github.ykrapiva.eventmap.FigureType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated hall: sectors of rows of seats laid out in a square grid.
+ * Sectors alternate between square and round seats, seats are colored by one of a few prices.
+ */
+public class SyntheticHall {
+    private static final int SEATS_PER_ROW = 50;
+    private static final int ROWS_PER_SECTOR = 20;
+    private static final float SEAT_SIZE = 20.0f;
+    private static final float SEAT_SPACING = 6.0f;
+    private static final float SECTOR_GAP = 100.0f;
+    private static final int[] PRICE_COLORS = {0xFF3F51B5, 0xFF4CAF50, 0xFFFFC107, 0xFFE91E63, 0xFF9C27B0};
+
+    private final List<EventMapFigure> mSeats;
+    private final float mWidth;
+    private final float mHeight;
+
+    /**
+     * @param titled Whether seats have titles, their numbers in rows
+     */
+    public SyntheticHall(int numSeats, boolean titled) {
+        Random random = new Random(numSeats);
+
+        int seatsPerSector = SEATS_PER_ROW * ROWS_PER_SECTOR;
+        int numSectors = (numSeats + seatsPerSector - 1) / seatsPerSector;
+        int sectorsPerLine = (int) Math.ceil(Math.sqrt(numSectors));
+        float sectorWidth = SEATS_PER_ROW * (SEAT_SIZE + SEAT_SPACING) + SECTOR_GAP;
+        float sectorHeight = ROWS_PER_SECTOR * (SEAT_SIZE + SEAT_SPACING) + SECTOR_GAP;
+
+        mSeats = new ArrayList<EventMapFigure>(numSeats);
+
+        for (int i = 0; i < numSeats; i++) {
+            int sector = i / seatsPerSector;
+            int row = (i % seatsPerSector) / SEATS_PER_ROW;
+            int place = i % SEATS_PER_ROW;
+
+            float left = (sector % sectorsPerLine) * sectorWidth + place * (SEAT_SIZE + SEAT_SPACING);
+            float top = (sector / sectorsPerLine) * sectorHeight + row * (SEAT_SIZE + SEAT_SPACING);
+            RectF rect = new RectF(left, top, left + SEAT_SIZE, top + SEAT_SIZE);
+
+            FigureType type = sector % 2 == 0 ? FigureType.RECTANGLE : FigureType.CIRCLE;
+            EventMapFigure seat = new EventMapFigure(type, rect, PRICE_COLORS[random.nextInt(PRICE_COLORS.length)]);
+            if (titled) {
+                seat.setTitle(String.valueOf(place + 1));
+            }
+
+            mSeats.add(seat);
+        }
+
+        mWidth = Math.min(numSectors, sectorsPerLine) * sectorWidth;
+        mHeight = ((numSectors + sectorsPerLine - 1) / sectorsPerLine) * sectorHeight;
+    }
+
+    public List<EventMapFigure> getSeats() {
+        return mSeats;
+    }
+
+    public float getWidth() {
+        return mWidth;
+    }
+
+    public float getHeight() {
+        return mHeight;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import com.github.ykrapiva.eventmap.gl.Ray;
+import com.github.ykrapiva.eventmap.gl.Triangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single ray and triangle intersection test, for a triangle hit by the ray and one missed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TriangleBenchmark {
+    private Ray mRay;
+    private Triangle mHit;
+    private Triangle mMiss;
+    private final float[] mIntersection = new float[3];
+
+    @Setup
+    public void setUp() {
+        HeadlessEventMap eventMap = new HeadlessEventMap(new SyntheticHall(1, false));
+        mRay = eventMap.createRay(HeadlessEventMap.SCREEN_WIDTH / 2.0f, HeadlessEventMap.SCREEN_HEIGHT / 2.0f);
+
+        // Rays are in eye coordinates, the one of the screen center goes along the z axis
+        mHit = new Triangle(new float[]{-10, -10, -2}, new float[]{10, -10, -2}, new float[]{0, 10, -2});
+        mMiss = new Triangle(new float[]{90, 90, -2}, new float[]{110, 90, -2}, new float[]{100, 110, -2});
+    }
+
+    @Benchmark
+    public int hit() {
+        return Triangle.intersectRayAndTriangle(mRay, mHit, mIntersection);
+    }
+
+    @Benchmark
+    public int miss() {
+        return Triangle.intersectRayAndTriangle(mRay, mMiss, mIntersection);
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.ykrapiva.eventmap.benchmarks;
+
+import android.graphics.RectF;
+import com.github.ykrapiva.eventmap.EventMap;
+import com.github.ykrapiva.eventmap.EventMapFigure;
+import com.github.ykrapiva.eventmap.SeatUpdateQueue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Drives a {@link SeatUpdateQueue} of a loaded map the way a backend would and fails when updates are lost
+ * or the queue misbehaves. A producer thread offers {@link #UPDATES_PER_SECOND} updates of a few hot seats
+ * while frames are drawn at 60 fps: updates of the same seat are coalesced, the queue never grows past
+ * its capacity, nothing is rejected and every seat ends up with the color it was last offered.
+ * A burst with no frames drawn is rejected once the queue is full and drained a batch per frame.
+ */
+public class UpdateQueueCheck {
+    private static final int SEATS = 50000;
+    private static final int HOT_SEATS = 2000;
+    private static final int UPDATES_PER_SECOND = 10000;
+    private static final long PRODUCER_MILLIS = 2000;
+    private static final long FRAME_MILLIS = 16;
+
+    private static final int BURST_CAPACITY = 256;
+    private static final int BURST_UPDATES_PER_FRAME = 64;
+
+    private static final EventMap.KeyExtractor<EventMapFigure> KEY_EXTRACTOR = new EventMap.KeyExtractor<EventMapFigure>() {
+        @Override
+        public long getKey(EventMapFigure seat) {
+            return getSeatId(seat);
+        }
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        SyntheticHall hall = new SyntheticHall(SEATS, false);
+        HeadlessEventMap eventMap = new HeadlessEventMap(hall, new StubGL());
+        eventMap.getEventMap().setKeyExtractor(KEY_EXTRACTOR);
+        eventMap.load();
+
+        checkSustainedRate(eventMap, hall.getSeats());
+        checkBurst(eventMap, hall.getSeats());
+    }
+
+    private static void checkSustainedRate(HeadlessEventMap eventMap, List<EventMapFigure> seats) throws InterruptedException {
+        final SeatUpdateQueue queue = new SeatUpdateQueue();
+        eventMap.getEventMap().setUpdateQueue(queue);
+
+        final Random random = new Random(SEATS);
+        final long[] ids = new long[HOT_SEATS];
+        for (int i = 0; i < HOT_SEATS; i++) {
+            ids[i] = getSeatId(seats.get(random.nextInt(seats.size())));
+        }
+
+        // Last color offered by id, read once the producer is done
+        final Map<Long, Integer> lastColors = new HashMap<Long, Integer>();
+        final long[] offered = new long[1];
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.currentTimeMillis();
+                long elapsed;
+
+                while ((elapsed = System.currentTimeMillis() - start) < PRODUCER_MILLIS) {
+                    // Catch up with the rate
+                    for (long due = elapsed * UPDATES_PER_SECOND / 1000 - offered[0]; due > 0; due--) {
+                        long id = ids[random.nextInt(HOT_SEATS)];
+                        int color = 0xFF000000 | random.nextInt(0x1000000);
+                        if (queue.offer(id, color)) {
+                            lastColors.put(id, color);
+                        }
+                        offered[0]++;
+                    }
+
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        });
+
+        int maxSize = 0;
+        int frames = 0;
+        producer.start();
+
+        while (producer.isAlive() || queue.size() > 0) {
+            maxSize = Math.max(maxSize, queue.size());
+            eventMap.draw();
+            frames++;
+            Thread.sleep(FRAME_MILLIS);
+        }
+        producer.join();
+
+        check(queue.getRejectedCount() == 0, queue.getRejectedCount() + " updates rejected at " + UPDATES_PER_SECOND + "/s");
+        check(queue.getCoalescedCount() > 0, "No updates coalesced out of " + offered[0]);
+        check(maxSize <= queue.getCapacity(), "Queue grew to " + maxSize + " past capacity " + queue.getCapacity());
+
+        Map<Long, EventMapFigure> seatsById = new HashMap<Long, EventMapFigure>();
+        for (EventMapFigure seat : seats) {
+            seatsById.put(getSeatId(seat), seat);
+        }
+        for (Map.Entry<Long, Integer> entry : lastColors.entrySet()) {
+            int color = seatsById.get(entry.getKey()).getColor();
+            check(color == entry.getValue(), "Seat " + entry.getKey() + " has color " + Integer.toHexString(color)
+                    + " instead of " + Integer.toHexString(entry.getValue()));
+        }
+
+        System.out.println("sustained: offered " + offered[0] + " in " + frames + " frames, coalesced " + queue.getCoalescedCount()
+                + ", max pending " + maxSize + " of " + queue.getCapacity());
+        eventMap.getEventMap().setUpdateQueue(null);
+    }
+
+    private static void checkBurst(HeadlessEventMap eventMap, List<EventMapFigure> seats) {
+        SeatUpdateQueue queue = new SeatUpdateQueue(BURST_CAPACITY);
+        eventMap.getEventMap().setUpdateQueue(queue);
+        eventMap.getEventMap().setMaxUpdatesPerFrame(BURST_UPDATES_PER_FRAME);
+
+        int accepted = 0;
+        for (int i = 0; i < seats.size(); i++) {
+            if (queue.offer(getSeatId(seats.get(i)), seats.get(i).getColor())) {
+                accepted++;
+            }
+        }
+
+        check(accepted == BURST_CAPACITY && queue.size() == BURST_CAPACITY,
+                "Accepted " + accepted + " of a burst, " + queue.size() + " pending, capacity " + BURST_CAPACITY);
+        check(queue.getRejectedCount() == seats.size() - BURST_CAPACITY, "Rejected " + queue.getRejectedCount() + " of a burst");
+
+        int frames = 0;
+        while (queue.size() > 0) {
+            int size = queue.size();
+            eventMap.draw();
+            frames++;
+            check(queue.size() == Math.max(0, size - BURST_UPDATES_PER_FRAME), "Frame took " + (size - queue.size()) + " updates");
+        }
+
+        System.out.println("burst: accepted " + accepted + ", rejected " + queue.getRejectedCount() + ", drained in " + frames + " frames");
+        eventMap.getEventMap().setUpdateQueue(null);
+    }
+
+    // Seats of the hall don't overlap, so their positions identify them
+    private static long getSeatId(EventMapFigure seat) {
+        RectF rect = seat.getRect();
+        return ((long) Float.floatToIntBits(rect.left) << 32) | (Float.floatToIntBits(rect.top) & 0xFFFFFFFFL);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package android.graphics;
+
+import java.nio.Buffer;
+
+/**
+ * JVM stand-in for the Android class: keeps dimensions only, pixels are neither stored nor drawn.
+ */
+public final class Bitmap {
+    public enum Config {
+        ALPHA_8(1), RGB_565(2), ARGB_4444(2), ARGB_8888(4);
+
+        final int bytesPerPixel;
+
+        Config(int bytesPerPixel) {
+            this.bytesPerPixel = bytesPerPixel;
+        }
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+    private final Config mConfig;
+    private boolean mRecycled;
+
+    private Bitmap(int width, int height, Config config) {
+        this.mWidth = width;
+        this.mHeight = height;
+        this.mConfig = config;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be > 0");
+        }
+        return new Bitmap(width, height, config);
+    }
+
+    public static Bitmap createBitmap(Bitmap source, int x, int y, int width, int height) {
+        return createBitmap(width, height, source.mConfig);
+    }
+
+    public static Bitmap createScaledBitmap(Bitmap source, int width, int height, boolean filter) {
+        return createBitmap(width, height, source.mConfig);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getRowBytes() {
+        return mWidth * mConfig.bytesPerPixel;
+    }
+
+    public int getByteCount() {
+        return getRowBytes() * mHeight;
+    }
+
+    public Config getConfig() {
+        return mConfig;
+    }
+
+    public void recycle() {
+        mRecycled = true;
+    }
+
+    public boolean isRecycled() {
+        return mRecycled;
+    }
+
+    public void eraseColor(int color) {
+    }
+
+    public boolean hasAlpha() {
+        return mConfig != Config.RGB_565;
+    }
+
+    public void copyPixelsToBuffer(Buffer dst) {
+    }
+
+    public void copyPixelsFromBuffer(Buffer src) {
+    }
+
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+    }
+
+    public Bitmap copy(Config config, boolean isMutable) {
+        return createBitmap(mWidth, mHeight, config);
+    }
+}
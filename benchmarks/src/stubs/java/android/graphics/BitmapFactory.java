@@ -0,0 +1,25 @@
+package android.graphics;
+
+import java.io.InputStream;
+
+/**
+ * JVM stand-in for the Android class: nothing can be decoded.
+ */
+public class BitmapFactory {
+    public static class Options {
+        public boolean inScaled;
+        public boolean inJustDecodeBounds;
+        public int inSampleSize;
+        public int outWidth;
+        public int outHeight;
+        public Bitmap.Config inPreferredConfig;
+    }
+
+    public static Bitmap decodeStream(InputStream is, Rect outPadding, Options opts) {
+        return null;
+    }
+
+    public static Bitmap decodeStream(InputStream is) {
+        return null;
+    }
+}
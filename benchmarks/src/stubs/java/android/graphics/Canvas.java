@@ -0,0 +1,36 @@
+package android.graphics;
+
+/**
+ * JVM stand-in for the Android class: draws nothing.
+ */
+public class Canvas {
+    public Canvas(Bitmap bitmap) {
+    }
+
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+    }
+
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+    }
+
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+    }
+
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+    }
+
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+    }
+
+    public void drawRect(Rect rect, Paint paint) {
+    }
+
+    public void drawRect(RectF rect, Paint paint) {
+    }
+
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+    }
+
+    public void drawColor(int color) {
+    }
+}
@@ -0,0 +1,58 @@
+package android.graphics;
+
+/**
+ * JVM stand-in for the Android class: a monospaced font with glyphs half as wide as the text size.
+ */
+public class Paint {
+    public static final int ANTI_ALIAS_FLAG = 1;
+    public static final int FILTER_BITMAP_FLAG = 2;
+
+    public static class FontMetrics {
+        public float top;
+        public float ascent;
+        public float descent;
+        public float bottom;
+        public float leading;
+    }
+
+    private float mTextSize = 12.0f;
+
+    public Paint() {
+    }
+
+    public Paint(int flags) {
+    }
+
+    public void setColor(int color) {
+    }
+
+    public void setAntiAlias(boolean aa) {
+    }
+
+    public void setFilterBitmap(boolean filter) {
+    }
+
+    public void setTextSize(float textSize) {
+        this.mTextSize = textSize;
+    }
+
+    public Typeface setTypeface(Typeface typeface) {
+        return typeface;
+    }
+
+    public FontMetrics getFontMetrics() {
+        FontMetrics metrics = new FontMetrics();
+        metrics.top = -mTextSize;
+        metrics.ascent = -mTextSize * 0.9f;
+        metrics.descent = mTextSize * 0.25f;
+        metrics.bottom = mTextSize * 0.3f;
+        return metrics;
+    }
+
+    public int getTextWidths(char[] text, int index, int count, float[] widths) {
+        for (int i = 0; i < count; i++) {
+            widths[i] = mTextSize * 0.5f;
+        }
+        return count;
+    }
+}
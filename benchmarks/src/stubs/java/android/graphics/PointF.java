@@ -0,0 +1,17 @@
+package android.graphics;
+
+/**
+ * JVM stand-in for the Android class.
+ */
+public class PointF {
+    public float x;
+    public float y;
+
+    public PointF() {
+    }
+
+    public PointF(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
@@ -0,0 +1,127 @@
+package android.graphics;
+
+/**
+ * JVM stand-in for the Android class.
+ */
+public class RectF {
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public RectF() {
+    }
+
+    public RectF(float left, float top, float right, float bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public RectF(RectF r) {
+        set(r);
+    }
+
+    public RectF(Rect r) {
+        set(r.left, r.top, r.right, r.bottom);
+    }
+
+    public final float width() {
+        return right - left;
+    }
+
+    public final float height() {
+        return bottom - top;
+    }
+
+    public final float centerX() {
+        return (left + right) * 0.5f;
+    }
+
+    public final float centerY() {
+        return (top + bottom) * 0.5f;
+    }
+
+    public final boolean isEmpty() {
+        return left >= right || top >= bottom;
+    }
+
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(RectF src) {
+        set(src.left, src.top, src.right, src.bottom);
+    }
+
+    public void setEmpty() {
+        set(0, 0, 0, 0);
+    }
+
+    public void offset(float dx, float dy) {
+        left += dx;
+        top += dy;
+        right += dx;
+        bottom += dy;
+    }
+
+    public void inset(float dx, float dy) {
+        left += dx;
+        top += dy;
+        right -= dx;
+        bottom -= dy;
+    }
+
+    public boolean contains(float x, float y) {
+        return left < right && top < bottom && x >= left && x < right && y >= top && y < bottom;
+    }
+
+    public boolean intersects(float left, float top, float right, float bottom) {
+        return this.left < right && left < this.right && this.top < bottom && top < this.bottom;
+    }
+
+    public static boolean intersects(RectF a, RectF b) {
+        return a.intersects(b.left, b.top, b.right, b.bottom);
+    }
+
+    public boolean intersect(RectF r) {
+        if (!intersects(r.left, r.top, r.right, r.bottom)) {
+            return false;
+        }
+        set(Math.max(left, r.left), Math.max(top, r.top), Math.min(right, r.right), Math.min(bottom, r.bottom));
+        return true;
+    }
+
+    public void union(float left, float top, float right, float bottom) {
+        if (left >= right || top >= bottom) {
+            return;
+        }
+        if (isEmpty()) {
+            set(left, top, right, bottom);
+        } else {
+            set(Math.min(this.left, left), Math.min(this.top, top), Math.max(this.right, right), Math.max(this.bottom, bottom));
+        }
+    }
+
+    public void union(RectF r) {
+        union(r.left, r.top, r.right, r.bottom);
+    }
+
+    public void union(float x, float y) {
+        set(Math.min(left, x), Math.min(top, y), Math.max(right, x), Math.max(bottom, y));
+    }
+
+    public void sort() {
+        if (left > right) {
+            float temp = left;
+            left = right;
+            right = temp;
+        }
+        if (top > bottom) {
+            float temp = top;
+            top = bottom;
+            bottom = temp;
+        }
+    }
+}
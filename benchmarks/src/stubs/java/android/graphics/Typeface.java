@@ -0,0 +1,8 @@
+package android.graphics;
+
+/**
+ * JVM stand-in for the Android class.
+ */
+public class Typeface {
+    public static final Typeface DEFAULT = new Typeface();
+}
@@ -0,0 +1,45 @@
+package android.opengl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * JVM stand-in for the Android class: textures are read as raw data, nothing is decoded.
+ */
+public class ETC1Util {
+    public static class ETC1Texture {
+        private final int mWidth;
+        private final int mHeight;
+        private final ByteBuffer mData;
+
+        public ETC1Texture(int width, int height, ByteBuffer data) {
+            this.mWidth = width;
+            this.mHeight = height;
+            this.mData = data;
+        }
+
+        public int getWidth() {
+            return mWidth;
+        }
+
+        public int getHeight() {
+            return mHeight;
+        }
+
+        public ByteBuffer getData() {
+            return mData;
+        }
+    }
+
+    public static boolean isETC1Supported() {
+        return true;
+    }
+
+    public static ETC1Texture createTexture(InputStream input) throws IOException {
+        throw new IOException("ETC1 textures are not supported on the JVM");
+    }
+
+    public static void loadTexture(int target, int level, int border, int fallbackFormat, int fallbackType, ETC1Texture texture) {
+    }
+}
@@ -0,0 +1,49 @@
+package android.opengl;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * JVM stand-in for the Android class, with the same math.
+ */
+public class GLU {
+    private static final float[] sScratch = new float[32];
+
+    public static void gluLookAt(GL10 gl, float eyeX, float eyeY, float eyeZ, float centerX, float centerY, float centerZ,
+                                 float upX, float upY, float upZ) {
+        float[] scratch = sScratch;
+        synchronized (scratch) {
+            Matrix.setLookAtM(scratch, 0, eyeX, eyeY, eyeZ, centerX, centerY, centerZ, upX, upY, upZ);
+            gl.glMultMatrixf(scratch, 0);
+        }
+    }
+
+    public static void gluOrtho2D(GL10 gl, float left, float right, float bottom, float top) {
+        gl.glOrthof(left, right, bottom, top, -1.0f, 1.0f);
+    }
+
+    /**
+     * Like on Android, the result isn't divided by w.
+     */
+    public static int gluUnProject(float winX, float winY, float winZ, float[] model, int modelOffset,
+                                   float[] project, int projectOffset, int[] view, int viewOffset, float[] obj, int objOffset) {
+        float[] scratch = sScratch;
+        synchronized (scratch) {
+            Matrix.multiplyMM(scratch, 0, project, projectOffset, model, modelOffset);
+            if (!Matrix.invertM(scratch, 16, scratch, 0)) {
+                return GL10.GL_FALSE;
+            }
+
+            scratch[0] = 2.0f * (winX - view[viewOffset]) / view[viewOffset + 2] - 1.0f;
+            scratch[1] = 2.0f * (winY - view[viewOffset + 1]) / view[viewOffset + 3] - 1.0f;
+            scratch[2] = 2.0f * winZ - 1.0f;
+            scratch[3] = 1.0f;
+
+            Matrix.multiplyMV(obj, objOffset, scratch, 16, scratch, 0);
+        }
+        return GL10.GL_TRUE;
+    }
+
+    public static String gluErrorString(int error) {
+        return "GL error " + error;
+    }
+}
@@ -0,0 +1,20 @@
+package android.opengl;
+
+import android.graphics.Bitmap;
+
+/**
+ * JVM stand-in for the Android class: uploads nothing.
+ */
+public final class GLUtils {
+    private GLUtils() {
+    }
+
+    public static void texImage2D(int target, int level, Bitmap bitmap, int border) {
+    }
+
+    public static void texImage2D(int target, int level, int internalformat, Bitmap bitmap, int border) {
+    }
+
+    public static void texSubImage2D(int target, int level, int xoffset, int yoffset, Bitmap bitmap) {
+    }
+}
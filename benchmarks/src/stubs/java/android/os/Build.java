@@ -0,0 +1,10 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android class, reports the API level the library is built against.
+ */
+public class Build {
+    public static class VERSION {
+        public static final int SDK_INT = 19;
+    }
+}
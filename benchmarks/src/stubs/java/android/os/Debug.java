@@ -0,0 +1,19 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android class: allocations are not counted.
+ */
+public final class Debug {
+    private Debug() {
+    }
+
+    public static void startAllocCounting() {
+    }
+
+    public static void stopAllocCounting() {
+    }
+
+    public static int getThreadAllocCount() {
+        return 0;
+    }
+}
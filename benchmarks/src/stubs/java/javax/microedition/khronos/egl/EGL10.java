@@ -0,0 +1,21 @@
+package javax.microedition.khronos.egl;
+
+/**
+ * JVM stand-in for the Android interface, only what the library uses.
+ */
+public interface EGL10 extends EGL {
+    Object EGL_DEFAULT_DISPLAY = null;
+    int EGL_MAX_PBUFFER_WIDTH = 0x302C;
+
+    EGLDisplay eglGetDisplay(Object displayId);
+
+    boolean eglInitialize(EGLDisplay display, int[] majorMinor);
+
+    boolean eglGetConfigs(EGLDisplay display, EGLConfig[] configs, int configSize, int[] numConfig);
+
+    boolean eglGetConfigAttrib(EGLDisplay display, EGLConfig config, int attribute, int[] value);
+
+    boolean eglTerminate(EGLDisplay display);
+
+    EGLContext eglGetCurrentContext();
+}
@@ -0,0 +1,7 @@
+package javax.microedition.khronos.egl;
+
+/**
+ * JVM stand-in for the Android class.
+ */
+public abstract class EGLConfig {
+}
@@ -0,0 +1,47 @@
+package javax.microedition.khronos.egl;
+
+import javax.microedition.khronos.opengles.GL;
+
+/**
+ * JVM stand-in for the Android class. There's no display, so there are no configs either.
+ */
+public abstract class EGLContext {
+    private static final EGL10 EGL = new EGL10() {
+        @Override
+        public EGLDisplay eglGetDisplay(Object displayId) {
+            return null;
+        }
+
+        @Override
+        public boolean eglInitialize(EGLDisplay display, int[] majorMinor) {
+            return true;
+        }
+
+        @Override
+        public boolean eglGetConfigs(EGLDisplay display, EGLConfig[] configs, int configSize, int[] numConfig) {
+            numConfig[0] = 0;
+            return true;
+        }
+
+        @Override
+        public boolean eglGetConfigAttrib(EGLDisplay display, EGLConfig config, int attribute, int[] value) {
+            return false;
+        }
+
+        @Override
+        public boolean eglTerminate(EGLDisplay display) {
+            return true;
+        }
+
+        @Override
+        public EGLContext eglGetCurrentContext() {
+            return null;
+        }
+    };
+
+    public static EGL getEGL() {
+        return EGL;
+    }
+
+    public abstract GL getGL();
+}
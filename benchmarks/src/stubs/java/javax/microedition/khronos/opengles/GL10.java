@@ -0,0 +1,216 @@
+package javax.microedition.khronos.opengles;
+
+import java.nio.*;
+
+/**
+ * JVM stand-in for the Android interface: all the methods, but only the constants the library uses.
+ */
+public interface GL10 extends GL {
+    int GL_TEXTURE_2D = 0xDE1;
+    int GL_BLEND = 0xBE2;
+    int GL_SRC_ALPHA = 0x302;
+    int GL_ONE_MINUS_SRC_ALPHA = 0x303;
+    int GL_ONE = 0x1;
+    int GL_ZERO = 0x0;
+    int GL_TEXTURE_COORD_ARRAY = 0x8078;
+    int GL_VERTEX_ARRAY = 0x8074;
+    int GL_COLOR_ARRAY = 0x8076;
+    int GL_NORMAL_ARRAY = 0x8075;
+    int GL_FLOAT = 0x1406;
+    int GL_FIXED = 0x140C;
+    int GL_UNSIGNED_SHORT = 0x1403;
+    int GL_UNSIGNED_BYTE = 0x1401;
+    int GL_SHORT = 0x1402;
+    int GL_BYTE = 0x1400;
+    int GL_TRIANGLES = 0x4;
+    int GL_TRIANGLE_STRIP = 0x5;
+    int GL_TRIANGLE_FAN = 0x6;
+    int GL_POINTS = 0x0;
+    int GL_LINES = 0x1;
+    int GL_LINE_STRIP = 0x3;
+    int GL_LINE_LOOP = 0x2;
+    int GL_TEXTURE_MIN_FILTER = 0x2801;
+    int GL_TEXTURE_MAG_FILTER = 0x2800;
+    int GL_LINEAR = 0x2601;
+    int GL_NEAREST = 0x2600;
+    int GL_LINEAR_MIPMAP_LINEAR = 0x2703;
+    int GL_LINEAR_MIPMAP_NEAREST = 0x2701;
+    int GL_NEAREST_MIPMAP_NEAREST = 0x2700;
+    int GL_NEAREST_MIPMAP_LINEAR = 0x2702;
+    int GL_TEXTURE_WRAP_S = 0x2802;
+    int GL_TEXTURE_WRAP_T = 0x2803;
+    int GL_CLAMP_TO_EDGE = 0x812F;
+    int GL_REPEAT = 0x2901;
+    int GL_MODELVIEW = 0x1700;
+    int GL_PROJECTION = 0x1701;
+    int GL_TEXTURE = 0x1702;
+    int GL_PERSPECTIVE_CORRECTION_HINT = 0xC50;
+    int GL_FASTEST = 0x1101;
+    int GL_NICEST = 0x1102;
+    int GL_DONT_CARE = 0x1100;
+    int GL_COLOR_BUFFER_BIT = 0x4000;
+    int GL_DEPTH_BUFFER_BIT = 0x100;
+    int GL_STENCIL_BUFFER_BIT = 0x400;
+    int GL_DEPTH_TEST = 0xB71;
+    int GL_VENDOR = 0x1F00;
+    int GL_RENDERER = 0x1F01;
+    int GL_VERSION = 0x1F02;
+    int GL_EXTENSIONS = 0x1F03;
+    int GL_TRUE = 0x1;
+    int GL_FALSE = 0x0;
+    int GL_RGB = 0x1907;
+    int GL_RGBA = 0x1908;
+    int GL_ALPHA = 0x1906;
+    int GL_LUMINANCE = 0x1909;
+    int GL_LUMINANCE_ALPHA = 0x190A;
+    int GL_UNSIGNED_SHORT_5_6_5 = 0x8363;
+    int GL_UNSIGNED_SHORT_4_4_4_4 = 0x8033;
+    int GL_UNSIGNED_SHORT_5_5_5_1 = 0x8034;
+    int GL_MAX_TEXTURE_SIZE = 0xD33;
+    int GL_NO_ERROR = 0x0;
+    int GL_INVALID_ENUM = 0x500;
+    int GL_INVALID_VALUE = 0x501;
+    int GL_INVALID_OPERATION = 0x502;
+    int GL_OUT_OF_MEMORY = 0x505;
+    int GL_CULL_FACE = 0xB44;
+    int GL_DITHER = 0xBD0;
+    int GL_LIGHTING = 0xB50;
+    int GL_ALPHA_TEST = 0xBC0;
+    int GL_SCISSOR_TEST = 0xC11;
+    int GL_FOG = 0xB60;
+    int GL_MULTISAMPLE = 0x809D;
+    int GL_TEXTURE0 = 0x84C0;
+    int GL_TEXTURE_ENV = 0x2300;
+    int GL_TEXTURE_ENV_MODE = 0x2200;
+    int GL_MODULATE = 0x2100;
+    int GL_REPLACE = 0x1E01;
+    int GL_SMOOTH = 0x1D01;
+    int GL_FLAT = 0x1D00;
+    int GL_UNPACK_ALIGNMENT = 0xCF5;
+    int GL_PACK_ALIGNMENT = 0xD05;
+    int GL_COMPRESSED_TEXTURE_FORMATS = 0x86A3;
+    int GL_NUM_COMPRESSED_TEXTURE_FORMATS = 0x86A2;
+    void glActiveTexture(int texture);
+    void glAlphaFunc(int func, float ref);
+    void glAlphaFuncx(int func, int ref);
+    void glBindTexture(int target, int texture);
+    void glBlendFunc(int sfactor, int dfactor);
+    void glClear(int mask);
+    void glClearColor(float red, float green, float blue, float alpha);
+    void glClearColorx(int red, int green, int blue, int alpha);
+    void glClearDepthf(float depth);
+    void glClearDepthx(int depth);
+    void glClearStencil(int s);
+    void glClientActiveTexture(int texture);
+    void glColor4f(float red, float green, float blue, float alpha);
+    void glColor4x(int red, int green, int blue, int alpha);
+    void glColorMask(boolean red, boolean green, boolean blue, boolean alpha);
+    void glColorPointer(int size, int type, int stride, Buffer pointer);
+    void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data);
+    void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data);
+    void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border);
+    void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height);
+    void glCullFace(int mode);
+    void glDeleteTextures(int n, int[] textures, int offset);
+    void glDeleteTextures(int n, IntBuffer textures);
+    void glDepthFunc(int func);
+    void glDepthMask(boolean flag);
+    void glDepthRangef(float near, float far);
+    void glDepthRangex(int near, int far);
+    void glDisable(int cap);
+    void glDisableClientState(int array);
+    void glDrawArrays(int mode, int first, int count);
+    void glDrawElements(int mode, int count, int type, Buffer indices);
+    void glEnable(int cap);
+    void glEnableClientState(int array);
+    void glFinish();
+    void glFlush();
+    void glFogf(int pname, float param);
+    void glFogfv(int pname, float[] params, int offset);
+    void glFogfv(int pname, FloatBuffer params);
+    void glFogx(int pname, int param);
+    void glFogxv(int pname, int[] params, int offset);
+    void glFogxv(int pname, IntBuffer params);
+    void glFrontFace(int mode);
+    void glFrustumf(float left, float right, float bottom, float top, float near, float far);
+    void glFrustumx(int left, int right, int bottom, int top, int near, int far);
+    void glGenTextures(int n, int[] textures, int offset);
+    void glGenTextures(int n, IntBuffer textures);
+    int glGetError();
+    void glGetIntegerv(int pname, int[] params, int offset);
+    void glGetIntegerv(int pname, IntBuffer params);
+    String glGetString(int name);
+    void glHint(int target, int mode);
+    void glLightModelf(int pname, float param);
+    void glLightModelfv(int pname, float[] params, int offset);
+    void glLightModelfv(int pname, FloatBuffer params);
+    void glLightModelx(int pname, int param);
+    void glLightModelxv(int pname, int[] params, int offset);
+    void glLightModelxv(int pname, IntBuffer params);
+    void glLightf(int light, int pname, float param);
+    void glLightfv(int light, int pname, float[] params, int offset);
+    void glLightfv(int light, int pname, FloatBuffer params);
+    void glLightx(int light, int pname, int param);
+    void glLightxv(int light, int pname, int[] params, int offset);
+    void glLightxv(int light, int pname, IntBuffer params);
+    void glLineWidth(float width);
+    void glLineWidthx(int width);
+    void glLoadIdentity();
+    void glLoadMatrixf(float[] m, int offset);
+    void glLoadMatrixf(FloatBuffer m);
+    void glLoadMatrixx(int[] m, int offset);
+    void glLoadMatrixx(IntBuffer m);
+    void glLogicOp(int opcode);
+    void glMaterialf(int face, int pname, float param);
+    void glMaterialfv(int face, int pname, float[] params, int offset);
+    void glMaterialfv(int face, int pname, FloatBuffer params);
+    void glMaterialx(int face, int pname, int param);
+    void glMaterialxv(int face, int pname, int[] params, int offset);
+    void glMaterialxv(int face, int pname, IntBuffer params);
+    void glMatrixMode(int mode);
+    void glMultMatrixf(float[] m, int offset);
+    void glMultMatrixf(FloatBuffer m);
+    void glMultMatrixx(int[] m, int offset);
+    void glMultMatrixx(IntBuffer m);
+    void glMultiTexCoord4f(int target, float s, float t, float r, float q);
+    void glMultiTexCoord4x(int target, int s, int t, int r, int q);
+    void glNormal3f(float nx, float ny, float nz);
+    void glNormal3x(int nx, int ny, int nz);
+    void glNormalPointer(int type, int stride, Buffer pointer);
+    void glOrthof(float left, float right, float bottom, float top, float near, float far);
+    void glOrthox(int left, int right, int bottom, int top, int near, int far);
+    void glPixelStorei(int pname, int param);
+    void glPointSize(float size);
+    void glPointSizex(int size);
+    void glPolygonOffset(float factor, float units);
+    void glPolygonOffsetx(int factor, int units);
+    void glPopMatrix();
+    void glPushMatrix();
+    void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels);
+    void glRotatef(float angle, float x, float y, float z);
+    void glRotatex(int angle, int x, int y, int z);
+    void glSampleCoverage(float value, boolean invert);
+    void glSampleCoveragex(int value, boolean invert);
+    void glScalef(float x, float y, float z);
+    void glScalex(int x, int y, int z);
+    void glScissor(int x, int y, int width, int height);
+    void glShadeModel(int mode);
+    void glStencilFunc(int func, int ref, int mask);
+    void glStencilMask(int mask);
+    void glStencilOp(int fail, int zfail, int zpass);
+    void glTexCoordPointer(int size, int type, int stride, Buffer pointer);
+    void glTexEnvf(int target, int pname, float param);
+    void glTexEnvfv(int target, int pname, float[] params, int offset);
+    void glTexEnvfv(int target, int pname, FloatBuffer params);
+    void glTexEnvx(int target, int pname, int param);
+    void glTexEnvxv(int target, int pname, int[] params, int offset);
+    void glTexEnvxv(int target, int pname, IntBuffer params);
+    void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels);
+    void glTexParameterf(int target, int pname, float param);
+    void glTexParameterx(int target, int pname, int param);
+    void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels);
+    void glTranslatef(float x, float y, float z);
+    void glTranslatex(int x, int y, int z);
+    void glVertexPointer(int size, int type, int stride, Buffer pointer);
+    void glViewport(int x, int y, int width, int height);
+}
@@ -0,0 +1,11 @@
+package javax.microedition.khronos.opengles;
+
+import java.nio.*;
+
+/**
+ * JVM stand-in for the Android interface.
+ */
+public interface GL10Ext extends GL {
+    int glQueryMatrixxOES(int[] mantissa, int mantissaOffset, int[] exponent, int exponentOffset);
+    int glQueryMatrixxOES(IntBuffer mantissa, IntBuffer exponent);
+}
@@ -0,0 +1,93 @@
+package javax.microedition.khronos.opengles;
+
+import java.nio.*;
+
+/**
+ * JVM stand-in for the Android interface: all the methods, but only the constants the library uses.
+ */
+public interface GL11 extends GL10 {
+    int GL_ARRAY_BUFFER = 0x8892;
+    int GL_ELEMENT_ARRAY_BUFFER = 0x8893;
+    int GL_STATIC_DRAW = 0x88E4;
+    int GL_DYNAMIC_DRAW = 0x88E8;
+    int GL_GENERATE_MIPMAP = 0x8191;
+    int GL_GENERATE_MIPMAP_HINT = 0x8192;
+    int GL_BUFFER_SIZE = 0x8764;
+    int GL_BUFFER_USAGE = 0x8765;
+    int GL_ARRAY_BUFFER_BINDING = 0x8894;
+    int GL_ELEMENT_ARRAY_BUFFER_BINDING = 0x8895;
+    int GL_TEXTURE_BINDING_2D = 0x8069;
+    int GL_MODELVIEW_MATRIX_FLOAT_AS_INT_BITS_OES = 0x898D;
+    int GL_PROJECTION_MATRIX_FLOAT_AS_INT_BITS_OES = 0x898E;
+    int GL_TEXTURE_MATRIX_FLOAT_AS_INT_BITS_OES = 0x898F;
+    int GL_MODELVIEW_MATRIX = 0xBA6;
+    int GL_PROJECTION_MATRIX = 0xBA7;
+    void glTexParameteriv(int target, int pname, int[] params, int offset);
+    void glTexParameteriv(int target, int pname, IntBuffer params);
+    void glClipPlanef(int plane, float[] equation, int offset);
+    void glClipPlanef(int plane, FloatBuffer equation);
+    void glClipPlanex(int plane, int[] equation, int offset);
+    void glClipPlanex(int plane, IntBuffer equation);
+    void glBindBuffer(int target, int buffer);
+    void glBufferData(int target, int size, Buffer data, int usage);
+    void glBufferSubData(int target, int offset, int size, Buffer data);
+    void glColor4ub(byte red, byte green, byte blue, byte alpha);
+    void glDeleteBuffers(int n, int[] buffers, int offset);
+    void glDeleteBuffers(int n, IntBuffer buffers);
+    void glGenBuffers(int n, int[] buffers, int offset);
+    void glGenBuffers(int n, IntBuffer buffers);
+    void glGetBooleanv(int pname, boolean[] params, int offset);
+    void glGetBooleanv(int pname, IntBuffer params);
+    void glGetBufferParameteriv(int target, int pname, int[] params, int offset);
+    void glGetBufferParameteriv(int target, int pname, IntBuffer params);
+    void glGetClipPlanef(int pname, float[] eqn, int offset);
+    void glGetClipPlanef(int pname, FloatBuffer eqn);
+    void glGetClipPlanex(int pname, int[] eqn, int offset);
+    void glGetClipPlanex(int pname, IntBuffer eqn);
+    void glGetFixedv(int pname, int[] params, int offset);
+    void glGetFixedv(int pname, IntBuffer params);
+    void glGetFloatv(int pname, float[] params, int offset);
+    void glGetFloatv(int pname, FloatBuffer params);
+    void glGetLightfv(int light, int pname, float[] params, int offset);
+    void glGetLightfv(int light, int pname, FloatBuffer params);
+    void glGetLightxv(int light, int pname, int[] params, int offset);
+    void glGetLightxv(int light, int pname, IntBuffer params);
+    void glGetMaterialfv(int face, int pname, float[] params, int offset);
+    void glGetMaterialfv(int face, int pname, FloatBuffer params);
+    void glGetMaterialxv(int face, int pname, int[] params, int offset);
+    void glGetMaterialxv(int face, int pname, IntBuffer params);
+    void glGetTexEnviv(int env, int pname, int[] params, int offset);
+    void glGetTexEnviv(int env, int pname, IntBuffer params);
+    void glGetTexEnvxv(int env, int pname, int[] params, int offset);
+    void glGetTexEnvxv(int env, int pname, IntBuffer params);
+    void glGetTexParameterfv(int target, int pname, float[] params, int offset);
+    void glGetTexParameterfv(int target, int pname, FloatBuffer params);
+    void glGetTexParameteriv(int target, int pname, int[] params, int offset);
+    void glGetTexParameteriv(int target, int pname, IntBuffer params);
+    void glGetTexParameterxv(int target, int pname, int[] params, int offset);
+    void glGetTexParameterxv(int target, int pname, IntBuffer params);
+    boolean glIsBuffer(int buffer);
+    boolean glIsEnabled(int cap);
+    boolean glIsTexture(int texture);
+    void glPointParameterf(int pname, float param);
+    void glPointParameterfv(int pname, float[] params, int offset);
+    void glPointParameterfv(int pname, FloatBuffer params);
+    void glPointParameterx(int pname, int param);
+    void glPointParameterxv(int pname, int[] params, int offset);
+    void glPointParameterxv(int pname, IntBuffer params);
+    void glPointSizePointerOES(int type, int stride, Buffer pointer);
+    void glTexEnvi(int target, int pname, int param);
+    void glTexEnviv(int target, int pname, int[] params, int offset);
+    void glTexEnviv(int target, int pname, IntBuffer params);
+    void glTexParameterfv(int target, int pname, float[] params, int offset);
+    void glTexParameterfv(int target, int pname, FloatBuffer params);
+    void glTexParameteri(int target, int pname, int param);
+    void glTexParameterxv(int target, int pname, int[] params, int offset);
+    void glTexParameterxv(int target, int pname, IntBuffer params);
+    void glColorPointer(int size, int type, int stride, int offset);
+    void glDrawElements(int mode, int count, int type, int offset);
+    void glGetPointerv(int pname, Buffer[] params);
+    void glNormalPointer(int type, int stride, int offset);
+    void glTexCoordPointer(int size, int type, int stride, int offset);
+    void glVertexPointer(int size, int type, int stride, int offset);
+}
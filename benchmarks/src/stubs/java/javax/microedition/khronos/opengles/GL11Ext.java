@@ -0,0 +1,27 @@
+package javax.microedition.khronos.opengles;
+
+import java.nio.*;
+
+/**
+ * JVM stand-in for the Android interface.
+ */
+public interface GL11Ext extends GL {
+    void glDrawTexfOES(float x, float y, float z, float width, float height);
+    void glDrawTexfvOES(float[] coords, int offset);
+    void glDrawTexfvOES(FloatBuffer coords);
+    void glDrawTexiOES(int x, int y, int z, int width, int height);
+    void glDrawTexivOES(int[] coords, int offset);
+    void glDrawTexivOES(IntBuffer coords);
+    void glDrawTexsOES(short x, short y, short z, short width, short height);
+    void glDrawTexsvOES(short[] coords, int offset);
+    void glDrawTexsvOES(ShortBuffer coords);
+    void glDrawTexxOES(int x, int y, int z, int width, int height);
+    void glDrawTexxvOES(int[] coords, int offset);
+    void glDrawTexxvOES(IntBuffer coords);
+    void glCurrentPaletteMatrixOES(int matrixpaletteindex);
+    void glLoadPaletteFromModelViewMatrixOES();
+    void glMatrixIndexPointerOES(int size, int type, int stride, Buffer pointer);
+    void glMatrixIndexPointerOES(int size, int type, int stride, int offset);
+    void glWeightPointerOES(int size, int type, int stride, Buffer pointer);
+    void glWeightPointerOES(int size, int type, int stride, int offset);
+}
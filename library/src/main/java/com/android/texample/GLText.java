@@ -14,6 +14,8 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Typeface;
 import android.opengl.GLUtils;
+import com.github.ykrapiva.eventmap.gl.GLStateTracker;
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
 
 import javax.microedition.khronos.opengles.GL10;
 import java.util.ArrayList;
@@ -44,6 +46,7 @@ public class GLText {
     //--Members--//
     GL10 gl;                                           // GL10 Instance
     Map<Integer, SpriteBatch> batchColorMap = new HashMap<Integer, SpriteBatch>();           // Batch Renderer
+    GLStateTracker stateTracker;                       // State Tracker of the Current begin()/end() Pass (null = None)
 
     int fontPadX, fontPadY;                            // Font Padding (Pixels; On Each Side, ie. Doubled on Both X+Y Axis)
 
@@ -53,6 +56,8 @@ public class GLText {
 
     int textureId;                                     // Font Texture ID [NOTE: Public for Testing Purposes Only!]
     int textureSize;                                   // Texture Size for Font (Square) [NOTE: Public for Testing Purposes Only!]
+    int textureBytes;                                  // Texture Memory Taken, Reported to ResourceAccounting
+    Bitmap fontBitmap;                                 // Rendered Characters, Kept to Upload the Texture Again
     TextureRegion textureRgn;                          // Full Texture Region
 
     float charWidthMax;                                // Character Width (Maximum; Pixels)
@@ -195,24 +200,9 @@ public class GLText {
             }
         }
 
-        // generate a new texture
-        int[] textureIds = new int[1];                  // Array to Get Texture Id
-        gl.glGenTextures(1, textureIds, 0);           // Generate New Texture
-        textureId = textureIds[0];                      // Save Texture Id
-
-        // setup filters for texture
-        gl.glBindTexture(GL10.GL_TEXTURE_2D, textureId);  // Bind Texture
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_NEAREST);  // Set Minification Filter
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);  // Set Magnification Filter
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);  // Set U Wrapping
-        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);  // Set V Wrapping
-
-        // load the generated bitmap onto the texture
-        GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, bitmap, 0);  // Load Bitmap to Texture
-        gl.glBindTexture(GL10.GL_TEXTURE_2D, 0);      // Unbind Texture
-
-        // release the bitmap
-        bitmap.recycle();                               // Release the Bitmap
+        // keep the bitmap (alpha only, so it's compact) and load it onto a new texture
+        fontBitmap = bitmap;                            // Save the Bitmap
+        upload(gl);                                     // Upload the Texture
 
         // setup the array of character texture regions
         x = 0;                                          // Initialize X
@@ -233,12 +223,71 @@ public class GLText {
         return true;                                    // Return Success
     }
 
+    //--Upload Texture--//
+    // D: create the font texture from the bitmap rendered by load(). the characters are not rendered again,
+    //    so this is also how the texture is restored after releaseTexture() or a context loss
+    // A: gl - the gl instance to use from now on
+    public void upload(GL10 gl) {
+        this.gl = gl;                                   // Save the GL10 Instance
+
+        // generate a new texture
+        int[] textureIds = new int[1];                  // Array to Get Texture Id
+        gl.glGenTextures(1, textureIds, 0);           // Generate New Texture
+        textureId = textureIds[0];                      // Save Texture Id
+
+        // setup filters for texture
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, textureId);  // Bind Texture
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_NEAREST);  // Set Minification Filter
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);  // Set Magnification Filter
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);  // Set U Wrapping
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);  // Set V Wrapping
+
+        // load the generated bitmap onto the texture
+        GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, fontBitmap, 0);  // Load Bitmap to Texture
+        textureBytes = com.github.ykrapiva.eventmap.gl.GLUtils.getByteCount(fontBitmap);  // Get Texture Memory
+        ResourceAccounting.allocated(ResourceAccounting.Kind.TEXTURE, textureBytes);  // Account Texture
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, 0);      // Unbind Texture
+    }
+
+    //--Release Texture--//
+    // D: free the font texture and the batches, keeping the bitmap for upload()
+    // A: gl - the gl instance the texture was created with, null if its context is lost
+    public void releaseTexture(GL10 gl) {
+        if (textureId != -1) {
+            if (gl != null)
+                gl.glDeleteTextures(1, new int[]{textureId}, 0);
+            ResourceAccounting.released(ResourceAccounting.Kind.TEXTURE, textureBytes);
+            textureId = -1;
+        }
+        for (SpriteBatch batch : batchColorMap.values()) {
+            batch.vertices.release();
+        }
+        batchColorMap.clear();
+    }
+
+    public boolean isUploaded() {
+        return textureId != -1;
+    }
+
+    public int getTextureBytes() {
+        return textureId != -1 ? textureBytes : 0;
+    }
+
     //--Begin/End Text Drawing--//
     // D: call these methods before/after (respectively all draw() calls using a text instance
+    //    NOTE: batches bind the font texture when rendered, so several instances may be used at once
     public void begin() {
-        gl.glBindTexture(GL10.GL_TEXTURE_2D, textureId);  // Bind the Texture
+        begin(null);                                    // Begin Untracked
+    }
+
+    //--Begin Tracked Text Drawing--//
+    // D: like begin(), but batches bind the texture and enable their arrays through the tracker, and leave
+    //    them set up when rendered. the caller disables the arrays afterwards if needed
+    // A: stateTracker - the tracker of the caller's GL state, null to set up and clear the state on every batch
+    public void begin(GLStateTracker stateTracker) {
+        this.stateTracker = stateTracker;               // Save State Tracker for New Batches
         for (SpriteBatch batch : batchColorMap.values()) {
-            batch.beginBatch();                             // Begin Batch
+            batch.beginBatch(textureId, stateTracker);      // Begin Batch
         }
     }
 
@@ -258,6 +307,7 @@ public class GLText {
         SpriteBatch batch = batchColorMap.get(color);
         if (batch == null) {
             batch = new SpriteBatch(gl, CHAR_BATCH_SIZE, com.github.ykrapiva.eventmap.gl.GLUtils.getFloatColorComponents(color));
+            batch.beginBatch(textureId, stateTracker);
             batchColorMap.put(color, batch);
         }
 
@@ -393,9 +443,10 @@ public class GLText {
     }
 
     public void destroy(GL10 gl) {
-        if (textureId != -1) {
-            gl.glDeleteTextures(1, new int[]{textureId}, 0);
+        releaseTexture(gl);
+        if (fontBitmap != null) {
+            fontBitmap.recycle();
+            fontBitmap = null;
         }
-        batchColorMap.clear();
     }
 }
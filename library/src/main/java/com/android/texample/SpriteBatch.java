@@ -1,5 +1,8 @@
 package com.android.texample;
 
+import com.github.ykrapiva.eventmap.gl.GLStateTracker;
+import com.github.ykrapiva.eventmap.gl.QuadIndexBuffer;
+
 import javax.microedition.khronos.opengles.GL10;
 
 public class SpriteBatch {
@@ -7,7 +10,6 @@ public class SpriteBatch {
     //--Constants--//
     final static int VERTEX_SIZE = 4;                  // Vertex Size (in Components) ie. (X,Y,U,V)
     final static int VERTICES_PER_SPRITE = 4;          // Vertices Per Sprite
-    final static int INDICES_PER_SPRITE = 6;           // Indices Per Sprite
 
     //--Members--//
     GL10 gl;                                           // GL Instance
@@ -16,6 +18,8 @@ public class SpriteBatch {
     int bufferIndex;                                   // Vertex Buffer Start Index
     int maxSprites;                                    // Maximum Sprites Allowed in Buffer
     int numSprites;                                    // Number of Sprites Currently in Buffer
+    int textureId;                                     // Texture Bound on Rendering (-1 = Already Bound)
+    GLStateTracker stateTracker;                       // Tracker of the GL State (null = Set Up and Clear State on Rendering)
 
     float[] color4f;
 
@@ -26,38 +30,35 @@ public class SpriteBatch {
     public SpriteBatch(GL10 gl, int maxSprites, float[] color4f) {
         this.gl = gl;                                   // Save GL Instance
         this.vertexBuffer = new float[maxSprites * VERTICES_PER_SPRITE * VERTEX_SIZE];  // Create Vertex Buffer
-        this.vertices = new Vertices(gl, maxSprites * VERTICES_PER_SPRITE, maxSprites * INDICES_PER_SPRITE, false, true, false);  // Create Rendering Vertices
+        this.vertices = new Vertices(gl, maxSprites * VERTICES_PER_SPRITE, 0, false, true, false);  // Create Rendering Vertices (Indices are Shared)
         this.bufferIndex = 0;                           // Reset Buffer Index
         this.maxSprites = maxSprites;                   // Save Maximum Sprites
         this.numSprites = 0;                            // Clear Sprite Counter
+        this.textureId = -1;                            // Assume Texture is Bound by Caller
         this.color4f = color4f;
-
-        short[] indices = new short[maxSprites * INDICES_PER_SPRITE];  // Create Temp Index Buffer
-        int len = indices.length;                       // Get Index Buffer Length
-        short j = 0;                                    // Counter
-        for (int i = 0; i < len; i += INDICES_PER_SPRITE, j += VERTICES_PER_SPRITE) {  // FOR Each Index Set (Per Sprite)
-            indices[i + 0] = (short) (j + 0);           // Calculate Index 0
-            indices[i + 1] = (short) (j + 1);           // Calculate Index 1
-            indices[i + 2] = (short) (j + 2);           // Calculate Index 2
-            indices[i + 3] = (short) (j + 2);           // Calculate Index 3
-            indices[i + 4] = (short) (j + 3);           // Calculate Index 4
-            indices[i + 5] = (short) (j + 0);           // Calculate Index 5
-        }
-        vertices.setIndices(indices, 0, len);         // Set Index Buffer for Rendering
     }
 
     //--Begin Batch--//
     // D: signal the start of a batch. set the texture and clear buffer
+    //    NOTE: the texture is bound when the batch is rendered, so batches sharing the same
+    //          texture unit may be interleaved
     //    NOTE: the overloaded (non-texture) version assumes that the texture is already bound!
     // A: textureId - the ID of the texture to use for the batch
     // R: [none]
     public void beginBatch(int textureId) {
-        gl.glBindTexture(GL10.GL_TEXTURE_2D, textureId);  // Bind the Texture
+        beginBatch(textureId, null);                    // Begin Untracked
+    }
+
+    // A: stateTracker - tracker to set state through, the state is left set up after rendering (null = no tracker)
+    public void beginBatch(int textureId, GLStateTracker stateTracker) {
+        this.textureId = textureId;                     // Save Texture to Bind on Rendering
+        this.stateTracker = stateTracker;               // Save State Tracker
         numSprites = 0;                                 // Empty Sprite Counter
         bufferIndex = 0;                                // Reset Buffer Index (Empty)
     }
 
     public void beginBatch() {
+        textureId = -1;                                 // Texture is Bound by Caller
         numSprites = 0;                                 // Empty Sprite Counter
         bufferIndex = 0;                                // Reset Buffer Index (Empty)
     }
@@ -68,11 +69,17 @@ public class SpriteBatch {
     // R: [none]
     public void endBatch() {
         if (numSprites > 0) {                        // IF Any Sprites to Render
+            if (textureId != -1) {                       // IF Batch Owns the Texture
+                if (stateTracker != null)                    // IF State is Tracked
+                    stateTracker.bindTexture(gl, textureId);  // Bind the Texture Unless Bound
+                else
+                    gl.glBindTexture(GL10.GL_TEXTURE_2D, textureId);  // Bind the Texture
+            }
             vertices.setVertices(vertexBuffer, 0, bufferIndex);  // Set Vertices from Buffer
-            vertices.bind();                             // Bind Vertices
+            vertices.bind(stateTracker);                 // Bind Vertices
             gl.glColor4f(color4f[0], color4f[1], color4f[2], color4f[3]);
-            vertices.draw(GL10.GL_TRIANGLES, 0, numSprites * INDICES_PER_SPRITE);  // Render Batched Sprites
-            vertices.unbind();                           // Unbind Vertices
+            QuadIndexBuffer.draw(gl, 0, numSprites);     // Render Batched Sprites (Shared Quad Indices)
+            vertices.unbind(stateTracker);               // Unbind Vertices
         }
     }
 
@@ -1,5 +1,8 @@
 package com.android.texample;
 
+import com.github.ykrapiva.eventmap.gl.GLStateTracker;
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
+
 import javax.microedition.khronos.opengles.GL10;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -66,12 +69,24 @@ public class Vertices {
         } else                                            // ELSE Indices Not Required
             indices = null;                              // No Index Buffer
 
+        ResourceAccounting.allocated(ResourceAccounting.Kind.DIRECT_BUFFER, this.vertices.capacity() * 4);  // Account Vertex Buffer
+        if (indices != null)                             // IF Index Buffer Allocated
+            ResourceAccounting.allocated(ResourceAccounting.Kind.DIRECT_BUFFER, indices.capacity() * INDEX_SIZE);  // Account Index Buffer
+
         numVertices = 0;                                // Zero Vertices in Buffer
         numIndices = 0;                                 // Zero Indices in Buffer
 
         this.tmpBuffer = new int[maxVertices * vertexSize / 4];  // Create Temp Buffer
     }
 
+    //--Release--//
+    // D: stop accounting the buffers, called when the instance is dropped (the buffers are freed once it's collected)
+    public void release() {
+        ResourceAccounting.released(ResourceAccounting.Kind.DIRECT_BUFFER, vertices.capacity() * 4);  // Release Vertex Buffer
+        if (indices != null)                             // IF Index Buffer Allocated
+            ResourceAccounting.released(ResourceAccounting.Kind.DIRECT_BUFFER, indices.capacity() * INDEX_SIZE);  // Release Index Buffer
+    }
+
     //--Set Vertices--//
     // D: set the specified vertices in the vertex buffer
     //    NOTE: optimized to use integer buffer!
@@ -110,24 +125,29 @@ public class Vertices {
     // A: [none]
     // R: [none]
     public void bind() {
-        gl.glEnableClientState(GL10.GL_VERTEX_ARRAY); // Enable Position in Vertices
+        bind(null);                                     // Bind Untracked
+    }
+
+    // A: stateTracker - tracker to enable arrays through, so that arrays already enabled aren't enabled again (null = no tracker)
+    public void bind(GLStateTracker stateTracker) {
+        enableClientState(stateTracker, GL10.GL_VERTEX_ARRAY);  // Enable Position in Vertices
         vertices.position(0);                         // Set Vertex Buffer to Position
         gl.glVertexPointer(positionCnt, GL10.GL_FLOAT, vertexSize, vertices);  // Set Vertex Pointer
 
         if (hasColor) {                              // IF Vertices Have Color
-            gl.glEnableClientState(GL10.GL_COLOR_ARRAY);  // Enable Color in Vertices
+            enableClientState(stateTracker, GL10.GL_COLOR_ARRAY);  // Enable Color in Vertices
             vertices.position(positionCnt);            // Set Vertex Buffer to Color
             gl.glColorPointer(COLOR_CNT, GL10.GL_FLOAT, vertexSize, vertices);  // Set Color Pointer
         }
 
         if (hasTexCoords) {                          // IF Vertices Have Texture Coords
-            gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);  // Enable Texture Coords in Vertices
+            enableClientState(stateTracker, GL10.GL_TEXTURE_COORD_ARRAY);  // Enable Texture Coords in Vertices
             vertices.position(positionCnt + (hasColor ? COLOR_CNT : 0));  // Set Vertex Buffer to Texture Coords (NOTE: position based on whether color is also specified)
             gl.glTexCoordPointer(TEXCOORD_CNT, GL10.GL_FLOAT, vertexSize, vertices);  // Set Texture Coords Pointer
         }
 
         if (hasNormals) {
-            gl.glEnableClientState(GL10.GL_NORMAL_ARRAY);  // Enable Normals in Vertices
+            enableClientState(stateTracker, GL10.GL_NORMAL_ARRAY);  // Enable Normals in Vertices
             vertices.position(positionCnt + (hasColor ? COLOR_CNT : 0) + (hasTexCoords ? TEXCOORD_CNT : 0));  // Set Vertex Buffer to Normals (NOTE: position based on whether color/texcoords is also specified)
             gl.glNormalPointer(GL10.GL_FLOAT, vertexSize, vertices);  // Set Normals Pointer
         }
@@ -155,6 +175,14 @@ public class Vertices {
     // A: [none]
     // R: [none]
     public void unbind() {
+        unbind(null);                                   // Unbind Untracked
+    }
+
+    // A: stateTracker - with a tracker the arrays are left enabled for the next bind(), the caller disables them (null = no tracker)
+    public void unbind(GLStateTracker stateTracker) {
+        if (stateTracker != null)                     // IF State is Tracked
+            return;                                     // Leave Arrays Enabled
+
         if (hasColor)                                 // IF Vertices Have Color
             gl.glDisableClientState(GL10.GL_COLOR_ARRAY);  // Clear Color State
 
@@ -165,6 +193,15 @@ public class Vertices {
             gl.glDisableClientState(GL10.GL_NORMAL_ARRAY);  // Clear Normals State
     }
 
+    //--Enable Client State--//
+    // D: enable the array through the tracker if there's one, directly otherwise
+    private void enableClientState(GLStateTracker stateTracker, int array) {
+        if (stateTracker != null)                     // IF State is Tracked
+            stateTracker.enableClientState(gl, array);  // Enable Unless Enabled
+        else
+            gl.glEnableClientState(array);              // Enable Array
+    }
+
     //--Draw Full--//
     // D: draw the vertices in the vertex/index buffers
     //    NOTE: unoptimized version! use bind()/draw()/unbind() for batches
@@ -2,88 +2,158 @@ package com.github.ykrapiva.eventmap;
 
 import android.annotation.SuppressLint;
 import android.graphics.*;
+import android.opengl.ETC1Util;
 import android.opengl.Matrix;
-import android.text.TextUtils;
+import android.util.Log;
 import com.android.texample.GLText;
+import com.github.ykrapiva.eventmap.gl.GLStateTracker;
+import com.github.ykrapiva.eventmap.gl.GLTextRegistry;
 import com.github.ykrapiva.eventmap.gl.GLUtils;
 import com.github.ykrapiva.eventmap.gl.MatrixGrabber;
+import com.github.ykrapiva.eventmap.gl.QuadIndexBuffer;
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
 import com.github.ykrapiva.eventmap.gl.Ray;
 import com.github.ykrapiva.eventmap.gl.Triangle;
 
 import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class EventMap<T extends EventMapFigure> {
-    @SuppressWarnings("unused")
+    /**
+     * Extracts business ids of seats, e.g. place ids, for lookups with {@link #findById(long)}.
+     */
+    public interface KeyExtractor<T extends EventMapFigure> {
+        long getKey(T seat);
+    }
+
     private static final String TAG = EventMap.class.getSimpleName();
 
+    /**
+     * Geometry found in the cache, or partitioned anew by the builder to be filled in and saved under the file name.
+     */
+    private static class GeometryLookup {
+        final SeatGeometryBuilder.Geometry geometry;
+        final SeatGeometryBuilder builder;
+        final String cacheFileName;
+
+        GeometryLookup(SeatGeometryBuilder.Geometry geometry, SeatGeometryBuilder builder, String cacheFileName) {
+            this.geometry = geometry;
+            this.builder = builder;
+            this.cacheFileName = cacheFileName;
+        }
+    }
+
     private static final int FLOAT_SIZE_IN_BYTES = 4;
-    private static final int SHORT_SIZE_IN_BYTES = 2;
     private static final int NUM_VERTICES_IN_SQUARE = 4;
-    private static final short SQUARE_VERTICES_ORDER_TEMPLATE[] = {0, 1, 2, 0, 2, 3};
     private static final int NUM_COORDS_PER_VERTEX = 3;
-    private static final int NUM_COLOR_COMPONENTS = 4;
+    private static final long DEFAULT_LOAD_BUDGET_MILLIS = 4;
+    private static final int DEFAULT_MAX_UPDATES_PER_FRAME = 2048;
 
     // Max Bitmap size the device can decode
     private final int mMaxBitmapSize;
 
-    private final Map<FigureType, List<T>> mSeats = new HashMap<FigureType, List<T>>();
+    private final SeatStore<T> mSeats = new SeatStore<T>();
+    // Optional index from seat ids to seat store slots
+    private KeyExtractor<? super T> mKeyExtractor;
+    private final LongIntMap mSeatIndicesByKey = new LongIntMap();
+    // Color updates applied at the beginning of frames, with room for one frame's batch
+    private SeatUpdateQueue mUpdateQueue;
+    private int mMaxUpdatesPerFrame = DEFAULT_MAX_UPDATES_PER_FRAME;
+    private long[] mUpdateIds;
+    private int[] mUpdateColors;
+    // Requests a frame when updates arrive, set by the view
+    private Runnable mRenderRequest;
 
     // Data for rendering seats
-    private final Map<FigureType, FloatBuffer> mSeatVertexBuffers = new HashMap<FigureType, FloatBuffer>();
-    private final Map<FigureType, ShortBuffer> mSeatIndicesBuffers = new HashMap<FigureType, ShortBuffer>();
-    private final Map<FigureType, FloatBuffer> mSeatColorBuffers = new HashMap<FigureType, FloatBuffer>();
-    private final Map<FigureType, FloatBuffer> mSeatTextureBuffers = new HashMap<FigureType, FloatBuffer>();
-    private final Map<FigureType, Integer[]> mSeatTextures = new HashMap<FigureType, Integer[]>();
-    private final Map<FigureType, Integer> mSeatTextureIds = new HashMap<FigureType, Integer>();
-    private final Map<FigureType, Bitmap> mSeatTextureBitmaps = new HashMap<FigureType, Bitmap>();
+    private final List<SeatChunk> mSeatChunks = new ArrayList<SeatChunk>();
+    // Chunk and position within the chunk of every seat, see SeatGeometryBuilder.Geometry
+    private int[] mSeatLocations;
+    // Progressive loading state: chunks being generated and fonts not yet loaded
+    private SeatChunkLoader mSeatChunkLoader;
+    private final Queue<Integer> mPendingTextSizes = new LinkedList<Integer>();
+    private long mLoadBudgetNanos = DEFAULT_LOAD_BUDGET_MILLIS * 1000000;
+    // Optional persistent geometry cache, its lookup running on the worker pool, the builder used if the lookup fails,
+    // and the cache file name of the geometry being loaded
+    private SeatGeometryCache mGeometryCache;
+    private Future<GeometryLookup> mGeometryLookup;
+    private SeatGeometryBuilder mGeometryLookupBuilder;
+    private String mGeometryCacheFileName;
+    private SeatGeometryBuilder.Geometry mGeometry;
+    // GL textures and buffer objects were created with, it stands for their context, and whether it has buffer objects
+    private GL10 mGL;
+    private boolean mUseBufferObjects;
+    // Bytes uploaded into buffer objects by the last frame
+    private int mUploadedBytes;
+    // World regions which are displayed now and about to be displayed
+    private RectF mVisibleRect;
+    private RectF mPrefetchRect;
+    // Figure shapes of all kinds share one texture
+    private final SeatTextureAtlas mSeatTextureAtlas = new SeatTextureAtlas();
 
     // // Data for rendering background
     private FloatBuffer mBackgroundTextureBuffer;
     private FloatBuffer mBackgroundVertexBuffer;
-    private ShortBuffer mBackgroundIndicesBuffer;
     private Bitmap mBackgroundBitmap;
+    // Precompressed alternative to the bitmap, one texture per mipmap level
+    private ETC1Util.ETC1Texture[] mCompressedBackground;
     private int[] mBackgroundTextures;
     private int mBackgroundTextureId = -1;
+    private int mBackgroundTextureBytes;
 
     // Event map bounds
     private final RectF mEventMapBounds;
 
+    // Filters out redundant GL state changes
+    private final GLStateTracker mStateTracker = new GLStateTracker();
+
     // Used for ray picking
     private final MatrixGrabber matrixGrabber = new MatrixGrabber();
 
-    // Text support
+    // Text support, fonts are shared with other maps through GLTextRegistry
     @SuppressLint("UseSparseArrays")
     private final Map<Integer, GLText> mGlTextMapBySize = new HashMap<Integer, GLText>();
+    // Sizes of fonts given up by releaseGLResources(), acquired again on restore
+    private final List<Integer> mReleasedTextSizes = new ArrayList<Integer>();
+
+    // Whether textures are mipmapped
+    private boolean mMipmapsEnabled;
 
     // Initialization flags
     private boolean mBackgroundSetUp;
     private boolean mSeatsInitialized;
+    // Whether textures of initialized seats have to be uploaded again, see releaseGLResources()
+    private boolean mGLResourcesReleased;
 
 
     public EventMap(float eventMapWidth, float eventMapHeight) {
         this.mEventMapBounds = new RectF(-eventMapWidth / 2.0f, eventMapHeight / 2.0f, eventMapWidth / 2.0f, -eventMapHeight / 2.0f);
-        this.mSeatTextureBitmaps.put(FigureType.CIRCLE, createCircleTexture());
+        this.mSeatTextureAtlas.put(FigureType.CIRCLE, createCircleTexture());
         this.mMaxBitmapSize = GLUtils.getMaxTextureSize();
     }
 
     public void add(Collection<T> seats) {
+        mSeats.ensureCapacity(mSeats.size() + seats.size());
+        if (mKeyExtractor != null) {
+            mSeatIndicesByKey.ensureCapacity(mSeats.size() + seats.size());
+        }
+
         for (T seat : seats) {
-            List<T> seatList = mSeats.get(seat.getFigureType());
-            if (seatList == null) {
-                seatList = new ArrayList<T>();
-                mSeats.put(seat.getFigureType(), seatList);
+            if (mKeyExtractor != null) {
+                mSeatIndicesByKey.put(mKeyExtractor.getKey(seat), mSeats.size());
             }
-
-            seatList.add(seat);
+            mSeats.add(seat, toWorldRect(seat.getRect()));
         }
         mSeatsInitialized = false;
     }
@@ -93,13 +163,95 @@ public class EventMap<T extends EventMapFigure> {
     }
 
     public List<T> getSeats() {
-        List<T> seats = new ArrayList<T>();
+        return new ArrayList<T>(mSeats.getFigures());
+    }
+
+    /**
+     * Enables lookups of seats by id. Seats added already are indexed right away.
+     * If several seats have the same id, the one added last is found.
+     *
+     * @param keyExtractor Seat id extractor, null disables the index unless there's an {@link #setUpdateQueue(SeatUpdateQueue) update queue}
+     */
+    public void setKeyExtractor(KeyExtractor<? super T> keyExtractor) {
+        if (keyExtractor == null && mUpdateQueue != null) {
+            throw new IllegalStateException("Update queue needs a key extractor, remove the queue first");
+        }
+
+        this.mKeyExtractor = keyExtractor;
+
+        mSeatIndicesByKey.clear();
+        if (keyExtractor != null) {
+            mSeatIndicesByKey.ensureCapacity(mSeats.size());
+            for (int i = 0; i < mSeats.size(); i++) {
+                mSeatIndicesByKey.put(keyExtractor.getKey(mSeats.getFigure(i)), i);
+            }
+        }
+    }
+
+    /**
+     * Set a queue of color updates to apply on the GL thread, up to {@link #setMaxUpdatesPerFrame(int) a batch} per frame.
+     * Seats are looked up by id, so a {@link #setKeyExtractor(KeyExtractor) key extractor} is required.
+     *
+     * @param queue Update queue, null to stop applying updates
+     */
+    public void setUpdateQueue(SeatUpdateQueue queue) {
+        if (queue != null && mKeyExtractor == null) {
+            throw new IllegalStateException("Key extractor is not set");
+        }
+
+        if (mUpdateQueue != null) {
+            mUpdateQueue.setWakeUp(null);
+        }
+        mUpdateQueue = queue;
+        if (queue != null) {
+            queue.setWakeUp(mRenderRequest);
+        }
+    }
+
+    public SeatUpdateQueue getUpdateQueue() {
+        return mUpdateQueue;
+    }
+
+    /**
+     * Set how many queued updates a frame may apply, the rest wait for next frames.
+     */
+    public void setMaxUpdatesPerFrame(int maxUpdates) {
+        if (maxUpdates <= 0) {
+            throw new IllegalArgumentException("Max updates must be positive: " + maxUpdates);
+        }
+        mMaxUpdatesPerFrame = maxUpdates;
+    }
+
+    public boolean hasPendingUpdates() {
+        SeatUpdateQueue queue = mUpdateQueue;
+        return queue != null && queue.size() > 0;
+    }
 
-        for (List<T> viewTypeSpecificSeats : mSeats.values()) {
-            seats.addAll(viewTypeSpecificSeats);
+    void setRenderRequest(Runnable renderRequest) {
+        mRenderRequest = renderRequest;
+        if (mUpdateQueue != null) {
+            mUpdateQueue.setWakeUp(renderRequest);
         }
+    }
+
+    /**
+     * @return seat with the id or null, requires a {@link #setKeyExtractor(KeyExtractor) key extractor}
+     */
+    public T findById(long id) {
+        int seatIndex = findIndexById(id);
+        return seatIndex != -1 ? mSeats.getFigure(seatIndex) : null;
+    }
 
-        return seats;
+    /**
+     * Register a shape bitmap for figures which refer to it by name, see {@link EventMapFigure#setShape(String)}.
+     * All shapes are packed into a single texture, so seats of different shapes are still drawn at once.
+     *
+     * @param name   Shape name
+     * @param bitmap Shape bitmap, white on transparent, it's colored with figure's color
+     */
+    public void registerShape(String name, Bitmap bitmap) {
+        mSeatTextureAtlas.put(name, bitmap);
+        mSeatsInitialized = false;
     }
 
     public RectF getBounds() {
@@ -111,6 +263,7 @@ public class EventMap<T extends EventMapFigure> {
      */
     public void setBackground(Bitmap background) {
         this.mBackgroundBitmap = background;
+        this.mCompressedBackground = null;
 
         if (mBackgroundBitmap != null) {
             // Convert to texture like dimensions (power of two)
@@ -178,33 +331,183 @@ public class EventMap<T extends EventMapFigure> {
         setBackground(background);
     }
 
-    private void initializeBackground(GL10 gl) {
+    /**
+     * Set ETC1 compressed background image, prepared at build time (e.g. with <code>etc1tool</code> from the Android SDK)
+     * so that nothing is compressed on device. ETC1 takes 4 bits per pixel, but has no alpha channel.
+     * Image dimensions have to be powers of two. Passed in streams are closed.
+     *
+     * @param pkmLevels PKM files, one per mipmap level starting from the largest one. Mipmapping is used
+     *                  if a complete chain down to 1x1 is given, only the first level is used otherwise.
+     */
+    public void setCompressedBackground(InputStream... pkmLevels) throws IOException {
+        ETC1Util.ETC1Texture[] levels = new ETC1Util.ETC1Texture[pkmLevels.length];
+
+        try {
+            for (int i = 0; i < pkmLevels.length; i++) {
+                levels[i] = ETC1Util.createTexture(pkmLevels[i]);
+            }
+        } finally {
+            for (InputStream is : pkmLevels) {
+                is.close();
+            }
+        }
+
+        this.mBackgroundBitmap = null;
+        this.mCompressedBackground = levels.length > 0 ? levels : null;
+        mBackgroundSetUp = false;
+    }
+
+    /**
+     * Enable mipmapping of background and seat shape textures, so that zoomed out map doesn't shimmer.
+     * Costs a third more texture memory.
+     */
+    public void setMipmapsEnabled(boolean enabled) {
+        if (mMipmapsEnabled != enabled) {
+            mMipmapsEnabled = enabled;
+            mBackgroundSetUp = false;
+            mSeatsInitialized = false;
+        }
+    }
+
+    /**
+     * Deletes textures and buffer objects of the map, e.g. while it's not displayed or when memory runs low.
+     * What they're uploaded from is kept: seat vertex data, the shape atlas, background and font bitmaps,
+     * so the next frame uploads them again without laying seats out or rendering glyphs.
+     * Must be called on the GL thread.
+     *
+     * @param gl GL the resources were created with, null if its context is lost and they're just forgotten
+     */
+    public void releaseGLResources(GL10 gl) {
+        if (gl != mGL) {
+            // Objects of another context can't be deleted here
+            gl = null;
+        }
+
+        releaseChunkBuffers(gl);
+        mSeatTextureAtlas.destroy(gl);
+        releaseTexts(gl);
+
+        releaseBackgroundTexture(gl);
+        mBackgroundSetUp = false;
+
+        mGLResourcesReleased = true;
+        mStateTracker.invalidateTexture();
+    }
+
+    /**
+     * @return bytes of textures and buffer objects the map holds now, see {@link #releaseGLResources(GL10)}
+     */
+    long getGLResourceBytes() {
+        long bytes = mSeatTextureAtlas.getTextureBytes();
+        for (GLText glText : mGlTextMapBySize.values()) {
+            bytes += glText.getTextureBytes();
+        }
+        if (mBackgroundTextureId != -1) {
+            bytes += mBackgroundTextureBytes;
+        }
+        for (SeatChunk chunk : mSeatChunks) {
+            if (chunk.bufferId != -1) {
+                bytes += chunk.vertexData.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Switches to the GL of the frame. A GL other than the one textures and buffer objects were created with
+     * means a new context, where they're gone and have to be uploaded again.
+     * The same GL, e.g. of a context preserved while paused, keeps them.
+     */
+    private void useGL(GL10 gl) {
+        if (gl == mGL) {
+            return;
+        }
+
+        if (mGL != null) {
+            releaseGLResources(null);
+        }
+        mGL = gl;
+        mUseBufferObjects = GLUtils.isGL11(gl);
+    }
+
+    /**
+     * Uploads what {@link #releaseGLResources(GL10)} has released, buffer objects are created as chunks are drawn.
+     */
+    private void restoreGLResources(GL10 gl) {
+        if (!mGLResourcesReleased) {
+            return;
+        }
+        mGLResourcesReleased = false;
+
+        if (mSeatTextureAtlas.isBuilt()) {
+            mSeatTextureAtlas.upload(gl, mMipmapsEnabled);
+        }
+        for (int textSize : mReleasedTextSizes) {
+            mGlTextMapBySize.put(textSize, GLTextRegistry.acquire(gl, textSize));
+        }
+        mReleasedTextSizes.clear();
+
+        // Uploads bind textures on their own
+        mStateTracker.invalidateTexture();
+    }
+
+    /**
+     * Gives fonts back to the registry, remembering their sizes for {@link #restoreGLResources(GL10)}.
+     *
+     * @param gl GL of the context, null if it's not current and fonts can't be deleted now
+     */
+    private void releaseTexts(GL10 gl) {
+        for (Map.Entry<Integer, GLText> entry : mGlTextMapBySize.entrySet()) {
+            if (gl != null) {
+                GLTextRegistry.release(gl, entry.getValue());
+            } else {
+                GLTextRegistry.forget(mGL, entry.getValue());
+            }
+            mReleasedTextSizes.add(entry.getKey());
+        }
+        mGlTextMapBySize.clear();
+    }
+
+    private void releaseBackgroundTexture(GL10 gl) {
         if (mBackgroundTextures != null) {
-            // Delete a texture.
-            gl.glDeleteTextures(1, mBackgroundTextures, 0);
+            // Delete a texture unless it's gone with its context
+            if (gl != null) {
+                gl.glDeleteTextures(1, mBackgroundTextures, 0);
+            }
+            ResourceAccounting.released(ResourceAccounting.Kind.TEXTURE, mBackgroundTextureBytes);
         }
 
         mBackgroundTextures = null;
-        mBackgroundIndicesBuffer = null;
+        mBackgroundTextureId = -1;
+    }
+
+    private void initializeBackground(GL10 gl) {
+        releaseBackgroundTexture(gl);
+
+        if (mBackgroundVertexBuffer != null) {
+            ResourceAccounting.released(ResourceAccounting.Kind.DIRECT_BUFFER, mBackgroundTextureBuffer.capacity() * FLOAT_SIZE_IN_BYTES);
+            ResourceAccounting.released(ResourceAccounting.Kind.DIRECT_BUFFER, mBackgroundVertexBuffer.capacity() * FLOAT_SIZE_IN_BYTES);
+        }
+
         mBackgroundVertexBuffer = null;
         mBackgroundTextureBuffer = null;
-        mBackgroundTextureId = -1;
 
-        if (mBackgroundBitmap != null) {
+        if (mBackgroundBitmap != null || mCompressedBackground != null) {
             // Generate one texture pointer...
             mBackgroundTextures = new int[1];
             gl.glGenTextures(1, mBackgroundTextures, 0);
             mBackgroundTextureId = mBackgroundTextures[0];
 
             // ...and bind it to our array
-            gl.glBindTexture(GL10.GL_TEXTURE_2D, mBackgroundTextureId);
+            mStateTracker.bindTexture(gl, mBackgroundTextureId);
 
-            // Create Nearest Filtered Texture
-            gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_LINEAR);
-            gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
-
-            // Use the Android GLUtils to specify a two-dimensional texture image from our bitmap
-            android.opengl.GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, mBackgroundBitmap, 0);
+            // Specify a two-dimensional texture image from our bitmap or precompressed image
+            if (mCompressedBackground != null) {
+                mBackgroundTextureBytes = GLUtils.compressedTexImage2D(gl, mCompressedBackground);
+            } else {
+                mBackgroundTextureBytes = GLUtils.texImage2D(gl, mBackgroundBitmap, mMipmapsEnabled);
+            }
+            ResourceAccounting.allocated(ResourceAccounting.Kind.TEXTURE, mBackgroundTextureBytes);
 
             final float textureCoordinates[] = {
                     0.0f, 0.0f,
@@ -222,8 +525,6 @@ public class EventMap<T extends EventMapFigure> {
                     mEventMapBounds.right, mEventMapBounds.top, textureZPosition
             };
 
-            final short indices[] = {0, 1, 2, 0, 2, 3};
-
             mBackgroundTextureBuffer = ByteBuffer.allocateDirect(textureCoordinates.length * FLOAT_SIZE_IN_BYTES)
                     .order(ByteOrder.nativeOrder()).asFloatBuffer()
                     .put(textureCoordinates);
@@ -232,289 +533,465 @@ public class EventMap<T extends EventMapFigure> {
                     .order(ByteOrder.nativeOrder()).asFloatBuffer()
                     .put(coords);
 
-            mBackgroundIndicesBuffer = ByteBuffer.allocateDirect(indices.length * SHORT_SIZE_IN_BYTES)
-                    .order(ByteOrder.nativeOrder()).asShortBuffer()
-                    .put(indices);
-
             mBackgroundTextureBuffer.position(0);
             mBackgroundVertexBuffer.position(0);
-            mBackgroundIndicesBuffer.position(0);
+
+            ResourceAccounting.allocated(ResourceAccounting.Kind.DIRECT_BUFFER, mBackgroundTextureBuffer.capacity() * FLOAT_SIZE_IN_BYTES);
+            ResourceAccounting.allocated(ResourceAccounting.Kind.DIRECT_BUFFER, mBackgroundVertexBuffer.capacity() * FLOAT_SIZE_IN_BYTES);
         }
     }
 
     private void initializeSeats(GL10 gl) {
-        mSeatVertexBuffers.clear();
-        mSeatColorBuffers.clear();
-        mSeatIndicesBuffers.clear();
-        mSeatTextureBuffers.clear();
-
-        for (FigureType viewType : mSeats.keySet()) {
-            Integer[] textureIds = mSeatTextures.remove(viewType);
-            if (textureIds != null) {
-                gl.glDeleteTextures(1, toPrimitiveArray(textureIds), 0);
-            }
+        if (mSeatChunkLoader != null) {
+            mSeatChunkLoader.cancel();
+            mSeatChunkLoader = null;
+        }
+        if (mGeometryLookup != null) {
+            mGeometryLookup.cancel(false);
+            mGeometryLookup = null;
+            mGeometryLookupBuilder = null;
+        }
+
+        // Everything is uploaded anew
+        mGLResourcesReleased = false;
 
-            mSeatTextureIds.remove(viewType);
+        releaseChunkBuffers(gl);
+        for (SeatChunk chunk : mSeatChunks) {
+            chunk.releaseVertexData();
         }
+        mSeatChunks.clear();
+        mSeatLocations = null;
+        mPendingTextSizes.clear();
+        mReleasedTextSizes.clear();
+        mSeatTextureAtlas.destroy(gl);
 
         if (mSeats.isEmpty()) {
             return;
         }
 
-        // Free texts and associated texture resources
-        for (GLText glText : mGlTextMapBySize.values()) {
-            glText.destroy(gl);
-        }
-        mGlTextMapBySize.clear();
+        // Give up texts, the registry keeps them for a while in case they're needed again
+        releaseTexts(gl);
+        mReleasedTextSizes.clear();
 
-        for (Map.Entry<FigureType, List<T>> entry : mSeats.entrySet()) {
-            final short[] indexList = SQUARE_VERTICES_ORDER_TEMPLATE.clone();
-            final float[] colors = new float[NUM_COLOR_COMPONENTS];
-            final float[] vertices = new float[NUM_COORDS_PER_VERTEX * NUM_VERTICES_IN_SQUARE];
-            final float textureCoordinates[] = {
-                    0.0f, 0.0f,
-                    0.0f, 1.0f,
-                    1.0f, 1.0f,
-                    1.0f, 0.0f
-            };
+        // Pick up changes made to figures since they were added
+        for (int i = 0; i < mSeats.size(); i++) {
+            mSeats.update(i);
+        }
 
-            FigureType viewType = entry.getKey();
-            List<T> seats = entry.getValue();
-
-            // Init vertex buffer
-            ByteBuffer vbb = ByteBuffer.allocateDirect(vertices.length * FLOAT_SIZE_IN_BYTES * seats.size());
-            vbb.order(ByteOrder.nativeOrder());
-            FloatBuffer vertexBuffer = vbb.asFloatBuffer();
-
-            // Init indices buffer
-            ByteBuffer tbibb = ByteBuffer.allocateDirect(indexList.length * SHORT_SIZE_IN_BYTES * seats.size());
-            tbibb.order(ByteOrder.nativeOrder());
-            ShortBuffer indicesBuffer = tbibb.asShortBuffer();
-
-            // Init color buffer
-            ByteBuffer cbb = ByteBuffer.allocateDirect(NUM_VERTICES_IN_SQUARE * colors.length * FLOAT_SIZE_IN_BYTES * seats.size());
-            cbb.order(ByteOrder.nativeOrder());
-            FloatBuffer colorBuffer = cbb.asFloatBuffer();
-
-            for (T seat : seats) {
-                RectF worldCoordinates = toWorldCoordinates(seat.getRect());
-                makeRelativeToWorldCenter(worldCoordinates, Math.abs(mEventMapBounds.width()), Math.abs(mEventMapBounds.height()));
-
-                int color = seat.getColor();
-
-                vertices[0] = worldCoordinates.left;
-                vertices[1] = worldCoordinates.top;
-                vertices[2] = 0;
-                vertices[3] = worldCoordinates.left;
-                vertices[4] = worldCoordinates.bottom;
-                vertices[5] = 0;
-                vertices[6] = worldCoordinates.right;
-                vertices[7] = worldCoordinates.bottom;
-                vertices[8] = 0;
-                vertices[9] = worldCoordinates.right;
-                vertices[10] = worldCoordinates.top;
-                vertices[11] = 0;
-
-                vertexBuffer.put(vertices);
-                indicesBuffer.put(indexList);
-
-                // Prepare index list for insertion of the next seat
-                for (int index = 0; index < indexList.length; index++) {
-                    indexList[index] += NUM_VERTICES_IN_SQUARE;
+        mSeatTextureAtlas.build(mMaxBitmapSize);
+        mGeometryCacheFileName = null;
+
+        final SeatGeometryBuilder builder = new SeatGeometryBuilder(mSeats, mSeatTextureAtlas);
+
+        if (mGeometryCache != null) {
+            // Hashing seats and reading the file take a while, so does partitioning on a miss.
+            // Geometry is taken in by one of the following frames, see loadSeats()
+            final SeatGeometryCache cache = mGeometryCache;
+            final SeatStore<T> seats = mSeats;
+            final SeatTextureAtlas atlas = mSeatTextureAtlas;
+
+            mGeometryLookupBuilder = builder;
+            mGeometryLookup = SeatGeometryBuilder.getExecutor().submit(new Callable<GeometryLookup>() {
+                @Override
+                public GeometryLookup call() {
+                    String fileName = cache.getFileName(seats, atlas);
+                    SeatGeometryBuilder.Geometry geometry = cache.load(fileName, seats.size());
+                    return geometry != null ? new GeometryLookup(geometry, null, null) : new GeometryLookup(builder.partition(), builder, fileName);
                 }
+            });
+        } else {
+            takeInGeometry(new GeometryLookup(builder.partition(), builder, null));
+        }
 
-                // Convert integer color into float components
-                GLUtils.getFloatColorComponents(color, colors);
+        mSeatTextureAtlas.upload(gl, mMipmapsEnabled);
 
-                // Each vertex has the same color (no gradients)
-                for (int n = 0; n < NUM_VERTICES_IN_SQUARE; n++) {
-                    colorBuffer.put(colors);
-                }
+        // Atlas upload binds texture on its own
+        mStateTracker.invalidateTexture();
+    }
 
-                // Load text variants, depending on the seat size
-                int textSize = calcTextSize(seat.getRect());
-                GLText glText = mGlTextMapBySize.get(textSize);
-                if (glText == null) {
-                    glText = new GLText(gl);
-                    glText.load(textSize, 0, 0);
-                    mGlTextMapBySize.put(textSize, glText);
-                }
+    private void takeInGeometry(GeometryLookup lookup) {
+        SeatGeometryBuilder.Geometry geometry = lookup.geometry;
+
+        if (lookup.builder == null) {
+            // Cached vertex data is ready to draw, only colors are brought up to date
+            for (SeatChunk chunk : geometry.chunks) {
+                chunk.accountVertexData();
+                chunk.colorsDirty = true;
+                installChunk(chunk);
             }
+        } else {
+            // Vertex data is generated by worker threads and picked up by the following frames, see loadSeats()
+            mSeatChunkLoader = new SeatChunkLoader(lookup.builder, geometry.chunks);
+        }
 
-            mSeatVertexBuffers.put(viewType, vertexBuffer);
-            mSeatColorBuffers.put(viewType, colorBuffer);
-            mSeatIndicesBuffers.put(viewType, indicesBuffer);
+        mGeometry = geometry;
+        mGeometryCacheFileName = lookup.cacheFileName;
+        mSeatChunks.addAll(geometry.chunks);
+        mSeatLocations = geometry.seatLocations;
 
-            // Init textures
-            Bitmap seatTextureBitmap = mSeatTextureBitmaps.get(viewType);
-            if (seatTextureBitmap != null) {
-                // Init texture buffer
-                FloatBuffer textureBuffer = ByteBuffer.allocateDirect(textureCoordinates.length * FLOAT_SIZE_IN_BYTES * seats.size())
-                        .order(ByteOrder.nativeOrder())
-                        .asFloatBuffer();
+        // Text variants, depending on the seat size, are loaded along with the chunks
+        mPendingTextSizes.addAll(geometry.textSizes);
+    }
 
-                for (int i = 0; i < seats.size(); i++) {
-                    textureBuffer.put(textureCoordinates);
-                }
+    /**
+     * Takes in generated chunks and loads fonts until the frame's load budget is spent.
+     * At least one step is made every frame.
+     */
+    private void loadSeats(GL10 gl) {
+        if (!isLoading()) {
+            return;
+        }
 
-                mSeatTextureBuffers.put(viewType, textureBuffer);
+        long deadline = System.nanoTime() + mLoadBudgetNanos;
+        boolean progressed = false;
 
-                // Generate one texture pointer...
-                int[] seatTextures = new int[1];
-                gl.glGenTextures(1, seatTextures, 0);
-                int seatTextureId = seatTextures[0];
+        if (mGeometryLookup != null) {
+            if (!mGeometryLookup.isDone()) {
+                return;
+            }
+
+            SeatGeometryBuilder builder = mGeometryLookupBuilder;
+            try {
+                takeInGeometry(mGeometryLookup.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // Cache is only a shortcut, geometry is built the way it is without one
+                Log.w(TAG, "Failed to look seat geometry up", e.getCause());
+                takeInGeometry(new GeometryLookup(builder.partition(), builder, null));
+            } finally {
+                mGeometryLookup = null;
+                mGeometryLookupBuilder = null;
+            }
+            progressed = true;
+        }
+
+        if (mSeatChunkLoader != null) {
+            mSeatChunkLoader.update(mVisibleRect, mPrefetchRect);
+
+            SeatChunk chunk;
+            while ((!progressed || System.nanoTime() < deadline) && (chunk = mSeatChunkLoader.pollCompleted()) != null) {
+                installChunk(chunk);
+                progressed = true;
+            }
+
+            if (mSeatChunkLoader.isDone()) {
+                mSeatChunkLoader = null;
+                mPrefetchRect = null;
+                saveGeometry();
+            }
+        }
 
-                mSeatTextures.put(viewType, new Integer[]{seatTextureId});
-                mSeatTextureIds.put(viewType, seatTextureId);
+        while ((!progressed || System.nanoTime() < deadline) && !mPendingTextSizes.isEmpty()) {
+            int textSize = mPendingTextSizes.poll();
+            mGlTextMapBySize.put(textSize, GLTextRegistry.acquire(gl, textSize));
+            progressed = true;
 
-                // ...and bind it to our array
-                gl.glBindTexture(GL10.GL_TEXTURE_2D, seatTextureId);
+            // Font loading binds texture on its own
+            mStateTracker.invalidateTexture();
+        }
+    }
 
-                // Create Nearest Filtered Texture
-                gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_LINEAR);
-                gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
+    private void saveGeometry() {
+        if (mGeometryCache == null || mGeometryCacheFileName == null) {
+            return;
+        }
 
-                // Use the Android GLUtils to specify a two-dimensional texture image from our bitmap
-                android.opengl.GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, seatTextureBitmap, 0);
+        final SeatGeometryCache cache = mGeometryCache;
+        final String fileName = mGeometryCacheFileName;
+        final SeatGeometryBuilder.Geometry geometry = mGeometry;
+        mGeometryCacheFileName = null;
+
+        SeatGeometryBuilder.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    cache.save(fileName, geometry);
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to save seat geometry", e);
+                }
             }
+        });
+    }
+
+    /**
+     * Deletes buffer objects of seat chunks.
+     *
+     * @param gl Current GL, buffers are only deleted if they belong to it, otherwise they're just forgotten
+     */
+    private void releaseChunkBuffers(GL10 gl) {
+        GL11 gl11 = gl != null && gl == mGL && mUseBufferObjects ? (GL11) gl : null;
+        for (SeatChunk chunk : mSeatChunks) {
+            chunk.deleteBuffer(gl11);
+        }
+    }
+
+    private void installChunk(SeatChunk chunk) {
+        chunk.ready = true;
+
+        if (chunk.colorsDirty) {
+            chunk.colorsDirty = false;
+            for (int i = 0; i < chunk.numSeats; i++) {
+                chunk.setColor(i, mSeats.getColor(chunk.seats[i]));
+            }
+        }
+    }
+
+    /**
+     * @return true while seat geometry or fonts are still being loaded, more frames are needed to display everything
+     */
+    public boolean isLoading() {
+        return mGeometryLookup != null || mSeatChunkLoader != null || !mPendingTextSizes.isEmpty();
+    }
+
+    /**
+     * Enable persistent cache of generated seat geometry, so that reopening the same map skips layout work.
+     * Cache files are keyed by seat bounds and shapes, colors are not part of the key.
+     * Least recently used files are deleted once the cache takes more than 64 MB.
+     *
+     * @param dir Cache directory, e.g. a subdirectory of {@link android.content.Context#getCacheDir()}, null to disable
+     */
+    public void setGeometryCacheDir(File dir) {
+        setGeometryCacheDir(dir, SeatGeometryCache.DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes Size of the cache files, least recently used ones are deleted beyond it
+     */
+    public void setGeometryCacheDir(File dir, long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Max bytes must not be negative: " + maxBytes);
         }
+        mGeometryCache = dir != null ? new SeatGeometryCache(dir, maxBytes) : null;
+    }
+
+    /**
+     * Set how much time a frame may spend on taking in loaded seats and fonts. Seats near the visible region are loaded first.
+     */
+    public void setLoadBudget(long millis) {
+        mLoadBudgetNanos = millis * 1000000;
     }
 
     public void draw(GL10 gl) {
+        draw(gl, null);
+    }
+
+    /**
+     * Draws the map, skipping seats outside of the visible region.
+     *
+     * @param visibleWorldRect Visible region in world coordinates, null to draw everything
+     */
+    public void draw(GL10 gl, RectF visibleWorldRect) {
+        draw(gl, visibleWorldRect, null);
+    }
+
+    /**
+     * @param metrics Metrics of the frame being drawn, null if they aren't collected
+     */
+    void draw(GL10 gl, RectF visibleWorldRect, FrameMetrics metrics) {
+        mVisibleRect = visibleWorldRect;
+        useGL(gl);
+
+        // Every frame ends up with defaults restored
+        mStateTracker.reset();
+        mStateTracker.resetCounters();
+        mUploadedBytes = 0;
+
+        applyUpdates();
+
+        if (metrics != null) {
+            metrics.endPhase(FrameMetrics.Phase.UPDATES);
+        }
+
         drawBackground(gl);
+
+        if (metrics != null) {
+            metrics.endPhase(FrameMetrics.Phase.BACKGROUND);
+        }
+
         drawSeats(gl);
+
+        if (metrics != null) {
+            metrics.endPhase(FrameMetrics.Phase.SEATS);
+        }
+
+        if (!mSeatChunks.isEmpty()) {
+            drawSeatTitles(gl);
+        }
+
+        mStateTracker.restoreDefaults(gl);
+
+        if (metrics != null) {
+            metrics.endPhase(FrameMetrics.Phase.CAPTIONS);
+            metrics.addUploadedBytes(mUploadedBytes);
+        }
     }
 
-    private void drawBackground(GL10 gl) {
+    /**
+     * Performs lazy initialization ahead of drawing, so that a frame showing the given region doesn't have to wait for it.
+     *
+     * @param worldRect Region of interest in world coordinates
+     */
+    void prefetch(GL10 gl, RectF worldRect) {
+        useGL(gl);
+        initializeBackgroundIfNeeded(gl);
+        initializeSeatsIfNeeded(gl);
+        restoreGLResources(gl);
+
+        if (isLoading()) {
+            mPrefetchRect = worldRect;
+            loadSeats(gl);
+        }
+    }
+
+    private void initializeBackgroundIfNeeded(GL10 gl) {
         if (!mBackgroundSetUp) {
             initializeBackground(gl);
             mBackgroundSetUp = true;
         }
+    }
+
+    private void initializeSeatsIfNeeded(GL10 gl) {
+        if (!mSeatsInitialized) {
+            initializeSeats(gl);
+            mSeatsInitialized = true;
+        }
+    }
+
+    private void drawBackground(GL10 gl) {
+        initializeBackgroundIfNeeded(gl);
 
-        if (mBackgroundTextureId != -1 && mBackgroundTextureBuffer != null && mBackgroundVertexBuffer != null && mBackgroundIndicesBuffer != null) {
+        if (mBackgroundTextureId != -1 && mBackgroundTextureBuffer != null && mBackgroundVertexBuffer != null) {
             // Enable texture
-            gl.glEnable(GL10.GL_TEXTURE_2D);
-            gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+            mStateTracker.enable(gl, GL10.GL_TEXTURE_2D);
+            mStateTracker.enableClientState(gl, GL10.GL_TEXTURE_COORD_ARRAY);
             // Enable blending so that transparent background areas remain transparent
-            gl.glEnable(GL10.GL_BLEND);
-            gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
+            mStateTracker.enable(gl, GL10.GL_BLEND);
+            mStateTracker.blendFunc(gl, GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
             // Texture coordinates
             gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, mBackgroundTextureBuffer);
-            gl.glBindTexture(GL10.GL_TEXTURE_2D, mBackgroundTextureId);
+            mStateTracker.bindTexture(gl, mBackgroundTextureId);
 
             // Bind texture rectangle coordinates
-            gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
+            mStateTracker.enableClientState(gl, GL10.GL_VERTEX_ARRAY);
             gl.glVertexPointer(3, GL10.GL_FLOAT, 0, mBackgroundVertexBuffer);
 
             // Draw background texture
-            gl.glDrawElements(GL10.GL_TRIANGLES, mBackgroundIndicesBuffer.capacity(), GL10.GL_UNSIGNED_SHORT, mBackgroundIndicesBuffer);
-
-            // Disable everything we enabled
-            gl.glDisableClientState(GL10.GL_VERTEX_ARRAY);
-            gl.glDisable(GL10.GL_BLEND);
-            gl.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
-            gl.glDisable(GL10.GL_TEXTURE_2D);
+            QuadIndexBuffer.draw(gl, 0, 1);
         }
     }
 
     private void drawSeats(GL10 gl) {
-        if (!mSeatsInitialized) {
-            initializeSeats(gl);
-            mSeatsInitialized = true;
-        }
+        initializeSeatsIfNeeded(gl);
+        restoreGLResources(gl);
+        loadSeats(gl);
 
-        for (Map.Entry<FigureType, List<T>> entry : mSeats.entrySet()) {
-            FigureType viewType = entry.getKey();
-
-            FloatBuffer vertexBuffer = mSeatVertexBuffers.get(viewType);
-            FloatBuffer colorBuffer = mSeatColorBuffers.get(viewType);
-            ShortBuffer indicesBuffer = mSeatIndicesBuffers.get(viewType);
-            FloatBuffer textureBuffer = mSeatTextureBuffers.get(viewType);
-
-            vertexBuffer.position(0);
-            indicesBuffer.position(0);
-            colorBuffer.position(0);
-
-            if (textureBuffer != null) {
-                textureBuffer.position(0);
+        if (mSeatChunks.isEmpty()) {
+            return;
+        }
 
-                // Enable texture
-                gl.glEnable(GL10.GL_TEXTURE_2D);
-                gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
-                // Texture coordinates
-                gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, textureBuffer);
-                gl.glBindTexture(GL10.GL_TEXTURE_2D, mSeatTextureIds.get(viewType));
+        // Enable blending so that transparent background areas remain transparent
+        mStateTracker.enable(gl, GL10.GL_BLEND);
+        mStateTracker.blendFunc(gl, GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
+        // the vertex and color arrays are enabled for writing and used during rendering
+        mStateTracker.enableClientState(gl, GL10.GL_VERTEX_ARRAY);
+        mStateTracker.enableClientState(gl, GL10.GL_COLOR_ARRAY);
+        // All the shapes come from the same atlas, so the whole chunk is drawn at once
+        mStateTracker.enable(gl, GL10.GL_TEXTURE_2D);
+        mStateTracker.enableClientState(gl, GL10.GL_TEXTURE_COORD_ARRAY);
+        mStateTracker.bindTexture(gl, mSeatTextureAtlas.getTextureId());
+
+        for (SeatChunk chunk : mSeatChunks) {
+            if (!isDrawable(chunk)) {
+                continue;
             }
 
-            // Enable blending so that transparent background areas remain transparent
-            gl.glEnable(GL10.GL_BLEND);
-            gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);
+            if (mUseBufferObjects) {
+                GL11 gl11 = (GL11) gl;
 
-            // the vertex array is enabled for writing and used during rendering
-            gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
-            // the color array is enabled for writing and used during rendering
-            gl.glEnableClientState(GL10.GL_COLOR_ARRAY);
+                // Color changes of chunks out of sight wait until they're drawn
+                if (chunk.bufferId == -1) {
+                    mUploadedBytes += chunk.createBuffer(gl11);
+                } else {
+                    gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, chunk.bufferId);
+                    mUploadedBytes += chunk.uploadDirtySpans(gl11);
+                }
 
-            // specifies the location and data format of an array of vertex colors to use when rendering
-            gl.glColorPointer(4, GL10.GL_FLOAT, 0, colorBuffer);
-            // specifies the location and data format of an array of vertex coordinates to use when rendering
-            gl.glVertexPointer(3, GL10.GL_FLOAT, 0, vertexBuffer);
+                gl11.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, SeatChunk.VERTEX_STRIDE, SeatChunk.COLOR_OFFSET);
+                gl11.glTexCoordPointer(2, GL10.GL_FLOAT, SeatChunk.VERTEX_STRIDE, SeatChunk.TEXTURE_OFFSET);
+                gl11.glVertexPointer(2, GL10.GL_FLOAT, SeatChunk.VERTEX_STRIDE, SeatChunk.POSITION_OFFSET);
+            } else {
+                ByteBuffer vertexData = chunk.vertexData;
+
+                // specifies the location and data format of arrays of vertex colors, texture and vertex coordinates to use when rendering.
+                // The pointer is taken at the buffer's current position, so the interleaved buffer is repositioned for every attribute.
+                vertexData.position(SeatChunk.COLOR_OFFSET);
+                gl.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, SeatChunk.VERTEX_STRIDE, vertexData);
+                vertexData.position(SeatChunk.TEXTURE_OFFSET);
+                gl.glTexCoordPointer(2, GL10.GL_FLOAT, SeatChunk.VERTEX_STRIDE, vertexData);
+                vertexData.position(SeatChunk.POSITION_OFFSET);
+                gl.glVertexPointer(2, GL10.GL_FLOAT, SeatChunk.VERTEX_STRIDE, vertexData);
+            }
 
             // draw mSeats
-            gl.glDrawElements(GL10.GL_TRIANGLES, indicesBuffer.capacity(), GL10.GL_UNSIGNED_SHORT, indicesBuffer);
+            QuadIndexBuffer.draw(gl, 0, chunk.numSeats);
+        }
 
-            gl.glDisableClientState(GL10.GL_VERTEX_ARRAY);
-            gl.glDisableClientState(GL10.GL_COLOR_ARRAY);
-            gl.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
-            gl.glDisable(GL10.GL_BLEND);
-            gl.glDisable(GL10.GL_TEXTURE_2D);
+        if (mUseBufferObjects) {
+            // Text batches use client side arrays
+            ((GL11) gl).glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
         }
 
-        drawSeatTitles(gl);
+        // Text batches come with their own vertex layout which has no colors
+        mStateTracker.disableClientState(gl, GL10.GL_COLOR_ARRAY);
     }
 
     private void drawSeatTitles(GL10 gl) {
         // enable texture + alpha blending
         // NOTE: this is required for text rendering! we could incorporate it into
         // the GLText class, but then it would be called multiple times (which impacts performance).
-        gl.glEnable(GL10.GL_TEXTURE_2D);              // Enable Texture Mapping
-        gl.glEnable(GL10.GL_BLEND);                   // Enable Alpha Blend
-        gl.glBlendFunc(GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);  // Set Alpha Blend Function
-
-        float[] coords = new float[NUM_COORDS_PER_VERTEX * NUM_VERTICES_IN_SQUARE];
+        mStateTracker.enable(gl, GL10.GL_TEXTURE_2D);              // Enable Texture Mapping
+        mStateTracker.enable(gl, GL10.GL_BLEND);                   // Enable Alpha Blend
+        mStateTracker.blendFunc(gl, GL10.GL_SRC_ALPHA, GL10.GL_ONE_MINUS_SRC_ALPHA);  // Set Alpha Blend Function
 
         // Draw captions
         for (GLText glText : mGlTextMapBySize.values()) {
-            glText.begin(); // Begin Text Rendering
+            glText.begin(mStateTracker); // Begin Text Rendering, batches set their state up through the tracker
         }
 
-        for (Map.Entry<FigureType, List<T>> entry : mSeats.entrySet()) {
-            FigureType viewType = entry.getKey();
-            List<T> seats = entry.getValue();
+        for (SeatChunk chunk : mSeatChunks) {
+            if (!isDrawable(chunk)) {
+                continue;
+            }
 
-            FloatBuffer vertexBuffer = mSeatVertexBuffers.get(viewType);
+            for (int seat : chunk.seats) {
+                String caption = mSeats.getTitle(seat);
 
-            for (int i = 0; i < seats.size(); i++) {
-                T seat = seats.get(i);
+                if (caption == null) {
+                    continue;
+                }
 
-                String caption = seat.getTitle();
-                GLText glText = mGlTextMapBySize.get(calcTextSize(seat.getRect()));
+                float left = mSeats.getLeft(seat);
+                float top = mSeats.getTop(seat);
+                float right = mSeats.getRight(seat);
+                float bottom = mSeats.getBottom(seat);
+                float width = Math.abs(right - left);
+                float height = Math.abs(top - bottom);
 
-                if (!TextUtils.isEmpty(caption) && glText != null) {
-                    vertexBuffer.position(i * NUM_COORDS_PER_VERTEX * NUM_VERTICES_IN_SQUARE);
-                    vertexBuffer.get(coords, 0, NUM_COORDS_PER_VERTEX * NUM_VERTICES_IN_SQUARE);
+                GLText glText = mGlTextMapBySize.get(calcTextSize(width, height));
 
-                    RectF rect = new RectF(coords[0], coords[1], coords[6], coords[7]);
+                if (glText != null) {
                     glText.setScale(1.0f);
                     float strWidth = glText.getLength(caption);
                     float strHeight = glText.getHeight();
                     if (strWidth > strHeight) {
-                        glText.setScale(Math.abs(rect.width()) / strWidth);
+                        glText.setScale(width / strWidth);
                     } else {
-                        glText.setScale(Math.abs(rect.height()) / strHeight);
+                        glText.setScale(height / strHeight);
                     }
 
-                    glText.drawC(caption, rect.centerX(), rect.centerY(), seat.getTitleColor());
+                    glText.drawC(caption, (left + right) / 2.0f, (top + bottom) / 2.0f, mSeats.getTitleColor(seat));
                 }
             }
         }
@@ -522,37 +999,68 @@ public class EventMap<T extends EventMapFigure> {
         for (GLText glText : mGlTextMapBySize.values()) {
             glText.end(); // End Text Rendering
         }
+    }
 
-        // disable texture + alpha
-        gl.glDisable(GL10.GL_BLEND);                  // Disable Alpha Blend
-        gl.glDisable(GL10.GL_TEXTURE_2D);             // Disable Texture Mapping
+    private boolean isDrawable(SeatChunk chunk) {
+        return chunk.ready && (mVisibleRect == null || chunk.intersects(mVisibleRect));
     }
 
-    public T findIntersection(GL10 gl, Ray ray) {
-        float[] coords = new float[NUM_VERTICES_IN_SQUARE * NUM_COORDS_PER_VERTEX];
+    /**
+     * @return number of bytes uploaded into buffer objects by the last {@link #draw(GL10)}:
+     * vertex data of chunks drawn for the first time and spans of seats with changed colors
+     */
+    public int getUploadedByteCount() {
+        return mUploadedBytes;
+    }
 
-        for (Map.Entry<FigureType, List<T>> entry : mSeats.entrySet()) {
-            FigureType viewType = entry.getKey();
-            List<T> seats = entry.getValue();
+    /**
+     * @return number of GL state changing calls issued by the last {@link #draw(GL10)}
+     */
+    public int getStateChangeCount() {
+        return mStateTracker.getIssuedCallCount();
+    }
 
-            FloatBuffer vertexBuffer = mSeatVertexBuffers.get(viewType);
+    /**
+     * @return size of direct buffers holding seat geometry, in bytes
+     */
+    public int getSeatBufferSize() {
+        int size = 0;
+        for (SeatChunk chunk : mSeatChunks) {
+            size += chunk.getBufferSize();
+        }
+        return size;
+    }
 
-            for (int i = 0; i < seats.size(); i++) {
-                vertexBuffer.position(i * coords.length);
-                vertexBuffer.get(coords, 0, coords.length);
+    public T findIntersection(GL10 gl, Ray ray) {
+        float[] coords = new float[NUM_VERTICES_IN_SQUARE * NUM_COORDS_PER_VERTEX];
 
-                if (isIntersected(gl, ray, coords)) {
-                    return seats.get(i);
-                }
+        // Model view is the same for all the seats
+        matrixGrabber.getCurrentState(gl);
+
+        for (int seat = 0; seat < mSeats.size(); seat++) {
+            float left = mSeats.getLeft(seat);
+            float top = mSeats.getTop(seat);
+            float right = mSeats.getRight(seat);
+            float bottom = mSeats.getBottom(seat);
+
+            coords[0] = left;
+            coords[1] = top;
+            coords[3] = left;
+            coords[4] = bottom;
+            coords[6] = right;
+            coords[7] = bottom;
+            coords[9] = right;
+            coords[10] = top;
+
+            if (isIntersected(matrixGrabber.mModelView, ray, coords)) {
+                return mSeats.getFigure(seat);
             }
         }
 
         return null;
     }
 
-    private boolean isIntersected(GL10 gl, Ray ray, float[] coords) {
-        matrixGrabber.getCurrentState(gl);
-
+    private boolean isIntersected(float[] modelView, Ray ray, float[] coords) {
         int coordCount = coords.length;
         float[] convertedSquare = new float[coordCount];
         float[] resultVector = new float[4];
@@ -563,7 +1071,7 @@ public class EventMap<T extends EventMapFigure> {
             inputVector[1] = coords[i + 1];
             inputVector[2] = coords[i + 2];
             inputVector[3] = 1;
-            Matrix.multiplyMV(resultVector, 0, matrixGrabber.mModelView, 0, inputVector, 0);
+            Matrix.multiplyMV(resultVector, 0, modelView, 0, inputVector, 0);
             convertedSquare[i] = resultVector[0] / resultVector[3];
             convertedSquare[i + 1] = resultVector[1] / resultVector[3];
             convertedSquare[i + 2] = resultVector[2] / resultVector[3];
@@ -595,18 +1103,77 @@ public class EventMap<T extends EventMapFigure> {
         return circleTexture;
     }
 
+    /**
+     * Writes the seat's color and title into its vertices, must be called on the GL thread like {@link #draw(GL10)}.
+     */
     void updateColor(T seat) {
-        FloatBuffer colorBuffer = mSeatColorBuffers.get(seat.getFigureType());
-        List<T> seats = mSeats.get(seat.getFigureType());
+        int seatIndex = -1;
+
+        if (mKeyExtractor != null) {
+            seatIndex = findIndexById(mKeyExtractor.getKey(seat));
+            if (seatIndex != -1 && mSeats.getFigure(seatIndex) != seat) {
+                seatIndex = -1;
+            }
+        }
+
+        if (seatIndex == -1) {
+            seatIndex = mSeats.indexOf(seat);
+        }
 
-        if (colorBuffer != null && seats != null) {
-            int seatIndex = seats.indexOf(seat);
+        if (seatIndex != -1) {
+            updateColor(seatIndex);
+        }
+    }
+
+    private int findIndexById(long id) {
+        if (mKeyExtractor == null) {
+            throw new IllegalStateException("Key extractor is not set");
+        }
+
+        int seatIndex = mSeatIndicesByKey.get(id);
+        return seatIndex != LongIntMap.NO_VALUE ? seatIndex : -1;
+    }
+
+    private void updateColor(int seatIndex) {
+        // Title and title color are picked up as well
+        mSeats.update(seatIndex);
+        writeColor(seatIndex);
+    }
+
+    private void applyUpdates() {
+        SeatUpdateQueue queue = mUpdateQueue;
+        if (queue == null) {
+            return;
+        }
+
+        if (mUpdateIds == null || mUpdateIds.length != mMaxUpdatesPerFrame) {
+            mUpdateIds = new long[mMaxUpdatesPerFrame];
+            mUpdateColors = new int[mMaxUpdatesPerFrame];
+        }
+
+        int count = queue.drain(mUpdateIds, mUpdateColors, mMaxUpdatesPerFrame);
+
+        for (int i = 0; i < count; i++) {
+            int seatIndex = findIndexById(mUpdateIds[i]);
             if (seatIndex != -1) {
-                float[] colors = GLUtils.getFloatColorComponents(seat.getColor());
-                colorBuffer.position(seatIndex * NUM_VERTICES_IN_SQUARE * NUM_COLOR_COMPONENTS);
-                for (int n = 0; n < NUM_VERTICES_IN_SQUARE; n++) {
-                    colorBuffer.put(colors);
-                }
+                mSeats.getFigure(seatIndex).setColor(mUpdateColors[i]);
+                mSeats.setColor(seatIndex, mUpdateColors[i]);
+                writeColor(seatIndex);
+            }
+        }
+    }
+
+    // Copies the stored seat color into its vertex data
+    private void writeColor(int seatIndex) {
+        if (mSeatLocations != null && seatIndex < mSeatLocations.length) {
+            int location = mSeatLocations[seatIndex];
+            SeatChunk chunk = mSeatChunks.get(location / SeatChunk.MAX_SEATS);
+
+            if (chunk.ready) {
+                chunk.setColor(location % SeatChunk.MAX_SEATS, mSeats.getColor(seatIndex));
+            } else {
+                // Vertex data may be being generated right now, colors are rewritten once it's taken in
+                chunk.colorsDirty = true;
             }
         }
     }
@@ -639,18 +1206,13 @@ public class EventMap<T extends EventMapFigure> {
         return inSampleSize;
     }
 
-    void notifyNeedReinitialization() {
-        mSeatsInitialized = false;
-        mBackgroundSetUp = false;
-    }
-
-    private int[] toPrimitiveArray(Integer[] array) {
-        int[] out = new int[array.length];
-        for (int i = 0; i < array.length; i++) {
-            out[i] = array[i];
-        }
-
-        return out;
+    /**
+     * Converts a rectangle given in event map coordinates (the ones figures are laid out in) into world coordinates.
+     */
+    RectF toWorldRect(RectF rect) {
+        RectF worldCoordinates = toWorldCoordinates(rect);
+        makeRelativeToWorldCenter(worldCoordinates, Math.abs(mEventMapBounds.width()), Math.abs(mEventMapBounds.height()));
+        return worldCoordinates;
     }
 
     private RectF toWorldCoordinates(RectF rect) {
@@ -664,8 +1226,8 @@ public class EventMap<T extends EventMapFigure> {
         rect.offset(-worldWidth / 2.0f, worldHeight / 2.0f);
     }
 
-    private int calcTextSize(RectF rect) {
-        int textSize = (int) Math.min(Math.abs(rect.width()), Math.abs(rect.height())) / 2;
+    static int calcTextSize(float width, float height) {
+        int textSize = (int) Math.min(Math.abs(width), Math.abs(height)) / 2;
         textSize = Math.min(textSize, 24);
         return textSize;
     }
@@ -9,6 +9,7 @@ public class EventMapFigure {
     private int color;
     private int titleColor = Color.BLACK;
     private String title;
+    private String shape;
 
     public EventMapFigure(RectF coordinates) {
         this(FigureType.RECTANGLE, coordinates, 0);
@@ -48,6 +49,18 @@ public class EventMapFigure {
         return title;
     }
 
+    /**
+     * Set a shape registered with {@link EventMap#registerShape(String, android.graphics.Bitmap)}
+     * to draw the figure with. Takes precedence over the figure type.
+     */
+    public void setShape(String shape) {
+        this.shape = shape;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
     public int getTitleColor() {
         return titleColor;
     }
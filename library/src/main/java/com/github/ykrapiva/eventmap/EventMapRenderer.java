@@ -5,11 +5,15 @@ import android.graphics.RectF;
 import android.opengl.GLSurfaceView;
 import android.opengl.GLU;
 import com.github.ykrapiva.eventmap.gl.GLUtils;
+import com.github.ykrapiva.eventmap.gl.MatrixTrackingGL;
+import com.github.ykrapiva.eventmap.gl.GLTextRegistry;
+import com.github.ykrapiva.eventmap.gl.QuadIndexBuffer;
 import com.github.ykrapiva.eventmap.gl.Ray;
 
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 class EventMapRenderer<T extends EventMapFigure> implements GLSurfaceView.Renderer {
     @SuppressWarnings("unused")
@@ -28,59 +32,102 @@ class EventMapRenderer<T extends EventMapFigure> implements GLSurfaceView.Render
     @SuppressWarnings("FieldCanBeLocal")
     private float mCenterZ = 0.0f;
 
+    private final GLSurfaceView mView;
+    // GL of the current context
+    private GL10 mGL;
+
     private int mScreenWidth;
     private int mScreenHeight;
 
     private EventMap<T> mEventMap;
     private boolean mSceneSetupRequired;
+    // Map drawn by the last frame, GL thread only
+    private EventMap<T> mShownEventMap;
+    // Keeps maps shown before uploaded, if set, GL thread only
+    private EventMapResourceManager mResourceManager;
 
     private final float[] mClearColor = new float[4];
     private volatile float mScaleFactor = 1.0f;
     private volatile float mOffsetX, mOffsetY;
     private final RectF mOffsetBounds = new RectF();
 
+    // Visible world area at scale factor 1, known after scene setup
+    private volatile float mProjectionWidth, mProjectionHeight;
+
+    // World region to be prepared before it gets displayed, taken by the GL thread so that newer requests aren't lost
+    private final AtomicReference<RectF> mPrefetchRect = new AtomicReference<RectF>();
+    private final RectF mVisibleRect = new RectF();
+
+    // Collected only if set
+    private volatile FrameMetrics mFrameMetrics;
+    private volatile TapTracer mTapTracer;
+
     // Click stuff
     private PointF mClickPoint;
     private T mClickedObject;
+    private TapTrace mClickTrace;
     // Can somebody help to get rid of this latch ?
     private CountDownLatch mClickedObjectResultAvailableLatch;
 
+    EventMapRenderer(GLSurfaceView view) {
+        this.mView = view;
+    }
+
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
         gl.glHint(GL10.GL_PERSPECTIVE_CORRECTION_HINT, GL10.GL_FASTEST);
+
+        // Textures and buffer objects of the previous context are gone, they're uploaded again from what's kept
+        QuadIndexBuffer.invalidate(mGL);
+        GLTextRegistry.invalidate(mGL);
+        mGL = gl;
+        if (mEventMap != null) {
+            mEventMap.releaseGLResources(null);
+        }
+        if (mResourceManager != null) {
+            mResourceManager.releaseAll(null);
+        }
     }
 
+    /**
+     * Seats are laid out in world coordinates, which don't depend on the viewport,
+     * so a new size, e.g. on rotation, only takes a new projection. GL resources are kept.
+     */
     @Override
     public void onSurfaceChanged(GL10 gl, int width, int height) {
         gl.glViewport(0, 0, width, height);
         mScreenWidth = width;
         mScreenHeight = height;
-
-        if (mEventMap != null) {
-            mEventMap.notifyNeedReinitialization();
-        }
-
         mSceneSetupRequired = true;
     }
 
     @Override
     public void onDrawFrame(GL10 gl) {
+        TapTracer tapTracer = mTapTracer;
+        long frameStart = tapTracer != null ? System.nanoTime() : 0;
+        FrameMetrics metrics = mFrameMetrics;
+        MatrixTrackingGL trackingGL = gl instanceof MatrixTrackingGL ? (MatrixTrackingGL) gl : null;
+        int drawCallsAtStart = 0;
+        int verticesAtStart = 0;
+
+        if (metrics != null) {
+            metrics.beginFrame();
+            if (trackingGL != null) {
+                drawCallsAtStart = trackingGL.getDrawCallCount();
+                verticesAtStart = trackingGL.getVertexCount();
+            }
+        }
+
+        if (mEventMap != mShownEventMap) {
+            onEventMapSwitched(gl);
+        }
+
         if (mSceneSetupRequired) {
             setupScene(gl);
             calculateOffsetBounds();
             mSceneSetupRequired = false;
         }
 
-        // Handle user input
-        if (mClickPoint != null && mEventMap != null && mClickedObjectResultAvailableLatch != null) {
-            Ray ray = new Ray(gl, mScreenWidth, mScreenHeight, mClickPoint.x, mClickPoint.y);
-            mClickedObject = mEventMap.findIntersection(gl, ray);
-            mClickedObjectResultAvailableLatch.countDown();
-        }
-
-        mClickPoint = null;
-        mClickedObjectResultAvailableLatch = null;
-
         // Draw scene
         gl.glClearColor(mClearColor[0], mClearColor[1], mClearColor[2], mClearColor[3]);
         gl.glClear(GL10.GL_COLOR_BUFFER_BIT | GL10.GL_DEPTH_BUFFER_BIT);
@@ -95,9 +142,88 @@ class EventMapRenderer<T extends EventMapFigure> implements GLSurfaceView.Render
 
         gl.glDisable(GL10.GL_DEPTH_TEST);
 
+        if (metrics != null) {
+            metrics.endPhase(FrameMetrics.Phase.SCENE_SETUP);
+        }
+
+        // Handle user input
+        if (mClickPoint != null && mEventMap != null && mClickedObjectResultAvailableLatch != null) {
+            TapTrace trace = mClickTrace;
+            if (trace != null) {
+                trace.mark(TapTrace.Stage.PICK_START);
+                TapTracer.beginSection("EventMap pick");
+            }
+
+            Ray ray = new Ray(gl, mScreenWidth, mScreenHeight, mClickPoint.x, mClickPoint.y);
+            mClickedObject = mEventMap.findIntersection(gl, ray);
+
+            if (trace != null) {
+                TapTracer.endSection();
+                trace.mark(TapTrace.Stage.PICK_END);
+            }
+
+            mClickedObjectResultAvailableLatch.countDown();
+        }
+
+        mClickPoint = null;
+        mClickTrace = null;
+        mClickedObjectResultAvailableLatch = null;
+
+        if (metrics != null) {
+            metrics.endPhase(FrameMetrics.Phase.PICKING);
+        }
+
+        // Charged to the updates of the map drawn next
+        if (mEventMap != null) {
+            RectF prefetchRect = mPrefetchRect.getAndSet(null);
+            if (prefetchRect != null) {
+                mEventMap.prefetch(gl, prefetchRect);
+            }
+        }
+
         if (mEventMap != null) {
-            mEventMap.draw(gl);
+            mEventMap.draw(gl, getVisibleWorldRect(), metrics);
+
+            // Keep frames coming while the map is being loaded or updates are queued
+            if (mEventMap.isLoading() || mEventMap.hasPendingUpdates()) {
+                mView.requestRender();
+            }
+        }
+
+        if (mResourceManager != null) {
+            mResourceManager.trim(mEventMap, gl);
+        }
+
+        if (metrics != null) {
+            metrics.endPhase(FrameMetrics.Phase.RESOURCES);
+            if (trackingGL != null) {
+                metrics.addDrawCalls(trackingGL.getDrawCallCount() - drawCallsAtStart, trackingGL.getVertexCount() - verticesAtStart);
+            }
+            metrics.endFrame();
         }
+
+        if (tapTracer != null) {
+            tapTracer.onFrameDrawn(frameStart);
+        }
+    }
+
+    /**
+     * @return visible world region, or null if the scene is not set up yet
+     */
+    private RectF getVisibleWorldRect() {
+        if (mProjectionWidth == 0 || mProjectionHeight == 0) {
+            return null;
+        }
+
+        // Screen center shows the world point -offset / scale
+        float centerX = -mOffsetX / mScaleFactor;
+        float centerY = -mOffsetY / mScaleFactor;
+        float halfWidth = mProjectionWidth / mScaleFactor / 2.0f;
+        float halfHeight = mProjectionHeight / mScaleFactor / 2.0f;
+
+        // World rectangles have top above bottom
+        mVisibleRect.set(centerX - halfWidth, centerY + halfHeight, centerX + halfWidth, centerY - halfHeight);
+        return mVisibleRect;
     }
 
     private void limitOffsetToBounds() {
@@ -112,6 +238,54 @@ class EventMapRenderer<T extends EventMapFigure> implements GLSurfaceView.Render
         mSceneSetupRequired = true;
     }
 
+    /**
+     * Hands the map shown so far over to the resource manager, or releases it if there's none.
+     */
+    private void onEventMapSwitched(GL10 gl) {
+        if (mResourceManager != null) {
+            mResourceManager.onSwitch(mEventMap, mShownEventMap, gl);
+        } else if (mShownEventMap != null) {
+            mShownEventMap.releaseGLResources(gl);
+        }
+        mShownEventMap = mEventMap;
+    }
+
+    /**
+     * Deletes textures and buffer objects, they're uploaded again by the next frame. Called on the GL thread.
+     */
+    void releaseGLResources() {
+        if (mGL == null) {
+            return;
+        }
+
+        if (mEventMap != null) {
+            mEventMap.releaseGLResources(mGL);
+        }
+        if (mResourceManager != null) {
+            mResourceManager.releaseAll(mGL);
+        }
+        QuadIndexBuffer.release(mGL);
+        GLTextRegistry.release(mGL);
+    }
+
+    /**
+     * Replaces the manager, maps kept by the previous one are released. Called on the GL thread.
+     */
+    void setResourceManager(EventMapResourceManager resourceManager) {
+        if (mResourceManager != null && mResourceManager != resourceManager) {
+            mResourceManager.releaseAll(mGL);
+        }
+        this.mResourceManager = resourceManager;
+    }
+
+    void setFrameMetrics(FrameMetrics metrics) {
+        this.mFrameMetrics = metrics;
+    }
+
+    void setTapTracer(TapTracer tapTracer) {
+        this.mTapTracer = tapTracer;
+    }
+
     void setClearColor(int color) {
         GLUtils.getFloatColorComponents(color, mClearColor);
     }
@@ -149,6 +323,9 @@ class EventMapRenderer<T extends EventMapFigure> implements GLSurfaceView.Render
             gl.glLoadIdentity();
             gl.glOrthof(left, right, bottom, top, zNear, zFar);
 
+            this.mProjectionWidth = right - left;
+            this.mProjectionHeight = top - bottom;
+
             this.mEyeZ = boundingSphereDiameter;
         }
     }
@@ -167,8 +344,12 @@ class EventMapRenderer<T extends EventMapFigure> implements GLSurfaceView.Render
         }
     }
 
-    void onClick(float x, float y, CountDownLatch clickedObjectResultAvailableLatch) {
+    /**
+     * @param trace Trace of the tap, null if taps are not traced
+     */
+    void onClick(float x, float y, CountDownLatch clickedObjectResultAvailableLatch, TapTrace trace) {
         this.mClickPoint = new PointF(x, y);
+        this.mClickTrace = trace;
         this.mClickedObjectResultAvailableLatch = clickedObjectResultAvailableLatch;
     }
 
@@ -182,6 +363,34 @@ class EventMapRenderer<T extends EventMapFigure> implements GLSurfaceView.Render
         calculateOffsetBounds();
     }
 
+    void setScaleFactor(float scaleFactor) {
+        mScaleFactor = Math.max(1.0f, scaleFactor);
+        calculateOffsetBounds();
+    }
+
+    /**
+     * Calculates the scale factor at which the given world rectangle fills the screen.
+     * Returns current scale factor if the scene is not set up yet.
+     */
+    float calculateScaleFactorToFit(RectF worldRect) {
+        float width = Math.abs(worldRect.width());
+        float height = Math.abs(worldRect.height());
+
+        if (mProjectionWidth == 0 || mProjectionHeight == 0 || width == 0 || height == 0) {
+            return mScaleFactor;
+        }
+
+        float scaleFactor = Math.min(mProjectionWidth / width, mProjectionHeight / height);
+        return Math.max(1.0f, scaleFactor);
+    }
+
+    /**
+     * Requests lazily loaded resources covering the given world region to be prepared on the next frame.
+     */
+    void prefetch(RectF worldRect) {
+        mPrefetchRect.set(new RectF(worldRect));
+    }
+
     void setOffset(float offsetX, float offsetY) {
         this.mOffsetX = offsetX;
         this.mOffsetY = offsetY;
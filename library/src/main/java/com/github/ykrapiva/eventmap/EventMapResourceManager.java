@@ -0,0 +1,111 @@
+package com.github.ykrapiva.eventmap;
+
+import javax.microedition.khronos.opengles.GL10;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps textures and buffer objects of event maps shown in an {@link EventMapView} before, so that switching back
+ * to a recently shown map takes no uploads. Once they take more than the budget, together with the map shown now,
+ * the least recently shown maps are released. Those keep what they're uploaded from, so showing them again
+ * is a straight upload without laying seats out.
+ * <p/>
+ * Set with {@link EventMapView#setResourceManager(EventMapResourceManager)} before showing maps.
+ * A map is shown in one view at a time.
+ */
+public class EventMapResourceManager {
+    private static class Entry {
+        final EventMap<?> eventMap;
+        // Bytes the map held when it was hidden, they don't change until it's shown again
+        final long bytes;
+
+        Entry(EventMap<?> eventMap, long bytes) {
+            this.eventMap = eventMap;
+            this.bytes = bytes;
+        }
+    }
+
+    private volatile long mBudgetBytes;
+
+    // Hidden maps which are still uploaded, least recently shown first, GL thread only
+    private final List<Entry> mEntries = new ArrayList<Entry>();
+    private long mHiddenBytes;
+
+    /**
+     * @param budgetBytes Bytes of textures and buffer objects the maps may keep, including the map shown now
+     */
+    public EventMapResourceManager(long budgetBytes) {
+        setBudget(budgetBytes);
+    }
+
+    public void setBudget(long budgetBytes) {
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + budgetBytes);
+        }
+        this.mBudgetBytes = budgetBytes;
+    }
+
+    public long getBudget() {
+        return mBudgetBytes;
+    }
+
+    /**
+     * Called by the renderer when the view switches to another map.
+     *
+     * @param shown  Map shown from now on, may be null
+     * @param hidden Map shown so far, may be null
+     */
+    void onSwitch(EventMap<?> shown, EventMap<?> hidden, GL10 gl) {
+        if (shown != null) {
+            remove(shown);
+        }
+        if (hidden != null) {
+            Entry entry = new Entry(hidden, hidden.getGLResourceBytes());
+            mEntries.add(entry);
+            mHiddenBytes += entry.bytes;
+        }
+
+        trim(shown, gl);
+    }
+
+    /**
+     * Releases the least recently shown maps until all of them fit into the budget.
+     * Called by the renderer after drawing, as the map shown grows when new parts of it are drawn.
+     */
+    void trim(EventMap<?> shown, GL10 gl) {
+        if (mEntries.isEmpty()) {
+            return;
+        }
+
+        long shownBytes = shown != null ? shown.getGLResourceBytes() : 0;
+        while (!mEntries.isEmpty() && mHiddenBytes + shownBytes > mBudgetBytes) {
+            Entry entry = mEntries.remove(0);
+            mHiddenBytes -= entry.bytes;
+            entry.eventMap.releaseGLResources(gl);
+        }
+    }
+
+    /**
+     * Releases all the hidden maps, e.g. before the context goes away.
+     *
+     * @param gl GL of the context, null if it's lost and resources are just forgotten
+     */
+    void releaseAll(GL10 gl) {
+        for (Entry entry : mEntries) {
+            entry.eventMap.releaseGLResources(gl);
+        }
+        mEntries.clear();
+        mHiddenBytes = 0;
+    }
+
+    private void remove(EventMap<?> eventMap) {
+        for (int i = 0; i < mEntries.size(); i++) {
+            Entry entry = mEntries.get(i);
+            if (entry.eventMap == eventMap) {
+                mEntries.remove(i);
+                mHiddenBytes -= entry.bytes;
+                return;
+            }
+        }
+    }
+}
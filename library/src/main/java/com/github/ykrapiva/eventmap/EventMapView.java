@@ -1,7 +1,9 @@
 package com.github.ykrapiva.eventmap;
 
 import android.animation.ValueAnimator;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.graphics.RectF;
 import android.opengl.GLSurfaceView;
 import android.os.Build;
 import android.util.AttributeSet;
@@ -18,15 +20,36 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
     private static final String TAG = EventMapView.class.getSimpleName();
 
     private static final float FLING_VELOCITY_DOWNSCALE = 1.0f;
+    private static final long CAMERA_ANIMATION_DURATION = 500;
+    // How many figure sizes are shown around a figure we zoom to
+    private static final float FIGURE_ZOOM_CONTEXT = 4.0f;
 
     private EventMapRenderer<T> mRenderer;
     private GestureDetector mGestureDetector;
     private ScaleGestureDetector mScaleDetector;
     private Scroller mScroller;
     private ValueAnimator mScrollAnimator;
+    private ValueAnimator mCameraAnimator;
     private EventMap<T> mEventMap;
     private EventMapSeatTouchListener<T> mSeatTouchListener;
     private T lastSeatPressed;
+    private FrameMetrics mFrameMetrics;
+    private TapTracer mTapTracer;
+    private EventMapResourceManager mResourceManager;
+    private boolean mPreserveEGLContextOnPause;
+    private boolean mPaused;
+
+    // GL thread only: the GL of the current context and its wrapper
+    private GL mWrappedGL;
+    private MatrixTrackingGL mTrackingGL;
+
+    // Lets queued seat updates wake up the renderer, may be called from any thread
+    private final Runnable mRenderRequest = new Runnable() {
+        @Override
+        public void run() {
+            requestRender();
+        }
+    };
 
     public EventMapView(Context context) {
         super(context);
@@ -41,13 +64,19 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
     private void init() {
         mGestureDetector = new GestureDetector(getContext(), new GestureListener());
         mScaleDetector = new ScaleGestureDetector(getContext(), new ScaleListener());
-        mRenderer = new EventMapRenderer<T>();
+        mRenderer = new EventMapRenderer<T>(this);
 
         setRenderer(mRenderer);
         setRenderMode(GLSurfaceView.RENDERMODE_WHEN_DIRTY);
         setGLWrapper(new GLSurfaceView.GLWrapper() {
             public GL wrap(GL gl) {
-                return new MatrixTrackingGL(gl);
+                // Asked for whenever the surface is created, and a preserved context comes back with the same GL.
+                // Keeping the same wrapper for it tells the event map its textures and buffer objects are still there.
+                if (gl != mWrappedGL) {
+                    mWrappedGL = gl;
+                    mTrackingGL = new MatrixTrackingGL(gl);
+                }
+                return mTrackingGL;
             }
         });
 
@@ -78,17 +107,68 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
         }
     }
 
+    /**
+     * Starts collecting per-frame metrics into the given object, or stops if it's null.
+     * Nothing is measured while metrics are not set.
+     */
+    public void setFrameMetrics(FrameMetrics metrics) {
+        mFrameMetrics = metrics;
+        mRenderer.setFrameMetrics(metrics);
+    }
+
+    public FrameMetrics getFrameMetrics() {
+        return mFrameMetrics;
+    }
+
+    /**
+     * Starts tracing seat taps with the given tracer, or stops if it's null.
+     */
+    public void setTapTracer(TapTracer tapTracer) {
+        mTapTracer = tapTracer;
+        mRenderer.setTapTracer(tapTracer);
+    }
+
+    public TapTracer getTapTracer() {
+        return mTapTracer;
+    }
+
     public void setClickListener(EventMapSeatTouchListener<T> mClickListener) {
         this.mSeatTouchListener = mClickListener;
     }
 
-    public void updateSeatColor(T seat) {
-        if (mEventMap != null) {
-            mEventMap.updateColor(seat);
+    /**
+     * Picks up the seat's color and title. They're written into seat vertices on the GL thread,
+     * which lays seats out and uploads them, before the next frame.
+     */
+    public void updateSeatColor(final T seat) {
+        final EventMap<T> eventMap = mEventMap;
+        if (eventMap != null) {
+            queueEvent(new Runnable() {
+                @Override
+                public void run() {
+                    eventMap.updateColor(seat);
+                }
+            });
             requestRender();
         }
     }
 
+    /**
+     * Same as {@link #updateSeatColor(EventMapFigure)} for the seat with the id, see {@link EventMap#setKeyExtractor(EventMap.KeyExtractor)}.
+     *
+     * @return seat to be updated or null if there's no seat with the id
+     */
+    public T updateSeatById(long id) {
+        T seat = null;
+        if (mEventMap != null) {
+            seat = mEventMap.findById(id);
+            if (seat != null) {
+                updateSeatColor(seat);
+            }
+        }
+        return seat;
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         boolean scaleResult = mScaleDetector.onTouchEvent(event);
@@ -133,6 +213,13 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
     }
 
     public void setEventMap(EventMap<T> eventMap) {
+        if (mEventMap != null) {
+            mEventMap.setRenderRequest(null);
+        }
+        if (eventMap != null) {
+            eventMap.setRenderRequest(mRenderRequest);
+        }
+
         mEventMap = eventMap;
         mRenderer.setEventMap(mEventMap);
         requestRender();
@@ -142,10 +229,163 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
         return mEventMap;
     }
 
+    /**
+     * Keeps maps replaced by {@link #setEventMap(EventMap)} uploaded within the manager's budget,
+     * so that switching back to them is instant. Without a manager a replaced map is released right away.
+     * Maps kept by the previous manager are released.
+     */
+    public void setResourceManager(final EventMapResourceManager resourceManager) {
+        mResourceManager = resourceManager;
+        queueEvent(new Runnable() {
+            @Override
+            public void run() {
+                mRenderer.setResourceManager(resourceManager);
+            }
+        });
+    }
+
+    public EventMapResourceManager getResourceManager() {
+        return mResourceManager;
+    }
+
+    /**
+     * Keeps the GL context while paused, so that resuming shows the map without uploading it again.
+     * Takes effect on API 11 and newer. A context lost anyway, e.g. on devices which can't keep it,
+     * is detected and the map is uploaded again from the data it keeps.
+     * <p/>
+     * Textures and buffer objects stay in GPU memory while paused, see {@link #onTrimMemory(int)}.
+     */
+    @Override
+    public void setPreserveEGLContextOnPause(boolean preserveOnPause) {
+        mPreserveEGLContextOnPause = preserveOnPause;
+        if (Build.VERSION.SDK_INT >= 11) {
+            super.setPreserveEGLContextOnPause(preserveOnPause);
+        }
+    }
+
+    /**
+     * Releases textures and buffer objects before the GL context goes away, see {@link EventMap#releaseGLResources(javax.microedition.khronos.opengles.GL10)}.
+     * Nothing is released if the context is {@link #setPreserveEGLContextOnPause(boolean) preserved}.
+     */
+    @Override
+    public void onPause() {
+        if (!mPreserveEGLContextOnPause) {
+            // Queued events are run before the GL thread pauses
+            releaseGLResources();
+        }
+        mPaused = true;
+        super.onPause();
+    }
+
+    @Override
+    public void onResume() {
+        mPaused = false;
+        super.onResume();
+    }
+
+    /**
+     * Call from {@link android.app.Activity#onTrimMemory(int)} or the application's one.
+     * Textures and buffer objects of a running map are released when memory runs critically low,
+     * the map keeps what they're uploaded from and restores them when it's drawn next.
+     * A paused map has released them on pause, unless its context is preserved: then they're kept,
+     * as the context isn't current until resumed.
+     */
+    public void onTrimMemory(int level) {
+        if (!mPaused && level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            releaseGLResources();
+        }
+    }
+
+    private void releaseGLResources() {
+        queueEvent(new Runnable() {
+            @Override
+            public void run() {
+                mRenderer.releaseGLResources();
+            }
+        });
+    }
+
     public float getScaleFactor() {
         return mRenderer.getScaleFactor();
     }
 
+    /**
+     * Smoothly moves the camera so that the given figure is centered and zoomed in.
+     */
+    public void animateTo(T figure) {
+        RectF rect = new RectF(figure.getRect());
+        float dx = Math.abs(rect.width()) * (FIGURE_ZOOM_CONTEXT - 1) / 2.0f;
+        float dy = Math.abs(rect.height()) * (FIGURE_ZOOM_CONTEXT - 1) / 2.0f;
+        rect.set(rect.left - dx, rect.top - dy, rect.right + dx, rect.bottom + dy);
+        animateTo(rect);
+    }
+
+    /**
+     * Smoothly moves the camera so that the given rectangle (in event map coordinates) fills the view.
+     */
+    public void animateTo(RectF rect) {
+        animateTo(rect, CAMERA_ANIMATION_DURATION);
+    }
+
+    /**
+     * Moves the camera so that the given rectangle (in event map coordinates) fills the view.
+     * Resources needed to display the destination are prepared while the animation runs.
+     *
+     * @param rect           Destination rectangle in event map coordinates
+     * @param durationMillis Animation duration, the camera jumps immediately if 0
+     */
+    public void animateTo(RectF rect, long durationMillis) {
+        if (mEventMap == null) {
+            return;
+        }
+
+        stopScrolling();
+        cancelCameraAnimation();
+
+        RectF worldRect = mEventMap.toWorldRect(rect);
+
+        final float startScale = mRenderer.getScaleFactor();
+        final float endScale = mRenderer.calculateScaleFactorToFit(worldRect);
+        final float startCenterX = -mRenderer.getOffsetX() / startScale;
+        final float startCenterY = -mRenderer.getOffsetY() / startScale;
+        final float endCenterX = worldRect.centerX();
+        final float endCenterY = worldRect.centerY();
+
+        mRenderer.prefetch(worldRect);
+
+        if (Build.VERSION.SDK_INT < 11 || durationMillis <= 0) {
+            setCamera(endScale, endCenterX, endCenterY);
+            return;
+        }
+
+        mCameraAnimator = ValueAnimator.ofFloat(0, 1);
+        mCameraAnimator.setDuration(durationMillis);
+        mCameraAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            public void onAnimationUpdate(ValueAnimator valueAnimator) {
+                float fraction = valueAnimator.getAnimatedFraction();
+                // Zoom geometrically so that the zoom speed looks constant
+                float scale = (float) (startScale * Math.pow(endScale / startScale, fraction));
+                float centerX = startCenterX + (endCenterX - startCenterX) * fraction;
+                float centerY = startCenterY + (endCenterY - startCenterY) * fraction;
+                setCamera(scale, centerX, centerY);
+            }
+        });
+        mCameraAnimator.start();
+    }
+
+    private void setCamera(float scaleFactor, float centerX, float centerY) {
+        mRenderer.setScaleFactor(scaleFactor);
+        mRenderer.setOffset(-centerX * scaleFactor, -centerY * scaleFactor);
+        requestRender();
+    }
+
+    private void cancelCameraAnimation() {
+        if (mCameraAnimator != null) {
+            mCameraAnimator.cancel();
+            mCameraAnimator = null;
+        }
+    }
+
     private void tickScrollAnimation() {
         if (!mScroller.isFinished()) {
             mScroller.computeScrollOffset();
@@ -180,6 +420,55 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
     }
 
 
+    /**
+     * Finds the seat under the touch on the GL thread and waits for the result.
+     */
+    private T pickSeat(MotionEvent e, final TapTrace trace) throws InterruptedException {
+        final CountDownLatch clickResultReadyLatch = new CountDownLatch(1);
+
+        int[] location = new int[2];
+
+        getLocationOnScreen(location);
+        float rawX = e.getRawX();
+        float rawY = e.getRawY();
+        final float x = rawX - location[0];
+        final float y = rawY - location[1];
+
+        queueEvent(new Runnable() {
+            @Override
+            public void run() {
+                mRenderer.onClick(x, y, clickResultReadyLatch, trace);
+            }
+        });
+
+        requestRender();
+
+        clickResultReadyLatch.await();
+        return mRenderer.getClickedObject();
+    }
+
+    private void onSeatPicked(T seat, boolean press, TapTracer tapTracer, TapTrace trace) {
+        if (trace != null) {
+            trace.mark(TapTrace.Stage.CALLBACK_START);
+            TapTracer.beginSection("EventMap seat callback");
+        }
+
+        if (press) {
+            notifyOnSeatPressed(seat);
+        } else {
+            notifyOnSeatClicked(seat);
+        }
+
+        if (trace != null) {
+            TapTracer.endSection();
+            trace.mark(TapTrace.Stage.CALLBACK_END);
+
+            // The trace ends with a frame drawn after the listener, even if it changed nothing
+            tapTracer.awaitFrame(trace);
+            requestRender();
+        }
+    }
+
     private class GestureListener extends GestureDetector.SimpleOnGestureListener {
         @Override
         public boolean onScroll(MotionEvent e1, MotionEvent e2, final float distanceX, final float distanceY) {
@@ -205,6 +494,8 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
                 stopScrolling();
             }
 
+            cancelCameraAnimation();
+
 //            Log.v(TAG, "onDown()");
 
             return true;
@@ -214,61 +505,43 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
         public void onShowPress(MotionEvent e) {
 //            Log.v(TAG, "onShowPress()");
 
-            final CountDownLatch clickResultReadyLatch = new CountDownLatch(1);
-
-            int[] location = new int[2];
-
-            getLocationOnScreen(location);
-            float rawX = e.getRawX();
-            float rawY = e.getRawY();
-            final float x = rawX - location[0];
-            final float y = rawY - location[1];
-
-            queueEvent(new Runnable() {
-                @Override
-                public void run() {
-                    mRenderer.onClick(x, y, clickResultReadyLatch);
-                }
-            });
-
-            requestRender();
+            TapTracer tapTracer = mTapTracer;
+            TapTrace trace = null;
+            if (tapTracer != null) {
+                trace = tapTracer.begin(true, e.getEventTime());
+                TapTracer.beginSection("EventMap tap");
+            }
 
             try {
-                clickResultReadyLatch.await();
-                T seat = mRenderer.getClickedObject();
-                notifyOnSeatPressed(seat);
+                T seat = pickSeat(e, trace);
+                onSeatPicked(seat, true, tapTracer, trace);
             } catch (InterruptedException e1) {
                 // ignore
+            } finally {
+                if (trace != null) {
+                    TapTracer.endSection();
+                }
             }
         }
 
         @Override
         public boolean onSingleTapUp(final MotionEvent e) {
-            final CountDownLatch clickResultReadyLatch = new CountDownLatch(1);
-
-            int[] location = new int[2];
-
-            getLocationOnScreen(location);
-            float rawX = e.getRawX();
-            float rawY = e.getRawY();
-            final float x = rawX - location[0];
-            final float y = rawY - location[1];
-
-            queueEvent(new Runnable() {
-                @Override
-                public void run() {
-                    mRenderer.onClick(x, y, clickResultReadyLatch);
-                }
-            });
-
-            requestRender();
+            TapTracer tapTracer = mTapTracer;
+            TapTrace trace = null;
+            if (tapTracer != null) {
+                trace = tapTracer.begin(false, e.getEventTime());
+                TapTracer.beginSection("EventMap tap");
+            }
 
             try {
-                clickResultReadyLatch.await();
-                T seat = mRenderer.getClickedObject();
-                notifyOnSeatClicked(seat);
+                T seat = pickSeat(e, trace);
+                onSeatPicked(seat, false, tapTracer, trace);
             } catch (InterruptedException e1) {
                 // ignore
+            } finally {
+                if (trace != null) {
+                    TapTracer.endSection();
+                }
             }
 
             return true;
@@ -304,6 +577,7 @@ public class EventMapView<T extends EventMapFigure> extends GLSurfaceView {
         @Override
         public boolean onScale(final ScaleGestureDetector detector) {
             final float scaleFactor = detector.getScaleFactor();
+            cancelCameraAnimation();
             mRenderer.onScale(scaleFactor);
             requestRender();
             return true;
@@ -0,0 +1,226 @@
+package com.github.ykrapiva.eventmap;
+
+import android.os.Debug;
+
+/**
+ * Per-frame cost of drawing an event map, aggregated into histograms.
+ * Enable with {@link EventMapView#setFrameMetrics(FrameMetrics)}, then either poll the getters,
+ * which return copies and may be called from any thread, or set a {@link Listener}.
+ * <p/>
+ * Times are in microseconds. Draw calls and vertices are counted by the GL wrapper of {@link EventMapView}.
+ */
+public class FrameMetrics {
+    public static final int DEFAULT_REPORT_INTERVAL = 120;
+
+    /**
+     * Parts of a frame, in the order they're drawn
+     */
+    public enum Phase {
+        /**
+         * Projection, camera and clearing
+         */
+        SCENE_SETUP,
+        /**
+         * Finding the seat under a tap, if there was one
+         */
+        PICKING,
+        /**
+         * Queued seat updates and prefetching of the region about to be shown
+         */
+        UPDATES,
+        BACKGROUND,
+        /**
+         * Seat loading and seat geometry
+         */
+        SEATS,
+        /**
+         * Seat titles, and state restored at the end of the frame
+         */
+        CAPTIONS,
+        /**
+         * Releasing maps over the limits of the resource manager
+         */
+        RESOURCES
+    }
+
+    public interface Listener {
+        /**
+         * Called on the GL thread every {@link #setReportInterval(int) report interval} frames, must not block.
+         */
+        void onFrameMetrics(FrameMetrics metrics);
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    // Current frame, GL thread only
+    private final long[] mPhaseNanos = new long[PHASES.length];
+    private long mFrameStart;
+    private long mPhaseStart;
+    private int mDrawCalls;
+    private int mVertices;
+    private int mUploadedBytes;
+    private int mAllocationsAtStart;
+
+    // Aggregates, guarded by this
+    private final Histogram mFrameTimes = new Histogram();
+    private final Histogram[] mPhaseTimes = new Histogram[PHASES.length];
+    private final Histogram mDrawCallCounts = new Histogram();
+    private final Histogram mVertexCounts = new Histogram();
+    private final Histogram mUploadedByteCounts = new Histogram();
+    private final Histogram mAllocationCounts = new Histogram();
+
+    private volatile Listener mListener;
+    private volatile int mReportInterval = DEFAULT_REPORT_INTERVAL;
+    private volatile boolean mAllocationCounting;
+    private int mFramesSinceReport;
+
+    public FrameMetrics() {
+        for (int i = 0; i < PHASES.length; i++) {
+            mPhaseTimes[i] = new Histogram();
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    public void setReportInterval(int frames) {
+        if (frames <= 0) {
+            throw new IllegalArgumentException("Report interval must be positive: " + frames);
+        }
+        this.mReportInterval = frames;
+    }
+
+    /**
+     * Counts objects allocated by the GL thread per frame with {@link Debug#startAllocCounting()}.
+     * Allocation counting is process wide and slows allocations down, so it's off by default.
+     */
+    public void setAllocationCountingEnabled(boolean enabled) {
+        if (enabled == mAllocationCounting) {
+            return;
+        }
+
+        if (enabled) {
+            Debug.startAllocCounting();
+        } else {
+            Debug.stopAllocCounting();
+        }
+        mAllocationCounting = enabled;
+    }
+
+    public synchronized Histogram getFrameTimes() {
+        return new Histogram(mFrameTimes);
+    }
+
+    public synchronized Histogram getPhaseTimes(Phase phase) {
+        return new Histogram(mPhaseTimes[phase.ordinal()]);
+    }
+
+    public synchronized Histogram getDrawCallCounts() {
+        return new Histogram(mDrawCallCounts);
+    }
+
+    public synchronized Histogram getVertexCounts() {
+        return new Histogram(mVertexCounts);
+    }
+
+    /**
+     * @return bytes of seat geometry uploaded into buffer objects per frame
+     */
+    public synchronized Histogram getUploadedByteCounts() {
+        return new Histogram(mUploadedByteCounts);
+    }
+
+    /**
+     * @return objects allocated by the GL thread per frame, empty unless allocation counting is enabled
+     */
+    public synchronized Histogram getAllocationCounts() {
+        return new Histogram(mAllocationCounts);
+    }
+
+    public synchronized void reset() {
+        mFrameTimes.reset();
+        for (Histogram histogram : mPhaseTimes) {
+            histogram.reset();
+        }
+        mDrawCallCounts.reset();
+        mVertexCounts.reset();
+        mUploadedByteCounts.reset();
+        mAllocationCounts.reset();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("frame: ").append(mFrameTimes);
+        for (int i = 0; i < PHASES.length; i++) {
+            sb.append(", ").append(PHASES[i].name().toLowerCase()).append(": ").append(mPhaseTimes[i]);
+        }
+        sb.append(", draw calls: ").append(mDrawCallCounts);
+        sb.append(", vertices: ").append(mVertexCounts);
+        sb.append(", uploaded bytes: ").append(mUploadedByteCounts);
+        if (mAllocationCounts.getCount() > 0) {
+            sb.append(", allocations: ").append(mAllocationCounts);
+        }
+        return sb.toString();
+    }
+
+    void beginFrame() {
+        for (int i = 0; i < PHASES.length; i++) {
+            mPhaseNanos[i] = 0;
+        }
+        mDrawCalls = 0;
+        mVertices = 0;
+        mUploadedBytes = 0;
+
+        if (mAllocationCounting) {
+            mAllocationsAtStart = Debug.getThreadAllocCount();
+        }
+
+        mFrameStart = System.nanoTime();
+        mPhaseStart = mFrameStart;
+    }
+
+    /**
+     * Attributes the time since the end of the previous phase, or the frame start, to the phase.
+     */
+    void endPhase(Phase phase) {
+        long now = System.nanoTime();
+        mPhaseNanos[phase.ordinal()] += now - mPhaseStart;
+        mPhaseStart = now;
+    }
+
+    void addDrawCalls(int drawCalls, int vertices) {
+        mDrawCalls += drawCalls;
+        mVertices += vertices;
+    }
+
+    void addUploadedBytes(int bytes) {
+        mUploadedBytes += bytes;
+    }
+
+    void endFrame() {
+        long frameNanos = System.nanoTime() - mFrameStart;
+        boolean allocationCounting = mAllocationCounting;
+        int allocations = allocationCounting ? Debug.getThreadAllocCount() - mAllocationsAtStart : 0;
+
+        synchronized (this) {
+            mFrameTimes.record(frameNanos / 1000);
+            for (int i = 0; i < PHASES.length; i++) {
+                mPhaseTimes[i].record(mPhaseNanos[i] / 1000);
+            }
+            mDrawCallCounts.record(mDrawCalls);
+            mVertexCounts.record(mVertices);
+            mUploadedByteCounts.record(mUploadedBytes);
+            if (allocationCounting) {
+                mAllocationCounts.record(allocations);
+            }
+        }
+
+        Listener listener = mListener;
+        if (listener != null && ++mFramesSinceReport >= mReportInterval) {
+            mFramesSinceReport = 0;
+            listener.onFrameMetrics(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.ykrapiva.eventmap;
+
+/**
+ * Histogram of non-negative values with log-linear buckets, so percentiles are within about 3% of exact values.
+ * Recording neither allocates nor takes locks, it's up to the owner to synchronize access.
+ */
+public class Histogram {
+    // Values below are counted exactly, above them every power of two range is split into SUB_BUCKETS buckets
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int NUM_BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final int[] mCounts = new int[NUM_BUCKETS];
+    private long mCount;
+    private long mSum;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    public Histogram() {
+    }
+
+    public Histogram(Histogram other) {
+        System.arraycopy(other.mCounts, 0, mCounts, 0, NUM_BUCKETS);
+        mCount = other.mCount;
+        mSum = other.mSum;
+        mMin = other.mMin;
+        mMax = other.mMax;
+    }
+
+    /**
+     * @param value Value to add, negative values are counted as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+
+        mCounts[bucketOf(value)]++;
+        mCount++;
+        mSum += value;
+        mMin = Math.min(mMin, value);
+        mMax = Math.max(mMax, value);
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getMin() {
+        return mCount > 0 ? mMin : 0;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public double getMean() {
+        return mCount > 0 ? mSum / (double) mCount : 0;
+    }
+
+    /**
+     * @param percentile Percentile from 0 to 100, e.g. 99
+     * @return value below or at which the given percentage of values lie, 0 if nothing is recorded
+     */
+    public long getPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(mCount * Math.min(100, Math.max(0, percentile)) / 100.0);
+        rank = Math.max(1, rank);
+
+        long seen = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            seen += mCounts[bucket];
+            if (seen >= rank) {
+                return Math.min(mMax, Math.max(mMin, highestValueOf(bucket)));
+            }
+        }
+
+        return mMax;
+    }
+
+    public void reset() {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            mCounts[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "p50=" + getPercentile(50) + " p95=" + getPercentile(95) + " p99=" + getPercentile(99) + " max=" + getMax() + " n=" + getCount();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        // Top SUB_BUCKET_BITS + 1 bits select the bucket within the power of two range
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
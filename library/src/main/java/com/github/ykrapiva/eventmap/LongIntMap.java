@@ -0,0 +1,124 @@
+package com.github.ykrapiva.eventmap;
+
+/**
+ * Open addressing hash map from long keys to non-negative int values, with linear probing.
+ * Keys and values are kept in primitive arrays, so lookups neither box nor allocate.
+ */
+class LongIntMap {
+    static final int NO_VALUE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] mKeys = new long[INITIAL_CAPACITY];
+    // Value + 1 per slot, 0 marks a free slot
+    private int[] mValues = new int[INITIAL_CAPACITY];
+    private int mSize;
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * @return value of the key, or {@link #NO_VALUE}
+     */
+    int get(long key) {
+        int mask = mKeys.length - 1;
+        for (int slot = hash(key) & mask; mValues[slot] != 0; slot = (slot + 1) & mask) {
+            if (mKeys[slot] == key) {
+                return mValues[slot] - 1;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * @param value Non-negative value, replaces the previous one of the key
+     */
+    void put(long key, int value) {
+        // Keep load factor under 1/2
+        if ((mSize + 1) * 2 > mKeys.length) {
+            rehash(mKeys.length * 2);
+        }
+
+        int mask = mKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (mValues[slot] != 0) {
+            if (mKeys[slot] == key) {
+                mValues[slot] = value + 1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        mKeys[slot] = key;
+        mValues[slot] = value + 1;
+        mSize++;
+    }
+
+    void remove(long key) {
+        int mask = mKeys.length - 1;
+        int hole = hash(key) & mask;
+        while (mValues[hole] != 0 && mKeys[hole] != key) {
+            hole = (hole + 1) & mask;
+        }
+
+        if (mValues[hole] == 0) {
+            return;
+        }
+
+        // Shift back entries of the probe sequence which can't be found past the hole anymore
+        for (int slot = (hole + 1) & mask; mValues[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hash(mKeys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                mKeys[hole] = mKeys[slot];
+                mValues[hole] = mValues[slot];
+                hole = slot;
+            }
+        }
+
+        mValues[hole] = 0;
+        mSize--;
+    }
+
+    void ensureCapacity(int size) {
+        int capacity = mKeys.length;
+        while (size * 2 > capacity) {
+            capacity *= 2;
+        }
+        if (capacity != mKeys.length) {
+            rehash(capacity);
+        }
+    }
+
+    void clear() {
+        mKeys = new long[INITIAL_CAPACITY];
+        mValues = new int[INITIAL_CAPACITY];
+        mSize = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] keys = mKeys;
+        int[] values = mValues;
+
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != 0) {
+                int slot = hash(keys[i]) & mask;
+                while (mValues[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                mKeys[slot] = keys[i];
+                mValues[slot] = values[i];
+            }
+        }
+    }
+
+    // Ids are often sequential, spread them over the table
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
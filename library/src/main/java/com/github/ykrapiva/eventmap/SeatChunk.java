@@ -0,0 +1,253 @@
+package com.github.ykrapiva.eventmap;
+
+import android.graphics.Color;
+import android.graphics.RectF;
+import com.github.ykrapiva.eventmap.gl.QuadIndexBuffer;
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
+
+import javax.microedition.khronos.opengles.GL11;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Geometry of spatially close seats, drawn with a single call.
+ * <p/>
+ * Vertices are interleaved: x, y as floats, color as 4 unsigned bytes (RGBA), u, v as floats.
+ * Where OpenGL ES 1.1 is available they're also kept in a buffer object, color changes are uploaded
+ * as spans of changed seats.
+ */
+class SeatChunk {
+    // Seats are drawn as quads indexed by the shared index buffer
+    static final int MAX_SEATS = QuadIndexBuffer.MAX_QUADS;
+
+    static final int NUM_VERTICES_PER_SEAT = 4;
+    static final int POSITION_OFFSET = 0;
+    static final int COLOR_OFFSET = 8;
+    static final int TEXTURE_OFFSET = 12;
+    static final int VERTEX_STRIDE = 20;
+    static final int SEAT_STRIDE = VERTEX_STRIDE * NUM_VERTICES_PER_SEAT;
+
+    // Changed seats this close are uploaded as one span, an upload call costs more than a few unchanged seats
+    private static final int MAX_SPAN_GAP = 8;
+
+    // Seat store indices of the chunk's seats, in vertex data order
+    final int[] seats;
+    final int numSeats;
+
+    // World bounds of the chunk's seats
+    float minX;
+    float minY;
+    float maxX;
+    float maxY;
+
+    ByteBuffer vertexData;
+
+    // Set on the GL thread once vertex data is generated
+    boolean ready;
+    // Colors changed while vertex data was being generated
+    volatile boolean colorsDirty;
+
+    // Buffer object with a copy of vertex data, -1 if there's none
+    int bufferId = -1;
+
+    // Direct vertex data bytes reported to ResourceAccounting, and whether the chunk has been dropped
+    private int mAccountedBytes;
+    private boolean mReleased;
+
+    // Seats changed since vertex data was uploaded, one bit per seat, and the range they're in
+    private long[] mDirtySeats;
+    private int mFirstDirtySeat = Integer.MAX_VALUE;
+    private int mLastDirtySeat = -1;
+
+    SeatChunk(int[] seats) {
+        this.seats = seats;
+        this.numSeats = seats.length;
+    }
+
+    /**
+     * Allocates direct vertex data for all the seats, may be called from any thread.
+     */
+    synchronized void allocateVertexData() {
+        vertexData = ByteBuffer.allocateDirect(SEAT_STRIDE * numSeats).order(ByteOrder.nativeOrder());
+
+        // A worker may still be filling a chunk which has already been dropped
+        if (!mReleased) {
+            mAccountedBytes = vertexData.capacity();
+            ResourceAccounting.allocated(ResourceAccounting.Kind.DIRECT_BUFFER, mAccountedBytes);
+        }
+    }
+
+    /**
+     * Reports vertex data which wasn't allocated with {@link #allocateVertexData()}, e.g. mapped from
+     * the geometry cache, to ResourceAccounting. Called once the chunk is taken into use.
+     */
+    synchronized void accountVertexData() {
+        if (!mReleased && mAccountedBytes == 0) {
+            mAccountedBytes = vertexData.capacity();
+            ResourceAccounting.allocated(ResourceAccounting.Kind.DIRECT_BUFFER, mAccountedBytes);
+        }
+    }
+
+    /**
+     * Called when the chunk is dropped, its direct vertex data is freed once the chunk is garbage collected.
+     */
+    synchronized void releaseVertexData() {
+        mReleased = true;
+
+        if (mAccountedBytes != 0) {
+            ResourceAccounting.released(ResourceAccounting.Kind.DIRECT_BUFFER, mAccountedBytes);
+            mAccountedBytes = 0;
+        }
+    }
+
+    /**
+     * Writes one vertex of a seat.
+     */
+    void putVertex(int seat, int vertex, float x, float y, int color, float u, float v) {
+        int offset = seat * SEAT_STRIDE + vertex * VERTEX_STRIDE;
+        vertexData.putFloat(offset + POSITION_OFFSET, x);
+        vertexData.putFloat(offset + POSITION_OFFSET + 4, y);
+        putColor(offset + COLOR_OFFSET, color);
+        vertexData.putFloat(offset + TEXTURE_OFFSET, u);
+        vertexData.putFloat(offset + TEXTURE_OFFSET + 4, v);
+    }
+
+    void setColor(int seat, int color) {
+        for (int vertex = 0; vertex < NUM_VERTICES_PER_SEAT; vertex++) {
+            putColor(seat * SEAT_STRIDE + vertex * VERTEX_STRIDE + COLOR_OFFSET, color);
+        }
+
+        // Marked even without a buffer object, as one may be being created on the GL thread
+        markDirty(seat);
+    }
+
+    /**
+     * Creates the buffer object and uploads vertex data into it. The buffer is left bound.
+     *
+     * @return number of bytes uploaded
+     */
+    synchronized int createBuffer(GL11 gl11) {
+        int[] buffers = new int[1];
+        gl11.glGenBuffers(1, buffers, 0);
+        bufferId = buffers[0];
+
+        gl11.glBindBuffer(GL11.GL_ARRAY_BUFFER, bufferId);
+        vertexData.position(0);
+        gl11.glBufferData(GL11.GL_ARRAY_BUFFER, vertexData.capacity(), vertexData, GL11.GL_DYNAMIC_DRAW);
+        ResourceAccounting.allocated(ResourceAccounting.Kind.BUFFER_OBJECT, vertexData.capacity());
+
+        clearDirty();
+        return vertexData.capacity();
+    }
+
+    /**
+     * Uploads spans of changed seats into the bound buffer object, merging spans which are close to each other.
+     *
+     * @return number of bytes uploaded
+     */
+    synchronized int uploadDirtySpans(GL11 gl11) {
+        if (mLastDirtySeat == -1) {
+            return 0;
+        }
+
+        int uploaded = 0;
+        int spanStart = -1;
+        int spanEnd = -1;
+
+        for (int seat = mFirstDirtySeat; seat <= mLastDirtySeat; seat++) {
+            if ((mDirtySeats[seat >> 6] & (1L << seat)) == 0) {
+                continue;
+            }
+
+            if (spanStart != -1 && seat - spanEnd > MAX_SPAN_GAP) {
+                uploaded += uploadSpan(gl11, spanStart, spanEnd);
+                spanStart = -1;
+            }
+
+            if (spanStart == -1) {
+                spanStart = seat;
+            }
+            spanEnd = seat;
+        }
+
+        uploaded += uploadSpan(gl11, spanStart, spanEnd);
+
+        clearDirty();
+        return uploaded;
+    }
+
+    /**
+     * Deletes the buffer object, vertex data is kept.
+     *
+     * @param gl11 GL of the context the buffer was created in, null if the context is lost
+     */
+    synchronized void deleteBuffer(GL11 gl11) {
+        if (bufferId != -1) {
+            if (gl11 != null) {
+                gl11.glDeleteBuffers(1, new int[]{bufferId}, 0);
+            }
+            ResourceAccounting.released(ResourceAccounting.Kind.BUFFER_OBJECT, vertexData.capacity());
+        }
+
+        bufferId = -1;
+        clearDirty();
+    }
+
+    boolean intersects(RectF worldRect) {
+        // World rectangles have top above bottom
+        return minX <= worldRect.right && maxX >= worldRect.left && minY <= worldRect.top && maxY >= worldRect.bottom;
+    }
+
+    /**
+     * @return squared distance from the chunk's center to the point
+     */
+    float distanceSquared(float x, float y) {
+        float dx = (minX + maxX) / 2.0f - x;
+        float dy = (minY + maxY) / 2.0f - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return size of the chunk's direct buffers in bytes
+     */
+    int getBufferSize() {
+        return vertexData.capacity();
+    }
+
+    private synchronized void markDirty(int seat) {
+        if (mDirtySeats == null) {
+            mDirtySeats = new long[(numSeats + 63) >> 6];
+        }
+
+        mDirtySeats[seat >> 6] |= 1L << seat;
+        mFirstDirtySeat = Math.min(mFirstDirtySeat, seat);
+        mLastDirtySeat = Math.max(mLastDirtySeat, seat);
+    }
+
+    private void clearDirty() {
+        if (mLastDirtySeat != -1) {
+            for (int i = mFirstDirtySeat >> 6; i <= mLastDirtySeat >> 6; i++) {
+                mDirtySeats[i] = 0;
+            }
+        }
+
+        mFirstDirtySeat = Integer.MAX_VALUE;
+        mLastDirtySeat = -1;
+    }
+
+    private int uploadSpan(GL11 gl11, int firstSeat, int lastSeat) {
+        int offset = firstSeat * SEAT_STRIDE;
+        int size = (lastSeat - firstSeat + 1) * SEAT_STRIDE;
+
+        vertexData.position(offset);
+        gl11.glBufferSubData(GL11.GL_ARRAY_BUFFER, offset, size, vertexData);
+        return size;
+    }
+
+    private void putColor(int offset, int color) {
+        vertexData.put(offset, (byte) Color.red(color));
+        vertexData.put(offset + 1, (byte) Color.green(color));
+        vertexData.put(offset + 2, (byte) Color.blue(color));
+        vertexData.put(offset + 3, (byte) Color.alpha(color));
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.ykrapiva.eventmap;
+
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Generates chunk vertex data on the worker pool a few chunks at a time, so that the chunks the user looks at
+ * can jump the queue whenever the viewport changes. Only to be used from the GL thread.
+ */
+class SeatChunkLoader {
+    private static final int TASKS_IN_FLIGHT_PER_THREAD = 2;
+
+    private final SeatGeometryBuilder mBuilder;
+    private final List<SeatChunk> mPending;
+    private final List<SeatChunk> mInFlightChunks = new ArrayList<SeatChunk>();
+    private final List<Future<?>> mInFlightFutures = new ArrayList<Future<?>>();
+    private final Queue<SeatChunk> mCompleted = new LinkedList<SeatChunk>();
+    private final int mMaxInFlight;
+
+    SeatChunkLoader(SeatGeometryBuilder builder, List<SeatChunk> chunks) {
+        this.mBuilder = builder;
+        this.mPending = new ArrayList<SeatChunk>(chunks);
+        this.mMaxInFlight = Runtime.getRuntime().availableProcessors() * TASKS_IN_FLIGHT_PER_THREAD;
+    }
+
+    /**
+     * Collects finished chunks and submits more. Chunks intersecting the visible region go first,
+     * then those intersecting the prefetch region, then the rest, each group by distance from the visible region's center.
+     *
+     * @param visibleRect  Visible world region, null if unknown
+     * @param prefetchRect World region to be displayed soon, may be null
+     */
+    void update(RectF visibleRect, RectF prefetchRect) {
+        for (int i = mInFlightFutures.size() - 1; i >= 0; i--) {
+            Future<?> future = mInFlightFutures.get(i);
+
+            if (future.isDone()) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed to build seat geometry", e.getCause());
+                }
+
+                mCompleted.add(mInFlightChunks.remove(i));
+                mInFlightFutures.remove(i);
+            }
+        }
+
+        float focusX = visibleRect != null ? visibleRect.centerX() : 0;
+        float focusY = visibleRect != null ? visibleRect.centerY() : 0;
+
+        while (mInFlightFutures.size() < mMaxInFlight && !mPending.isEmpty()) {
+            int best = -1;
+            int bestGroup = Integer.MAX_VALUE;
+            float bestDistance = Float.MAX_VALUE;
+
+            for (int i = 0; i < mPending.size(); i++) {
+                SeatChunk chunk = mPending.get(i);
+                int group = visibleRect != null && chunk.intersects(visibleRect) ? 0 : prefetchRect != null && chunk.intersects(prefetchRect) ? 1 : 2;
+                float distance = chunk.distanceSquared(focusX, focusY);
+
+                if (group < bestGroup || group == bestGroup && distance < bestDistance) {
+                    best = i;
+                    bestGroup = group;
+                    bestDistance = distance;
+                }
+            }
+
+            final SeatChunk chunk = mPending.remove(best);
+            mInFlightChunks.add(chunk);
+            mInFlightFutures.add(SeatGeometryBuilder.getExecutor().submit(new Runnable() {
+                @Override
+                public void run() {
+                    mBuilder.fill(chunk);
+                }
+            }));
+        }
+    }
+
+    /**
+     * @return next chunk with generated vertex data, or null
+     */
+    SeatChunk pollCompleted() {
+        return mCompleted.poll();
+    }
+
+    boolean isDone() {
+        return mPending.isEmpty() && mInFlightFutures.isEmpty() && mCompleted.isEmpty();
+    }
+
+    /**
+     * Stops scheduling. Chunks being generated are left to finish, their results are dropped.
+     */
+    void cancel() {
+        for (Future<?> future : mInFlightFutures) {
+            future.cancel(false);
+        }
+
+        mPending.clear();
+        mInFlightChunks.clear();
+        mInFlightFutures.clear();
+        mCompleted.clear();
+    }
+}
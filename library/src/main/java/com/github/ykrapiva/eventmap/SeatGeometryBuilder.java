@@ -0,0 +1,200 @@
+package com.github.ykrapiva.eventmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds seat chunks without touching GL, so that it can run off the GL thread.
+ * Seats are grouped into chunks by a uniform grid over the map, chunk vertex data is then generated
+ * chunk by chunk on the worker pool, see {@link SeatChunkLoader}.
+ */
+class SeatGeometryBuilder {
+    // Average number of seats per grid cell
+    static final int TARGET_SEATS_PER_CHUNK = 4096;
+
+    private static ExecutorService sExecutor;
+
+    /**
+     * Result of a build.
+     */
+    static class Geometry {
+        final List<SeatChunk> chunks;
+        // Location of every seat: chunk index * SeatChunk.MAX_SEATS + position within the chunk
+        final int[] seatLocations;
+        // Distinct caption text sizes
+        final SortedSet<Integer> textSizes;
+
+        Geometry(List<SeatChunk> chunks, int[] seatLocations, SortedSet<Integer> textSizes) {
+            this.chunks = chunks;
+            this.seatLocations = seatLocations;
+            this.textSizes = textSizes;
+        }
+    }
+
+    private final SeatStore<?> mSeats;
+    private final SeatTextureAtlas mAtlas;
+
+    /**
+     * @param atlas Atlas which is already built, only its regions are read
+     */
+    SeatGeometryBuilder(SeatStore<?> seats, SeatTextureAtlas atlas) {
+        this.mSeats = seats;
+        this.mAtlas = atlas;
+    }
+
+    /**
+     * Groups the seats into chunks with no vertex data yet.
+     */
+    Geometry partition() {
+        int[] seatLocations = new int[mSeats.size()];
+        SortedSet<Integer> textSizes = new TreeSet<Integer>();
+        List<SeatChunk> chunks = partition(seatLocations, textSizes);
+        return new Geometry(chunks, seatLocations, textSizes);
+    }
+
+    private List<SeatChunk> partition(int[] seatLocations, SortedSet<Integer> textSizes) {
+        int numSeats = mSeats.size();
+        List<SeatChunk> chunks = new ArrayList<SeatChunk>();
+
+        if (numSeats == 0) {
+            return chunks;
+        }
+
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+
+        for (int seat = 0; seat < numSeats; seat++) {
+            float x = centerX(seat);
+            float y = centerY(seat);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+
+            textSizes.add(EventMap.calcTextSize(mSeats.getRight(seat) - mSeats.getLeft(seat), mSeats.getTop(seat) - mSeats.getBottom(seat)));
+        }
+
+        // Grid with roughly square cells
+        float width = Math.max(maxX - minX, 1);
+        float height = Math.max(maxY - minY, 1);
+        int numCells = (numSeats + TARGET_SEATS_PER_CHUNK - 1) / TARGET_SEATS_PER_CHUNK;
+        int columns = Math.max(1, Math.round((float) Math.sqrt(numCells * width / height)));
+        int rows = Math.max(1, (numCells + columns - 1) / columns);
+
+        // Counting sort of seats by cell
+        int[] cellOfSeat = new int[numSeats];
+        int[] cellStarts = new int[columns * rows + 1];
+
+        for (int seat = 0; seat < numSeats; seat++) {
+            int column = Math.min(columns - 1, (int) ((centerX(seat) - minX) / width * columns));
+            int row = Math.min(rows - 1, (int) ((centerY(seat) - minY) / height * rows));
+            cellOfSeat[seat] = row * columns + column;
+            cellStarts[cellOfSeat[seat] + 1]++;
+        }
+
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+
+        int[] sortedSeats = new int[numSeats];
+        int[] cellPositions = new int[columns * rows];
+        System.arraycopy(cellStarts, 0, cellPositions, 0, cellPositions.length);
+
+        for (int seat = 0; seat < numSeats; seat++) {
+            sortedSeats[cellPositions[cellOfSeat[seat]]++] = seat;
+        }
+
+        // One chunk per non-empty cell, crowded cells are split
+        for (int cell = 0; cell < columns * rows; cell++) {
+            for (int start = cellStarts[cell]; start < cellStarts[cell + 1]; start += SeatChunk.MAX_SEATS) {
+                int[] seats = new int[Math.min(SeatChunk.MAX_SEATS, cellStarts[cell + 1] - start)];
+                System.arraycopy(sortedSeats, start, seats, 0, seats.length);
+
+                for (int i = 0; i < seats.length; i++) {
+                    seatLocations[seats[i]] = chunks.size() * SeatChunk.MAX_SEATS + i;
+                }
+
+                SeatChunk chunk = new SeatChunk(seats);
+                calculateBounds(chunk);
+                chunks.add(chunk);
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Generates the chunk's vertex data, may be called from any thread.
+     */
+    void fill(SeatChunk chunk) {
+        // Init interleaved vertex buffer
+        chunk.allocateVertexData();
+
+        for (int i = 0; i < chunk.numSeats; i++) {
+            int seat = chunk.seats[i];
+            float left = mSeats.getLeft(seat);
+            float top = mSeats.getTop(seat);
+            float right = mSeats.getRight(seat);
+            float bottom = mSeats.getBottom(seat);
+
+            // Each vertex has the same color (no gradients)
+            int color = mSeats.getColor(seat);
+
+            // Shape's region within the atlas
+            float[] region = mAtlas.getRegion(mSeats.getShapeKey(seat));
+
+            chunk.putVertex(i, 0, left, top, color, region[0], region[1]);
+            chunk.putVertex(i, 1, left, bottom, color, region[0], region[3]);
+            chunk.putVertex(i, 2, right, bottom, color, region[2], region[3]);
+            chunk.putVertex(i, 3, right, top, color, region[2], region[1]);
+        }
+    }
+
+    private void calculateBounds(SeatChunk chunk) {
+        chunk.minX = Float.MAX_VALUE;
+        chunk.minY = Float.MAX_VALUE;
+        chunk.maxX = -Float.MAX_VALUE;
+        chunk.maxY = -Float.MAX_VALUE;
+
+        for (int seat : chunk.seats) {
+            chunk.minX = Math.min(chunk.minX, Math.min(mSeats.getLeft(seat), mSeats.getRight(seat)));
+            chunk.maxX = Math.max(chunk.maxX, Math.max(mSeats.getLeft(seat), mSeats.getRight(seat)));
+            chunk.minY = Math.min(chunk.minY, Math.min(mSeats.getTop(seat), mSeats.getBottom(seat)));
+            chunk.maxY = Math.max(chunk.maxY, Math.max(mSeats.getTop(seat), mSeats.getBottom(seat)));
+        }
+    }
+
+    private float centerX(int seat) {
+        return (mSeats.getLeft(seat) + mSeats.getRight(seat)) / 2.0f;
+    }
+
+    private float centerY(int seat) {
+        return (mSeats.getTop(seat) + mSeats.getBottom(seat)) / 2.0f;
+    }
+
+    /**
+     * ForkJoinPool requires API level 21, a fixed pool of daemon threads does the job as well.
+     */
+    static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            sExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "EventMapGeometry-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+}
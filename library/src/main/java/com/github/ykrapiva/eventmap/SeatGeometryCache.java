@@ -0,0 +1,373 @@
+package com.github.ykrapiva.eventmap;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Persists generated seat geometry, so that reopening a known map skips partitioning and vertex generation.
+ * <p/>
+ * Files are keyed by a hash of everything geometry depends on except colors, which change with seat states
+ * and are rewritten on load. Vertex data is memory mapped straight into direct buffers.
+ * Least recently used files are deleted once they take more than the size limit.
+ * <p/>
+ * File layout, native byte order:
+ * <pre>
+ * int magic, int version, int byte order marker
+ * int numSeats, int[numSeats] seat locations
+ * int numTextSizes, int[numTextSizes] text sizes
+ * int numChunks, then per chunk: int numSeats, float minX, minY, maxX, maxY, int[numSeats] seats, vertex data
+ * </pre>
+ */
+class SeatGeometryCache {
+    private static final int MAGIC = 0x45564d47;
+    // Bump on any change of the file layout or of the vertex format
+    private static final int VERSION = 1;
+    private static final int BYTE_ORDER_MARKER = 0x01020304;
+    private static final String FILE_SUFFIX = ".geometry";
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final File mDir;
+    private final long mMaxBytes;
+
+    SeatGeometryCache(File dir, long maxBytes) {
+        this.mDir = dir;
+        this.mMaxBytes = maxBytes;
+    }
+
+    /**
+     * @return file name for the geometry of the given seats
+     */
+    String getFileName(SeatStore<?> seats, SeatTextureAtlas atlas) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        buffer.putInt(VERSION);
+        buffer.putInt(SeatGeometryBuilder.TARGET_SEATS_PER_CHUNK);
+        buffer.putInt(seats.size());
+
+        for (int seat = 0; seat < seats.size(); seat++) {
+            if (buffer.remaining() < 32) {
+                update(digest, buffer);
+            }
+
+            buffer.putFloat(seats.getLeft(seat));
+            buffer.putFloat(seats.getTop(seat));
+            buffer.putFloat(seats.getRight(seat));
+            buffer.putFloat(seats.getBottom(seat));
+            buffer.put((byte) seats.getShapeId(seat));
+        }
+
+        // Texture coordinates of every shape
+        for (int shapeId = 0; shapeId < seats.getShapeCount(); shapeId++) {
+            if (buffer.remaining() < 32) {
+                update(digest, buffer);
+            }
+
+            for (float coordinate : atlas.getRegion(seats.getShape(shapeId))) {
+                buffer.putFloat(coordinate);
+            }
+        }
+
+        update(digest, buffer);
+
+        StringBuilder name = new StringBuilder();
+        for (byte b : digest.digest()) {
+            name.append(Integer.toHexString((b & 0xFF) | 0x100).substring(1));
+        }
+        return name.append(FILE_SUFFIX).toString();
+    }
+
+    /**
+     * @param numSeats Number of seats the geometry is for
+     * @return cached geometry with vertex data in place, or null if there's no usable cache file.
+     * Unusable files are deleted. May be called from any thread.
+     */
+    SeatGeometryBuilder.Geometry load(String fileName, int numSeats) {
+        File file = new File(mDir, fileName);
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        // Modification time stands for the last use, see trim()
+        file.setLastModified(System.currentTimeMillis());
+
+        try {
+            // Private mappings need a writable channel, though nothing is written to the file
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+            try {
+                // Private mapping allows in-place color updates without touching the file
+                MappedByteBuffer data = randomAccessFile.getChannel().map(FileChannel.MapMode.PRIVATE, 0, randomAccessFile.length());
+                data.order(ByteOrder.nativeOrder());
+                return read(data, numSeats);
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            return discard(file);
+        } catch (RuntimeException e) {
+            return discard(file);
+        } catch (Error e) {
+            // E.g. out of memory for counts the checks let through, the file would fail every time
+            return discard(file);
+        }
+    }
+
+    private static SeatGeometryBuilder.Geometry discard(File file) {
+        file.delete();
+        return null;
+    }
+
+    /**
+     * Counts and indices are checked before anything is allocated or handed out, damaged files fail with an IOException.
+     */
+    private static SeatGeometryBuilder.Geometry read(ByteBuffer data, int numSeats) throws IOException {
+        if (data.remaining() < 4 * 4 || data.getInt() != MAGIC || data.getInt() != VERSION || data.getInt() != BYTE_ORDER_MARKER) {
+            throw new IOException("Not a seat geometry file of this version");
+        }
+
+        int numSeatLocations = data.getInt();
+        if (numSeatLocations != numSeats) {
+            throw corrupted(numSeatLocations + " seats instead of " + numSeats);
+        }
+        checkRemaining(data, numSeatLocations * 4L + 4);
+
+        int[] seatLocations = new int[numSeatLocations];
+        data.asIntBuffer().get(seatLocations);
+        data.position(data.position() + seatLocations.length * 4);
+
+        int numTextSizes = data.getInt();
+        checkCount(numTextSizes, data.remaining() / 4, "text sizes");
+
+        SortedSet<Integer> textSizes = new TreeSet<Integer>();
+        for (; numTextSizes > 0; numTextSizes--) {
+            textSizes.add(data.getInt());
+        }
+
+        checkRemaining(data, 4);
+        int numChunks = data.getInt();
+        // Every chunk takes at least its header
+        checkCount(numChunks, Math.min(numSeats, data.remaining() / (5 * 4)), "chunks");
+        List<SeatChunk> chunks = new ArrayList<SeatChunk>(numChunks);
+
+        for (int i = 0; i < numChunks; i++) {
+            checkRemaining(data, 5 * 4);
+            int numChunkSeats = data.getInt();
+            checkCount(numChunkSeats, SeatChunk.MAX_SEATS, "chunk seats");
+
+            int vertexDataSize = SeatChunk.SEAT_STRIDE * numChunkSeats;
+            checkRemaining(data, 4 * 4 + numChunkSeats * 4L + vertexDataSize);
+
+            float minX = data.getFloat();
+            float minY = data.getFloat();
+            float maxX = data.getFloat();
+            float maxY = data.getFloat();
+
+            int[] seats = new int[numChunkSeats];
+            data.asIntBuffer().get(seats);
+            data.position(data.position() + seats.length * 4);
+
+            for (int seat : seats) {
+                if (seat < 0 || seat >= numSeats) {
+                    throw corrupted("seat " + seat + " of " + numSeats);
+                }
+            }
+
+            SeatChunk chunk = new SeatChunk(seats);
+            chunk.minX = minX;
+            chunk.minY = minY;
+            chunk.maxX = maxX;
+            chunk.maxY = maxY;
+
+            // Accounted once the chunk is taken into use, see SeatChunk.accountVertexData()
+            ByteBuffer vertexData = data.slice();
+            vertexData.limit(vertexDataSize);
+            chunk.vertexData = vertexData.order(ByteOrder.nativeOrder());
+            data.position(data.position() + vertexDataSize);
+
+            chunks.add(chunk);
+        }
+
+        // Every seat has to be where its location points to
+        for (int seat = 0; seat < numSeats; seat++) {
+            int location = seatLocations[seat];
+            int chunk = location / SeatChunk.MAX_SEATS;
+            int position = location % SeatChunk.MAX_SEATS;
+
+            if (location < 0 || chunk >= chunks.size() || position >= chunks.get(chunk).numSeats
+                    || chunks.get(chunk).seats[position] != seat) {
+                throw corrupted("location " + location + " of seat " + seat);
+            }
+        }
+
+        return new SeatGeometryBuilder.Geometry(chunks, seatLocations, textSizes);
+    }
+
+    private static void checkCount(int count, int max, String what) throws IOException {
+        if (count < 0 || count > max) {
+            throw corrupted(count + " " + what);
+        }
+    }
+
+    private static void checkRemaining(ByteBuffer data, long bytes) throws IOException {
+        if (data.remaining() < bytes) {
+            throw corrupted("truncated");
+        }
+    }
+
+    private static IOException corrupted(String detail) {
+        return new IOException("Corrupted seat geometry: " + detail);
+    }
+
+    /**
+     * Writes geometry with all the vertex data generated. Vertex data goes to the file straight from the chunks'
+     * buffers, the rest through a small buffer, so the map is never copied as a whole. May be called from any thread.
+     */
+    void save(String fileName, SeatGeometryBuilder.Geometry geometry) throws IOException {
+        if (!mDir.isDirectory() && !mDir.mkdirs()) {
+            throw new IOException("Can't create " + mDir);
+        }
+
+        // Readers never see a partially written file
+        File tmpFile = new File(mDir, fileName + ".tmp");
+        FileOutputStream out = new FileOutputStream(tmpFile);
+
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.nativeOrder());
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(BYTE_ORDER_MARKER);
+
+            putInt(channel, buffer, geometry.seatLocations.length);
+            for (int location : geometry.seatLocations) {
+                putInt(channel, buffer, location);
+            }
+
+            putInt(channel, buffer, geometry.textSizes.size());
+            for (int textSize : geometry.textSizes) {
+                putInt(channel, buffer, textSize);
+            }
+
+            putInt(channel, buffer, geometry.chunks.size());
+            for (SeatChunk chunk : geometry.chunks) {
+                putInt(channel, buffer, chunk.numSeats);
+                putInt(channel, buffer, Float.floatToRawIntBits(chunk.minX));
+                putInt(channel, buffer, Float.floatToRawIntBits(chunk.minY));
+                putInt(channel, buffer, Float.floatToRawIntBits(chunk.maxX));
+                putInt(channel, buffer, Float.floatToRawIntBits(chunk.maxY));
+
+                for (int seat : chunk.seats) {
+                    putInt(channel, buffer, seat);
+                }
+                flush(channel, buffer);
+
+                // Buffer position is changed by the GL thread when drawing, a duplicate has its own
+                ByteBuffer vertexData = chunk.vertexData.duplicate();
+                vertexData.clear();
+                write(channel, vertexData);
+            }
+
+            flush(channel, buffer);
+        } finally {
+            out.close();
+        }
+
+        if (!tmpFile.renameTo(new File(mDir, fileName))) {
+            tmpFile.delete();
+            throw new IOException("Can't write " + fileName);
+        }
+
+        trim();
+    }
+
+    /**
+     * Deletes least recently used files until the rest fit into the size limit.
+     * Files being read stay readable, mappings outlive them.
+     */
+    void trim() {
+        File[] files = mDir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        List<File> cacheFiles = new ArrayList<File>();
+        long totalBytes = 0;
+
+        for (File file : files) {
+            if (file.getName().endsWith(FILE_SUFFIX)) {
+                cacheFiles.add(file);
+                totalBytes += file.length();
+            }
+        }
+
+        if (totalBytes <= mMaxBytes) {
+            return;
+        }
+
+        Collections.sort(cacheFiles, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long lhsModified = lhs.lastModified();
+                long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : lhsModified == rhsModified ? 0 : 1;
+            }
+        });
+
+        for (int i = 0; i < cacheFiles.size() && totalBytes > mMaxBytes; i++) {
+            File file = cacheFiles.get(i);
+            long length = file.length();
+
+            if (file.delete()) {
+                totalBytes -= length;
+            }
+        }
+    }
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < 4) {
+            flush(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        write(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private static void update(MessageDigest digest, ByteBuffer buffer) {
+        digest.update(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.ykrapiva.eventmap;
+
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seat attributes laid out in primitive arrays, one slot per seat, so that layout, picking and caption passes
+ * scan flat memory instead of chasing figure objects. Figures are kept only to hand them back to callers.
+ * <p/>
+ * Attributes are snapshotted when a seat is added and refreshed with {@link #update(int)}.
+ */
+class SeatStore<T extends EventMapFigure> {
+    static final int NO_TITLE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_SHAPES = 256;
+
+    private final List<T> mFigures = new ArrayList<T>();
+    private int mSize;
+
+    // World coordinates: left, top, right, bottom per seat
+    private float[] mBounds = new float[INITIAL_CAPACITY * 4];
+    private int[] mColors = new int[INITIAL_CAPACITY];
+    private int[] mTitleColors = new int[INITIAL_CAPACITY];
+    private int[] mTitleIds = new int[INITIAL_CAPACITY];
+    private byte[] mShapeIds = new byte[INITIAL_CAPACITY];
+
+    // Interned titles and shape keys
+    private final List<String> mTitles = new ArrayList<String>();
+    private final Map<String, Integer> mTitleIdsByTitle = new HashMap<String, Integer>();
+    private final List<Object> mShapes = new ArrayList<Object>();
+    private final Map<Object, Integer> mShapeIdsByShape = new HashMap<Object, Integer>();
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity <= mColors.length) {
+            return;
+        }
+
+        // Arrays.copyOf() is not available on API level 8
+        int newCapacity = Math.max(capacity, mColors.length * 2);
+
+        float[] bounds = new float[newCapacity * 4];
+        System.arraycopy(mBounds, 0, bounds, 0, mSize * 4);
+        mBounds = bounds;
+
+        int[] colors = new int[newCapacity];
+        System.arraycopy(mColors, 0, colors, 0, mSize);
+        mColors = colors;
+
+        int[] titleColors = new int[newCapacity];
+        System.arraycopy(mTitleColors, 0, titleColors, 0, mSize);
+        mTitleColors = titleColors;
+
+        int[] titleIds = new int[newCapacity];
+        System.arraycopy(mTitleIds, 0, titleIds, 0, mSize);
+        mTitleIds = titleIds;
+
+        byte[] shapeIds = new byte[newCapacity];
+        System.arraycopy(mShapeIds, 0, shapeIds, 0, mSize);
+        mShapeIds = shapeIds;
+    }
+
+    /**
+     * @param worldRect Figure bounds in world coordinates
+     */
+    void add(T figure, RectF worldRect) {
+        ensureCapacity(mSize + 1);
+
+        int index = mSize++;
+        mFigures.add(figure);
+
+        mBounds[index * 4] = worldRect.left;
+        mBounds[index * 4 + 1] = worldRect.top;
+        mBounds[index * 4 + 2] = worldRect.right;
+        mBounds[index * 4 + 3] = worldRect.bottom;
+
+        update(index);
+    }
+
+    /**
+     * Re-reads color, title, title color and shape of the seat's figure. Bounds are fixed once added.
+     */
+    void update(int index) {
+        T figure = mFigures.get(index);
+        mColors[index] = figure.getColor();
+        mTitleColors[index] = figure.getTitleColor();
+        mTitleIds[index] = internTitle(figure.getTitle());
+        mShapeIds[index] = (byte) internShape(figure.getShape() != null ? figure.getShape() : figure.getFigureType());
+    }
+
+    int indexOf(T figure) {
+        return mFigures.indexOf(figure);
+    }
+
+    T getFigure(int index) {
+        return mFigures.get(index);
+    }
+
+    List<T> getFigures() {
+        return mFigures;
+    }
+
+    float getLeft(int index) {
+        return mBounds[index * 4];
+    }
+
+    float getTop(int index) {
+        return mBounds[index * 4 + 1];
+    }
+
+    float getRight(int index) {
+        return mBounds[index * 4 + 2];
+    }
+
+    float getBottom(int index) {
+        return mBounds[index * 4 + 3];
+    }
+
+    int getColor(int index) {
+        return mColors[index];
+    }
+
+    void setColor(int index, int color) {
+        mColors[index] = color;
+    }
+
+    int getTitleColor(int index) {
+        return mTitleColors[index];
+    }
+
+    /**
+     * @return title or null if the seat has none
+     */
+    String getTitle(int index) {
+        int titleId = mTitleIds[index];
+        return titleId != NO_TITLE ? mTitles.get(titleId) : null;
+    }
+
+    /**
+     * @return figure shape name, or figure type for seats without a shape name
+     */
+    Object getShapeKey(int index) {
+        return mShapes.get(getShapeId(index));
+    }
+
+    int getShapeId(int index) {
+        return mShapeIds[index] & 0xFF;
+    }
+
+    int getShapeCount() {
+        return mShapes.size();
+    }
+
+    Object getShape(int shapeId) {
+        return mShapes.get(shapeId);
+    }
+
+    private int internTitle(String title) {
+        if (title == null || title.length() == 0) {
+            return NO_TITLE;
+        }
+
+        Integer id = mTitleIdsByTitle.get(title);
+        if (id == null) {
+            id = mTitles.size();
+            mTitles.add(title);
+            mTitleIdsByTitle.put(title, id);
+        }
+        return id;
+    }
+
+    private int internShape(Object shape) {
+        Integer id = mShapeIdsByShape.get(shape);
+        if (id == null) {
+            if (mShapes.size() == MAX_SHAPES) {
+                throw new IllegalStateException("Too many distinct shapes, at most " + MAX_SHAPES + " are supported");
+            }
+
+            id = mShapes.size();
+            mShapes.add(shape);
+            mShapeIdsByShape.put(shape, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.ykrapiva.eventmap;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import com.github.ykrapiva.eventmap.gl.GLUtils;
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
+
+import javax.microedition.khronos.opengles.GL10;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs figure shape bitmaps into a single texture, so that seats of all shapes are drawn with one texture bound.
+ * Keys without a bitmap are mapped onto a solid white region, which leaves vertex colors untouched.
+ */
+class SeatTextureAtlas {
+    // Space between regions so that linear filtering of the first mipmap levels doesn't bleed into neighbours
+    private static final int REGION_PADDING = 4;
+    private static final int SOLID_REGION_SIZE = 4;
+    private static final int MIN_ATLAS_SIZE = 64;
+
+    private final Map<Object, Bitmap> mBitmaps = new LinkedHashMap<Object, Bitmap>();
+
+    // Texture coordinates {u1, v1, u2, v2} by key
+    private final Map<Object, float[]> mRegions = new HashMap<Object, float[]>();
+    private float[] mSolidRegion;
+
+    private Bitmap mAtlasBitmap;
+    private int mTextureId = -1;
+    private int mTextureBytes;
+
+    void put(Object key, Bitmap bitmap) {
+        mBitmaps.put(key, bitmap);
+        mAtlasBitmap = null;
+    }
+
+    /**
+     * @return texture coordinates {u1, v1, u2, v2} of the key's region, or of the solid region if there's no bitmap for the key
+     */
+    float[] getRegion(Object key) {
+        float[] region = mRegions.get(key);
+        return region != null ? region : mSolidRegion;
+    }
+
+    /**
+     * Packs bitmaps into an atlas bitmap unless it's done already.
+     *
+     * @param maxSize Max atlas dimension
+     */
+    void build(int maxSize) {
+        if (mAtlasBitmap != null) {
+            return;
+        }
+
+        List<Map.Entry<Object, Bitmap>> entries = new ArrayList<Map.Entry<Object, Bitmap>>(mBitmaps.entrySet());
+
+        // Shelf packing works best with the tallest items first
+        Collections.sort(entries, new Comparator<Map.Entry<Object, Bitmap>>() {
+            @Override
+            public int compare(Map.Entry<Object, Bitmap> lhs, Map.Entry<Object, Bitmap> rhs) {
+                return rhs.getValue().getHeight() - lhs.getValue().getHeight();
+            }
+        });
+
+        int size = MIN_ATLAS_SIZE;
+        int[] positions = new int[(entries.size() + 1) * 2];
+
+        while (!pack(entries, size, positions)) {
+            size *= 2;
+
+            if (size > maxSize) {
+                throw new IllegalStateException("Shape bitmaps don't fit into a " + maxSize + "x" + maxSize + " texture");
+            }
+        }
+
+        Bitmap atlas = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        atlas.eraseColor(Color.TRANSPARENT);
+        Canvas canvas = new Canvas(atlas);
+
+        mRegions.clear();
+
+        for (int i = 0; i < entries.size(); i++) {
+            Bitmap bitmap = entries.get(i).getValue();
+            int x = positions[i * 2];
+            int y = positions[i * 2 + 1];
+
+            canvas.drawBitmap(bitmap, x, y, null);
+            mRegions.put(entries.get(i).getKey(), toRegion(size, x, y, bitmap.getWidth(), bitmap.getHeight()));
+        }
+
+        // Solid region is packed last
+        int x = positions[entries.size() * 2];
+        int y = positions[entries.size() * 2 + 1];
+        Paint paint = new Paint();
+        paint.setColor(Color.WHITE);
+        canvas.drawRect(x, y, x + SOLID_REGION_SIZE, y + SOLID_REGION_SIZE, paint);
+        // Sample the very center, far from the edges
+        float u = (x + SOLID_REGION_SIZE / 2.0f) / size;
+        float v = (y + SOLID_REGION_SIZE / 2.0f) / size;
+        mSolidRegion = new float[]{u, v, u, v};
+
+        mAtlasBitmap = atlas;
+    }
+
+    /**
+     * Uploads the atlas into a new texture, releasing the previous one.
+     *
+     * @param mipmaps Whether to generate mipmaps
+     * @return texture id
+     */
+    int upload(GL10 gl, boolean mipmaps) {
+        destroy(gl);
+
+        int[] textures = new int[1];
+        gl.glGenTextures(1, textures, 0);
+        mTextureId = textures[0];
+
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, mTextureId);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_S, GL10.GL_CLAMP_TO_EDGE);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_WRAP_T, GL10.GL_CLAMP_TO_EDGE);
+        mTextureBytes = GLUtils.texImage2D(gl, mAtlasBitmap, mipmaps);
+        ResourceAccounting.allocated(ResourceAccounting.Kind.TEXTURE, mTextureBytes);
+
+        return mTextureId;
+    }
+
+    int getTextureId() {
+        return mTextureId;
+    }
+
+    /**
+     * @return bytes of the uploaded texture, 0 if there's none
+     */
+    int getTextureBytes() {
+        return mTextureId != -1 ? mTextureBytes : 0;
+    }
+
+    boolean isBuilt() {
+        return mAtlasBitmap != null;
+    }
+
+    /**
+     * Deletes the texture, the atlas bitmap is kept for the next upload.
+     *
+     * @param gl GL the texture was created with, null if its context is lost
+     */
+    void destroy(GL10 gl) {
+        if (mTextureId != -1) {
+            if (gl != null) {
+                gl.glDeleteTextures(1, new int[]{mTextureId}, 0);
+            }
+            mTextureId = -1;
+            ResourceAccounting.released(ResourceAccounting.Kind.TEXTURE, mTextureBytes);
+        }
+    }
+
+    private static boolean pack(List<Map.Entry<Object, Bitmap>> entries, int size, int[] positions) {
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+
+        for (int i = 0; i <= entries.size(); i++) {
+            boolean solid = i == entries.size();
+            int width = solid ? SOLID_REGION_SIZE : entries.get(i).getValue().getWidth();
+            int height = solid ? SOLID_REGION_SIZE : entries.get(i).getValue().getHeight();
+
+            if (x + width > size) {
+                // Start a new shelf
+                x = 0;
+                y += shelfHeight + REGION_PADDING;
+                shelfHeight = 0;
+            }
+
+            if (width > size || y + height > size) {
+                return false;
+            }
+
+            positions[i * 2] = x;
+            positions[i * 2 + 1] = y;
+
+            x += width + REGION_PADDING;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+
+        return true;
+    }
+
+    private static float[] toRegion(int atlasSize, int x, int y, int width, int height) {
+        // Half a texel inset keeps linear filtering within the region
+        return new float[]{
+                (x + 0.5f) / atlasSize,
+                (y + 0.5f) / atlasSize,
+                (x + width - 0.5f) / atlasSize,
+                (y + height - 0.5f) / atlasSize
+        };
+    }
+}
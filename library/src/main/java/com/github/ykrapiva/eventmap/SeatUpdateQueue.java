@@ -0,0 +1,150 @@
+package com.github.ykrapiva.eventmap;
+
+/**
+ * Bounded queue of seat color updates, e.g. availability changes pushed by a backend.
+ * Updates may be offered from any thread and are applied in batches on the GL thread,
+ * see {@link EventMap#setUpdateQueue(SeatUpdateQueue)}.
+ * <p/>
+ * A pending update of a seat is replaced by a newer one, so the queue holds at most one update per seat.
+ * When the queue is full, offers are rejected and it's up to the producer to retry later or drop the update.
+ */
+public class SeatUpdateQueue {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final long[] mIds;
+    private final int[] mColors;
+    private int mHead;
+    private int mSize;
+
+    // Ring slots of pending seat ids
+    private final LongIntMap mSlotsById = new LongIntMap();
+
+    private long mCoalescedCount;
+    private long mRejectedCount;
+
+    // Called when the queue is no longer empty
+    private volatile Runnable mWakeUp;
+
+    public SeatUpdateQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Max number of seats with pending updates
+     */
+    public SeatUpdateQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        this.mIds = new long[capacity];
+        this.mColors = new int[capacity];
+        this.mSlotsById.ensureCapacity(capacity);
+    }
+
+    /**
+     * @param id    Seat id, see {@link EventMap#setKeyExtractor(EventMap.KeyExtractor)}
+     * @param color New seat color
+     * @return false if the queue is full and the update is rejected
+     */
+    public boolean offer(long id, int color) {
+        Runnable wakeUp = null;
+
+        synchronized (this) {
+            int slot = mSlotsById.get(id);
+
+            if (slot != LongIntMap.NO_VALUE) {
+                mColors[slot] = color;
+                mCoalescedCount++;
+                return true;
+            }
+
+            if (mSize == mIds.length) {
+                mRejectedCount++;
+                return false;
+            }
+
+            slot = (mHead + mSize) % mIds.length;
+            mIds[slot] = id;
+            mColors[slot] = color;
+            mSlotsById.put(id, slot);
+
+            if (mSize++ == 0) {
+                wakeUp = mWakeUp;
+            }
+        }
+
+        if (wakeUp != null) {
+            wakeUp.run();
+        }
+        return true;
+    }
+
+    /**
+     * Offers updates in order until the queue is full.
+     *
+     * @return number of updates accepted, the rest should be offered again later
+     */
+    public int offer(long[] ids, int[] colors, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            if (!offer(ids[offset + i], colors[offset + i])) {
+                return i;
+            }
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return mSize;
+    }
+
+    public int getCapacity() {
+        return mIds.length;
+    }
+
+    /**
+     * @return number of updates which replaced pending ones
+     */
+    public synchronized long getCoalescedCount() {
+        return mCoalescedCount;
+    }
+
+    /**
+     * @return number of updates rejected because the queue was full
+     */
+    public synchronized long getRejectedCount() {
+        return mRejectedCount;
+    }
+
+    public synchronized void clear() {
+        while (mSize > 0) {
+            mSlotsById.remove(mIds[mHead]);
+            mHead = (mHead + 1) % mIds.length;
+            mSize--;
+        }
+    }
+
+    void setWakeUp(Runnable wakeUp) {
+        this.mWakeUp = wakeUp;
+    }
+
+    /**
+     * Takes the oldest updates out of the queue.
+     *
+     * @return number of updates taken
+     */
+    synchronized int drain(long[] ids, int[] colors, int maxCount) {
+        int count = Math.min(mSize, Math.min(maxCount, ids.length));
+
+        for (int i = 0; i < count; i++) {
+            long id = mIds[mHead];
+            ids[i] = id;
+            colors[i] = mColors[mHead];
+            mSlotsById.remove(id);
+            mHead = (mHead + 1) % mIds.length;
+        }
+
+        mSize -= count;
+        return count;
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.ykrapiva.eventmap;
+
+/**
+ * Timestamps of one tap on the way from the touch screen to the seat listener and the next drawn frame,
+ * see {@link TapTracer}. Timestamps are {@link System#nanoTime()} values, 0 for stages not reached (yet).
+ */
+public class TapTrace {
+    public enum Stage {
+        /**
+         * Time of the touch event, taken from the {@link android.view.MotionEvent}
+         */
+        INPUT,
+        /**
+         * Gesture recognized on the UI thread, the pick is queued to the GL thread
+         */
+        GESTURE,
+        PICK_START,
+        PICK_END,
+        /**
+         * Seat listener called on the UI thread
+         */
+        CALLBACK_START,
+        CALLBACK_END,
+        /**
+         * A frame started after the listener returned has been drawn, so it shows seats recolored by the listener
+         */
+        FRAME_DRAWN
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final boolean mPress;
+    private final long[] mTimestamps = new long[STAGES.length];
+
+    TapTrace(boolean press) {
+        this.mPress = press;
+    }
+
+    /**
+     * @return true if the tap is a press, reported by {@link EventMapView.EventMapSeatTouchListener#onSeatPressed(Object)},
+     * false if it's a click
+     */
+    public boolean isPress() {
+        return mPress;
+    }
+
+    public synchronized long getTimestamp(Stage stage) {
+        return mTimestamps[stage.ordinal()];
+    }
+
+    /**
+     * @return nanoseconds between the stages, -1 if either one is not reached
+     */
+    public synchronized long getLatency(Stage from, Stage to) {
+        long start = mTimestamps[from.ordinal()];
+        long end = mTimestamps[to.ordinal()];
+        return start != 0 && end != 0 ? end - start : -1;
+    }
+
+    public synchronized boolean isComplete() {
+        return mTimestamps[Stage.FRAME_DRAWN.ordinal()] != 0;
+    }
+
+    synchronized void mark(Stage stage) {
+        mark(stage, System.nanoTime());
+    }
+
+    synchronized void mark(Stage stage, long nanos) {
+        mTimestamps[stage.ordinal()] = nanos;
+    }
+
+    /**
+     * @return stage timestamps in milliseconds relative to the input
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder(mPress ? "press:" : "click:");
+        long input = mTimestamps[Stage.INPUT.ordinal()];
+
+        for (int i = 1; i < STAGES.length; i++) {
+            sb.append(' ').append(STAGES[i].name().toLowerCase()).append('=');
+            if (mTimestamps[i] != 0) {
+                sb.append((mTimestamps[i] - input) / 1000 / 1000.0f);
+            } else {
+                sb.append('-');
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.ykrapiva.eventmap;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traces seat taps of an {@link EventMapView}: keeps the most recent {@link TapTrace traces} in a ring buffer
+ * and, on API 18 and newer, marks the stages with {@link Trace} sections visible in systrace:
+ * "EventMap tap" and "EventMap seat callback" on the UI thread, "EventMap pick" on the GL thread.
+ * <p/>
+ * Enable with {@link EventMapView#setTapTracer(TapTracer)}. While enabled, every tap causes a frame to be drawn,
+ * so that the time to the first frame showing the listener's changes is known even if the listener changed nothing.
+ */
+public class TapTracer {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    public interface Listener {
+        /**
+         * Called on the GL thread when the trace is complete, must not block.
+         */
+        void onTapTraced(TapTrace trace);
+    }
+
+    private final TapTrace[] mTraces;
+    private int mNext;
+    private int mSize;
+
+    // Traces waiting for the frame after their callback, checked every frame without locking while there are none
+    private final List<TapTrace> mAwaitingFrame = new ArrayList<TapTrace>();
+    private volatile boolean mHasAwaitingFrame;
+
+    private volatile Listener mListener;
+
+    public TapTracer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity How many recent traces to keep
+     */
+    public TapTracer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.mTraces = new TapTrace[capacity];
+    }
+
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    /**
+     * @return recent traces, oldest first, including ones still in progress
+     */
+    public synchronized List<TapTrace> getTraces() {
+        List<TapTrace> traces = new ArrayList<TapTrace>(mSize);
+        for (int i = 0; i < mSize; i++) {
+            traces.add(mTraces[(mNext - mSize + i + mTraces.length) % mTraces.length]);
+        }
+        return traces;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < mTraces.length; i++) {
+            mTraces[i] = null;
+        }
+        mNext = 0;
+        mSize = 0;
+        mAwaitingFrame.clear();
+        mHasAwaitingFrame = false;
+    }
+
+    /**
+     * Starts a trace of a tap recognized just now.
+     *
+     * @param eventTimeMillis Time of the touch event in the {@link android.os.SystemClock#uptimeMillis()} base,
+     *                        which is the monotonic clock of {@link System#nanoTime()} on Android
+     */
+    synchronized TapTrace begin(boolean press, long eventTimeMillis) {
+        TapTrace trace = new TapTrace(press);
+        trace.mark(TapTrace.Stage.INPUT, eventTimeMillis * 1000000);
+        trace.mark(TapTrace.Stage.GESTURE);
+
+        mTraces[mNext] = trace;
+        mNext = (mNext + 1) % mTraces.length;
+        mSize = Math.min(mSize + 1, mTraces.length);
+        return trace;
+    }
+
+    /**
+     * Completes the trace with the first frame started after now.
+     */
+    synchronized void awaitFrame(TapTrace trace) {
+        mAwaitingFrame.add(trace);
+        mHasAwaitingFrame = true;
+    }
+
+    /**
+     * Called by the renderer after every frame.
+     *
+     * @param frameStartNanos {@link System#nanoTime()} at the start of the frame
+     */
+    void onFrameDrawn(long frameStartNanos) {
+        if (!mHasAwaitingFrame) {
+            return;
+        }
+
+        List<TapTrace> completed = null;
+
+        synchronized (this) {
+            for (int i = 0; i < mAwaitingFrame.size(); ) {
+                TapTrace trace = mAwaitingFrame.get(i);
+                if (trace.getTimestamp(TapTrace.Stage.CALLBACK_END) > frameStartNanos) {
+                    i++;
+                    continue;
+                }
+
+                trace.mark(TapTrace.Stage.FRAME_DRAWN);
+                mAwaitingFrame.remove(i);
+
+                if (completed == null) {
+                    completed = new ArrayList<TapTrace>(1);
+                }
+                completed.add(trace);
+            }
+            mHasAwaitingFrame = !mAwaitingFrame.isEmpty();
+        }
+
+        Listener listener = mListener;
+        if (listener != null && completed != null) {
+            for (TapTrace trace : completed) {
+                listener.onTapTraced(trace);
+            }
+        }
+    }
+
+    static void beginSection(String name) {
+        if (Build.VERSION.SDK_INT >= 18) {
+            Trace.beginSection(name);
+        }
+    }
+
+    static void endSection() {
+        if (Build.VERSION.SDK_INT >= 18) {
+            Trace.endSection();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.ykrapiva.eventmap.gl;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * Shadows fixed function pipeline state (capabilities, client states, blend function and bound texture)
+ * so that only actual state changes reach the driver.
+ * <p/>
+ * State changed by code that bypasses the tracker must be reported with one of the invalidate methods.
+ */
+public class GLStateTracker {
+    private static final int MAX_TRACKED_STATES = 16;
+
+    private static final byte STATE_UNKNOWN = 0;
+    private static final byte STATE_ENABLED = 1;
+    private static final byte STATE_DISABLED = 2;
+
+    private static final int NO_VALUE = -1;
+
+    // Capabilities (glEnable) and client states (glEnableClientState) share the table, their constants don't overlap
+    private final int[] mKeys = new int[MAX_TRACKED_STATES];
+    private final boolean[] mClientState = new boolean[MAX_TRACKED_STATES];
+    private final byte[] mStates = new byte[MAX_TRACKED_STATES];
+    private int mNumKeys;
+
+    private int mBlendSrc = NO_VALUE;
+    private int mBlendDst = NO_VALUE;
+    private int mBoundTexture = NO_VALUE;
+
+    // Statistics
+    private int mIssuedCalls;
+    private int mSkippedCalls;
+
+    public void enable(GL10 gl, int cap) {
+        if (setState(cap, false, STATE_ENABLED)) {
+            gl.glEnable(cap);
+        }
+    }
+
+    public void disable(GL10 gl, int cap) {
+        if (setState(cap, false, STATE_DISABLED)) {
+            gl.glDisable(cap);
+        }
+    }
+
+    public void enableClientState(GL10 gl, int array) {
+        if (setState(array, true, STATE_ENABLED)) {
+            gl.glEnableClientState(array);
+        }
+    }
+
+    public void disableClientState(GL10 gl, int array) {
+        if (setState(array, true, STATE_DISABLED)) {
+            gl.glDisableClientState(array);
+        }
+    }
+
+    public void blendFunc(GL10 gl, int src, int dst) {
+        if (mBlendSrc == src && mBlendDst == dst) {
+            mSkippedCalls++;
+            return;
+        }
+
+        mBlendSrc = src;
+        mBlendDst = dst;
+        mIssuedCalls++;
+        gl.glBlendFunc(src, dst);
+    }
+
+    public void bindTexture(GL10 gl, int texture) {
+        if (mBoundTexture == texture) {
+            mSkippedCalls++;
+            return;
+        }
+
+        mBoundTexture = texture;
+        mIssuedCalls++;
+        gl.glBindTexture(GL10.GL_TEXTURE_2D, texture);
+    }
+
+    /**
+     * Forget the state of a capability or a client state, it will be set unconditionally next time.
+     */
+    public void invalidate(int capOrArray) {
+        int index = indexOf(capOrArray);
+        if (index != -1) {
+            mStates[index] = STATE_UNKNOWN;
+        }
+    }
+
+    public void invalidateTexture() {
+        mBoundTexture = NO_VALUE;
+    }
+
+    /**
+     * Assume GL is in its default state: everything disabled, blend function and bound texture unknown.
+     */
+    public void reset() {
+        for (int i = 0; i < mNumKeys; i++) {
+            mStates[i] = STATE_DISABLED;
+        }
+
+        mBlendSrc = NO_VALUE;
+        mBlendDst = NO_VALUE;
+        mBoundTexture = NO_VALUE;
+    }
+
+    /**
+     * Disable everything which is or might be enabled, so that {@link #reset()} holds afterwards.
+     */
+    public void restoreDefaults(GL10 gl) {
+        for (int i = 0; i < mNumKeys; i++) {
+            if (mClientState[i]) {
+                disableClientState(gl, mKeys[i]);
+            } else {
+                disable(gl, mKeys[i]);
+            }
+        }
+    }
+
+    /**
+     * @return number of state changing calls passed to GL since the last {@link #resetCounters()}
+     */
+    public int getIssuedCallCount() {
+        return mIssuedCalls;
+    }
+
+    /**
+     * @return number of redundant state changing calls filtered out since the last {@link #resetCounters()}
+     */
+    public int getSkippedCallCount() {
+        return mSkippedCalls;
+    }
+
+    public void resetCounters() {
+        mIssuedCalls = 0;
+        mSkippedCalls = 0;
+    }
+
+    private boolean setState(int key, boolean clientState, byte state) {
+        int index = indexOf(key);
+
+        if (index == -1) {
+            if (mNumKeys == MAX_TRACKED_STATES) {
+                // Not trackable, let it through
+                mIssuedCalls++;
+                return true;
+            }
+
+            index = mNumKeys++;
+            mKeys[index] = key;
+            mClientState[index] = clientState;
+            mStates[index] = STATE_UNKNOWN;
+        }
+
+        if (mStates[index] == state) {
+            mSkippedCalls++;
+            return false;
+        }
+
+        mStates[index] = state;
+        mIssuedCalls++;
+        return true;
+    }
+
+    private int indexOf(int key) {
+        for (int i = 0; i < mNumKeys; i++) {
+            if (mKeys[i] == key) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.ykrapiva.eventmap.gl;
+
+import com.android.texample.GLText;
+
+import javax.microedition.khronos.opengles.GL10;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Fonts shared by everything drawing text in a GL context, one {@link GLText} per size, reference counted.
+ * Fonts no longer used are kept uploaded, up to {@link #setMaxUnusedFonts(int) a limit}, the least recently used
+ * ones are deleted beyond it.
+ * <p/>
+ * Fonts of a lost or released context keep their rendered glyphs, and the next context to ask for a font
+ * of the same size takes it over with a straight texture upload. Must only be used from GL threads,
+ * see {@link #invalidate(GL10)} and {@link #release(GL10)} for the context lifecycle.
+ */
+public final class GLTextRegistry {
+    public static final int DEFAULT_MAX_UNUSED_FONTS = 8;
+
+    private static class Entry {
+        final int size;
+        final GLText glText;
+        int refCount;
+
+        Entry(int size, GLText glText) {
+            this.size = size;
+            this.glText = glText;
+        }
+    }
+
+    private static class Fonts {
+        final Map<Integer, Entry> entries = new HashMap<Integer, Entry>();
+        // Entries nobody refers to, least recently used first
+        final List<Entry> unused = new ArrayList<Entry>();
+    }
+
+    // Fonts by the GL of their context
+    private static final Map<GL10, Fonts> sFonts = new WeakHashMap<GL10, Fonts>();
+    // Fonts without a texture waiting for a context to take them over, least recently detached first
+    private static final List<Entry> sDetached = new ArrayList<Entry>();
+    private static int sMaxUnusedFonts = DEFAULT_MAX_UNUSED_FONTS;
+
+    private GLTextRegistry() {
+    }
+
+    /**
+     * @param maxUnusedFonts How many fonts to keep per context and for the next context when nothing uses them
+     */
+    public static synchronized void setMaxUnusedFonts(int maxUnusedFonts) {
+        if (maxUnusedFonts < 0) {
+            throw new IllegalArgumentException("Max unused fonts must not be negative: " + maxUnusedFonts);
+        }
+        sMaxUnusedFonts = maxUnusedFonts;
+    }
+
+    /**
+     * @return font of the size in the GL's context, rendered only if there's no such font yet.
+     * Has to be {@link #release(GL10, GLText) released} when no longer used.
+     */
+    public static synchronized GLText acquire(GL10 gl, int size) {
+        Fonts fonts = sFonts.get(gl);
+        if (fonts == null) {
+            fonts = new Fonts();
+            sFonts.put(gl, fonts);
+        }
+
+        Entry entry = fonts.entries.get(size);
+        if (entry == null) {
+            entry = takeDetached(size);
+            if (entry != null) {
+                entry.glText.upload(gl);
+            } else {
+                GLText glText = new GLText(gl);
+                glText.load(size, 0, 0);
+                entry = new Entry(size, glText);
+            }
+            fonts.entries.put(size, entry);
+        }
+
+        if (entry.refCount++ == 0) {
+            fonts.unused.remove(entry);
+        }
+        return entry.glText;
+    }
+
+    /**
+     * Gives up a font obtained with {@link #acquire(GL10, int)}. Fonts of other or lost contexts are ignored.
+     */
+    public static synchronized void release(GL10 gl, GLText glText) {
+        Fonts fonts = sFonts.get(gl);
+        Entry entry = fonts != null ? find(fonts, glText) : null;
+        if (entry == null || entry.refCount == 0) {
+            return;
+        }
+
+        if (--entry.refCount == 0) {
+            fonts.unused.add(entry);
+            while (fonts.unused.size() > sMaxUnusedFonts) {
+                Entry evicted = fonts.unused.remove(0);
+                fonts.entries.remove(evicted.size);
+                evicted.glText.destroy(gl);
+            }
+        }
+    }
+
+    /**
+     * Gives up a font like {@link #release(GL10, GLText)} does, but where the context isn't current.
+     * Nothing is deleted, the font is left for the context's next release to evict.
+     */
+    public static synchronized void forget(GL10 gl, GLText glText) {
+        Fonts fonts = sFonts.get(gl);
+        Entry entry = fonts != null ? find(fonts, glText) : null;
+        if (entry != null && entry.refCount > 0 && --entry.refCount == 0) {
+            fonts.unused.add(entry);
+        }
+    }
+
+    /**
+     * Forget the context's textures, e.g. after GL context loss. Fonts are taken over by the next context.
+     */
+    public static synchronized void invalidate(GL10 gl) {
+        Fonts fonts = sFonts.remove(gl);
+        if (fonts == null) {
+            return;
+        }
+
+        for (Entry entry : fonts.entries.values()) {
+            entry.glText.releaseTexture(null);
+            detach(entry);
+        }
+    }
+
+    /**
+     * Delete textures of the fonts nobody uses, e.g. before the context goes away.
+     * Fonts are kept for the next upload. Has to be called with the GL of the context.
+     */
+    public static synchronized void release(GL10 gl) {
+        Fonts fonts = sFonts.get(gl);
+        if (fonts == null) {
+            return;
+        }
+
+        for (Entry entry : fonts.unused) {
+            fonts.entries.remove(entry.size);
+            entry.glText.releaseTexture(gl);
+            detach(entry);
+        }
+        fonts.unused.clear();
+    }
+
+    private static Entry find(Fonts fonts, GLText glText) {
+        for (Entry entry : fonts.entries.values()) {
+            if (entry.glText == glText) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static void detach(Entry entry) {
+        entry.refCount = 0;
+
+        Entry replaced = takeDetached(entry.size);
+        if (replaced != null) {
+            replaced.glText.destroy(null);
+        }
+
+        sDetached.add(entry);
+        while (sDetached.size() > sMaxUnusedFonts) {
+            sDetached.remove(0).glText.destroy(null);
+        }
+    }
+
+    private static Entry takeDetached(int size) {
+        for (int i = 0; i < sDetached.size(); i++) {
+            if (sDetached.get(i).size == size) {
+                return sDetached.remove(i);
+            }
+        }
+        return null;
+    }
+}
@@ -1,11 +1,15 @@
 package com.github.ykrapiva.eventmap.gl;
 
+import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.opengl.ETC1Util;
 
 import javax.microedition.khronos.egl.EGL10;
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.egl.EGLContext;
 import javax.microedition.khronos.egl.EGLDisplay;
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
 
 public class GLUtils {
     private GLUtils() {
@@ -64,4 +68,104 @@ public class GLUtils {
         // Return largest texture size found, or default
         return Math.max(maximumTextureSize, IMAGE_MAX_BITMAP_DIMENSION);
     }
+
+    /**
+     * @return true if the context implements OpenGL ES 1.1 (buffer objects, automatic mipmap generation)
+     */
+    public static boolean isGL11(GL10 gl) {
+        if (!(gl instanceof GL11)) {
+            return false;
+        }
+        if (gl instanceof MatrixTrackingGL && !((MatrixTrackingGL) gl).wrapsGL11()) {
+            return false;
+        }
+
+        String version = gl.glGetString(GL10.GL_VERSION);
+        return version != null && !version.contains("1.0");
+    }
+
+    /**
+     * Upload bitmap into the currently bound 2D texture and set up linear filtering.
+     *
+     * @param mipmaps Whether to generate a full chain of mipmaps, so that minified texture doesn't shimmer
+     * @return estimated bytes of texture memory taken, see {@link ResourceAccounting}
+     */
+    public static int texImage2D(GL10 gl, Bitmap bitmap, boolean mipmaps) {
+        int bytes = getByteCount(bitmap);
+
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, mipmaps ? GL10.GL_LINEAR_MIPMAP_LINEAR : GL10.GL_LINEAR);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
+
+        if (mipmaps && isGL11(gl)) {
+            // Let the driver build the chain
+            gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL11.GL_GENERATE_MIPMAP, GL10.GL_TRUE);
+            android.opengl.GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, bitmap, 0);
+            // Every level is a quarter of the previous one
+            return bytes + bytes / 3;
+        }
+
+        android.opengl.GLUtils.texImage2D(GL10.GL_TEXTURE_2D, 0, bitmap, 0);
+
+        if (mipmaps) {
+            // OpenGL ES 1.0 has no automatic generation, downscale level by level
+            Bitmap level = bitmap;
+            int width = bitmap.getWidth();
+            int height = bitmap.getHeight();
+
+            for (int i = 1; width > 1 || height > 1; i++) {
+                width = Math.max(1, width / 2);
+                height = Math.max(1, height / 2);
+
+                Bitmap nextLevel = Bitmap.createScaledBitmap(level, width, height, true);
+                android.opengl.GLUtils.texImage2D(GL10.GL_TEXTURE_2D, i, nextLevel, 0);
+                bytes += getByteCount(nextLevel);
+
+                if (level != bitmap) {
+                    level.recycle();
+                }
+                level = nextLevel;
+            }
+
+            if (level != bitmap) {
+                level.recycle();
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Upload ETC1 compressed image levels into the currently bound 2D texture and set up linear filtering.
+     * Mipmapping is turned on if the levels make up a complete chain down to 1x1.
+     * Images are decompressed into RGB565 if the device doesn't support ETC1.
+     *
+     * @param levels Image levels, starting from the largest one
+     * @return estimated bytes of texture memory taken, see {@link ResourceAccounting}
+     */
+    public static int compressedTexImage2D(GL10 gl, ETC1Util.ETC1Texture[] levels) {
+        int maxDimension = Math.max(levels[0].getWidth(), levels[0].getHeight());
+        boolean mipmaps = levels.length > 1 && levels.length == 32 - Integer.numberOfLeadingZeros(maxDimension);
+
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, mipmaps ? GL10.GL_LINEAR_MIPMAP_LINEAR : GL10.GL_LINEAR);
+        gl.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MAG_FILTER, GL10.GL_LINEAR);
+
+        boolean compressed = ETC1Util.isETC1Supported();
+        int bytes = 0;
+
+        int numLevels = mipmaps ? levels.length : 1;
+        for (int level = 0; level < numLevels; level++) {
+            ETC1Util.loadTexture(GL10.GL_TEXTURE_2D, level, 0, GL10.GL_RGB, GL10.GL_UNSIGNED_SHORT_5_6_5, levels[level]);
+            bytes += compressed ? levels[level].getData().capacity() : levels[level].getWidth() * levels[level].getHeight() * 2;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * @return bytes of the bitmap's pixels, which is also what its texture takes
+     */
+    public static int getByteCount(Bitmap bitmap) {
+        // Bitmap.getByteCount() is API 12
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
 }
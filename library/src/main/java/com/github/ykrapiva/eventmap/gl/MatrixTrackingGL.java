@@ -41,6 +41,10 @@ public class MatrixTrackingGL implements GL, GL10, GL10Ext, GL11, GL11Ext {
     private MatrixStack mTexture;
     private MatrixStack mProjection;
 
+    // Totals since creation, read by frame metrics
+    private int mDrawCallCount;
+    private int mVertexCount;
+
     private final static boolean _check = false;
     ByteBuffer mByteBuffer;
     FloatBuffer mFloatBuffer;
@@ -65,6 +69,27 @@ public class MatrixTrackingGL implements GL, GL10, GL10Ext, GL11, GL11Ext {
         mMatrixMode = GL10.GL_MODELVIEW;
     }
 
+    /**
+     * @return false if the wrapped GL is not a GL11, so that GL11 methods of the wrapper can't be called
+     */
+    boolean wrapsGL11() {
+        return mgl11 != null;
+    }
+
+    /**
+     * @return number of glDrawArrays and glDrawElements calls made through the wrapper
+     */
+    public int getDrawCallCount() {
+        return mDrawCallCount;
+    }
+
+    /**
+     * @return number of vertices, or indices for indexed draws, submitted through the wrapper
+     */
+    public int getVertexCount() {
+        return mVertexCount;
+    }
+
     // ---------------------------------------------------------------------
     // GL10 methods:
 
@@ -196,10 +221,14 @@ public class MatrixTrackingGL implements GL, GL10, GL10Ext, GL11, GL11Ext {
     }
 
     public void glDrawArrays(int mode, int first, int count) {
+        mDrawCallCount++;
+        mVertexCount += count;
         mgl.glDrawArrays(mode, first, count);
     }
 
     public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        mDrawCallCount++;
+        mVertexCount += count;
         mgl.glDrawElements(mode, count, type, indices);
     }
 
@@ -738,281 +767,284 @@ public class MatrixTrackingGL implements GL, GL10, GL10Ext, GL11, GL11Ext {
         return mgl10Ext.glQueryMatrixxOES(mantissa, exponent);
     }
 
-    // Unsupported GL11 methods
+    // ---------------------------------------------------------------------
+    // GL11 methods:
 
     public void glBindBuffer(int target, int buffer) {
-        throw new UnsupportedOperationException();
+        mgl11.glBindBuffer(target, buffer);
     }
 
     public void glBufferData(int target, int size, Buffer data, int usage) {
-        throw new UnsupportedOperationException();
+        mgl11.glBufferData(target, size, data, usage);
     }
 
     public void glBufferSubData(int target, int offset, int size, Buffer data) {
-        throw new UnsupportedOperationException();
+        mgl11.glBufferSubData(target, offset, size, data);
     }
 
     public void glColor4ub(byte red, byte green, byte blue, byte alpha) {
-        throw new UnsupportedOperationException();
+        mgl11.glColor4ub(red, green, blue, alpha);
     }
 
     public void glDeleteBuffers(int n, int[] buffers, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glDeleteBuffers(n, buffers, offset);
     }
 
     public void glDeleteBuffers(int n, IntBuffer buffers) {
-        throw new UnsupportedOperationException();
+        mgl11.glDeleteBuffers(n, buffers);
     }
 
     public void glGenBuffers(int n, int[] buffers, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGenBuffers(n, buffers, offset);
     }
 
     public void glGenBuffers(int n, IntBuffer buffers) {
-        throw new UnsupportedOperationException();
+        mgl11.glGenBuffers(n, buffers);
     }
 
     public void glGetBooleanv(int pname, boolean[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetBooleanv(pname, params, offset);
     }
 
     public void glGetBooleanv(int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetBooleanv(pname, params);
     }
 
     public void glGetBufferParameteriv(int target, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetBufferParameteriv(target, pname, params, offset);
     }
 
     public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetBufferParameteriv(target, pname, params);
     }
 
     public void glGetClipPlanef(int pname, float[] eqn, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetClipPlanef(pname, eqn, offset);
     }
 
     public void glGetClipPlanef(int pname, FloatBuffer eqn) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetClipPlanef(pname, eqn);
     }
 
     public void glGetClipPlanex(int pname, int[] eqn, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetClipPlanex(pname, eqn, offset);
     }
 
     public void glGetClipPlanex(int pname, IntBuffer eqn) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetClipPlanex(pname, eqn);
     }
 
     public void glGetFixedv(int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetFixedv(pname, params, offset);
     }
 
     public void glGetFixedv(int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetFixedv(pname, params);
     }
 
     public void glGetFloatv(int pname, float[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetFloatv(pname, params, offset);
     }
 
     public void glGetFloatv(int pname, FloatBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetFloatv(pname, params);
     }
 
     public void glGetLightfv(int light, int pname, float[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetLightfv(light, pname, params, offset);
     }
 
     public void glGetLightfv(int light, int pname, FloatBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetLightfv(light, pname, params);
     }
 
     public void glGetLightxv(int light, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetLightxv(light, pname, params, offset);
     }
 
     public void glGetLightxv(int light, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetLightxv(light, pname, params);
     }
 
     public void glGetMaterialfv(int face, int pname, float[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetMaterialfv(face, pname, params, offset);
     }
 
     public void glGetMaterialfv(int face, int pname, FloatBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetMaterialfv(face, pname, params);
     }
 
     public void glGetMaterialxv(int face, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetMaterialxv(face, pname, params, offset);
     }
 
     public void glGetMaterialxv(int face, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetMaterialxv(face, pname, params);
     }
 
     public void glGetTexEnviv(int env, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexEnviv(env, pname, params, offset);
     }
 
     public void glGetTexEnviv(int env, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexEnviv(env, pname, params);
     }
 
     public void glGetTexEnvxv(int env, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexEnvxv(env, pname, params, offset);
     }
 
     public void glGetTexEnvxv(int env, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexEnvxv(env, pname, params);
     }
 
     public void glGetTexParameterfv(int target, int pname, float[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexParameterfv(target, pname, params, offset);
     }
 
     public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexParameterfv(target, pname, params);
     }
 
     public void glGetTexParameteriv(int target, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexParameteriv(target, pname, params, offset);
     }
 
     public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexParameteriv(target, pname, params);
     }
 
     public void glGetTexParameterxv(int target, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexParameterxv(target, pname, params, offset);
     }
 
     public void glGetTexParameterxv(int target, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetTexParameterxv(target, pname, params);
     }
 
     public boolean glIsBuffer(int buffer) {
-        throw new UnsupportedOperationException();
+        return mgl11.glIsBuffer(buffer);
     }
 
     public boolean glIsEnabled(int cap) {
-        throw new UnsupportedOperationException();
+        return mgl11.glIsEnabled(cap);
     }
 
     public boolean glIsTexture(int texture) {
-        throw new UnsupportedOperationException();
+        return mgl11.glIsTexture(texture);
     }
 
     public void glPointParameterf(int pname, float param) {
-        throw new UnsupportedOperationException();
+        mgl11.glPointParameterf(pname, param);
     }
 
     public void glPointParameterfv(int pname, float[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glPointParameterfv(pname, params, offset);
     }
 
     public void glPointParameterfv(int pname, FloatBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glPointParameterfv(pname, params);
     }
 
     public void glPointParameterx(int pname, int param) {
-        throw new UnsupportedOperationException();
+        mgl11.glPointParameterx(pname, param);
     }
 
     public void glPointParameterxv(int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glPointParameterxv(pname, params, offset);
     }
 
     public void glPointParameterxv(int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glPointParameterxv(pname, params);
     }
 
     public void glPointSizePointerOES(int type, int stride, Buffer pointer) {
-        throw new UnsupportedOperationException();
+        mgl11.glPointSizePointerOES(type, stride, pointer);
     }
 
     public void glTexEnvi(int target, int pname, int param) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexEnvi(target, pname, param);
     }
 
     public void glTexEnviv(int target, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexEnviv(target, pname, params, offset);
     }
 
     public void glTexEnviv(int target, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexEnviv(target, pname, params);
     }
 
     public void glTexParameterfv(int target, int pname, float[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexParameterfv(target, pname, params, offset);
     }
 
     public void glTexParameterfv(int target, int pname, FloatBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexParameterfv(target, pname, params);
     }
 
     public void glTexParameteri(int target, int pname, int param) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexParameteri(target, pname, param);
     }
 
     public void glTexParameterxv(int target, int pname, int[] params, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexParameterxv(target, pname, params, offset);
     }
 
     public void glTexParameterxv(int target, int pname, IntBuffer params) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexParameterxv(target, pname, params);
     }
 
     public void glColorPointer(int size, int type, int stride, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glColorPointer(size, type, stride, offset);
     }
 
     public void glDrawElements(int mode, int count, int type, int offset) {
-        throw new UnsupportedOperationException();
+        mDrawCallCount++;
+        mVertexCount += count;
+        mgl11.glDrawElements(mode, count, type, offset);
     }
 
     public void glGetPointerv(int pname, Buffer[] params) {
-        throw new UnsupportedOperationException();
+        mgl11.glGetPointerv(pname, params);
     }
 
     public void glNormalPointer(int type, int stride, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glNormalPointer(type, stride, offset);
     }
 
     public void glTexCoordPointer(int size, int type, int stride, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glTexCoordPointer(size, type, stride, offset);
     }
 
     public void glVertexPointer(int size, int type, int stride, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11.glVertexPointer(size, type, stride, offset);
     }
 
     public void glCurrentPaletteMatrixOES(int matrixpaletteindex) {
-        throw new UnsupportedOperationException();
+        mgl11Ext.glCurrentPaletteMatrixOES(matrixpaletteindex);
     }
 
     public void glLoadPaletteFromModelViewMatrixOES() {
-        throw new UnsupportedOperationException();
+        mgl11Ext.glLoadPaletteFromModelViewMatrixOES();
     }
 
     public void glMatrixIndexPointerOES(int size, int type, int stride,
                                         Buffer pointer) {
-        throw new UnsupportedOperationException();
+        mgl11Ext.glMatrixIndexPointerOES(size, type, stride, pointer);
     }
 
     public void glMatrixIndexPointerOES(int size, int type, int stride,
                                         int offset) {
-        throw new UnsupportedOperationException();
+        mgl11Ext.glMatrixIndexPointerOES(size, type, stride, offset);
     }
 
     public void glWeightPointerOES(int size, int type, int stride,
                                    Buffer pointer) {
-        throw new UnsupportedOperationException();
+        mgl11Ext.glWeightPointerOES(size, type, stride, pointer);
     }
 
     public void glWeightPointerOES(int size, int type, int stride, int offset) {
-        throw new UnsupportedOperationException();
+        mgl11Ext.glWeightPointerOES(size, type, stride, offset);
     }
 
     /**
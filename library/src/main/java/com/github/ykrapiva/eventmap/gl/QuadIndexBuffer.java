@@ -0,0 +1,175 @@
+package com.github.ykrapiva.eventmap.gl;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Index buffer shared by everything that draws quads: four vertices per quad, two triangles {0, 1, 2, 0, 2, 3}
+ * offset by 4 for every next quad. It's grown on demand and, where OpenGL ES 1.1 is available,
+ * uploaded once per context as an element buffer object.
+ * <p/>
+ * Must only be used from GL threads. Buffer objects belong to the contexts they were created in,
+ * use {@link #invalidate(GL10)} when a context is lost and {@link #release(GL10)} before it goes away.
+ */
+public final class QuadIndexBuffer {
+    // Vertices are addressed with unsigned short indices
+    public static final int MAX_QUADS = 65536 / 4;
+
+    private static final int INDICES_PER_QUAD = 6;
+    private static final int VERTICES_PER_QUAD = 4;
+    private static final int SHORT_SIZE_IN_BYTES = 2;
+    private static final int MIN_QUADS = 64;
+
+    private static class ElementBuffer {
+        final boolean useBufferObject;
+        int id = -1;
+        int capacity;
+
+        ElementBuffer(boolean useBufferObject) {
+            this.useBufferObject = useBufferObject;
+        }
+    }
+
+    // Client side indices, shared by all contexts
+    private static ShortBuffer sIndices;
+    private static int sCapacity;
+
+    // Element buffer objects by the GL of their context
+    private static final Map<GL10, ElementBuffer> sBuffers = new WeakHashMap<GL10, ElementBuffer>();
+
+    private QuadIndexBuffer() {
+    }
+
+    /**
+     * Draws quads from the currently set up vertex arrays as triangles.
+     *
+     * @param firstQuad Index of the first quad in the vertex arrays
+     * @param numQuads  Number of quads to draw, {@code firstQuad + numQuads} must not exceed {@link #MAX_QUADS}
+     */
+    public static synchronized void draw(GL10 gl, int firstQuad, int numQuads) {
+        if (numQuads <= 0) {
+            return;
+        }
+
+        ensureCapacity(firstQuad + numQuads);
+
+        int first = firstQuad * INDICES_PER_QUAD;
+        int count = numQuads * INDICES_PER_QUAD;
+
+        ElementBuffer buffer = sBuffers.get(gl);
+        if (buffer == null) {
+            buffer = new ElementBuffer(GLUtils.isGL11(gl));
+            sBuffers.put(gl, buffer);
+        }
+
+        if (buffer.useBufferObject) {
+            GL11 gl11 = (GL11) gl;
+
+            if (buffer.id == -1) {
+                int[] buffers = new int[1];
+                gl11.glGenBuffers(1, buffers, 0);
+                buffer.id = buffers[0];
+                buffer.capacity = 0;
+            }
+
+            gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, buffer.id);
+
+            if (buffer.capacity != sCapacity) {
+                sIndices.position(0);
+                gl11.glBufferData(GL11.GL_ELEMENT_ARRAY_BUFFER, getBytes(sCapacity), sIndices, GL11.GL_STATIC_DRAW);
+                releaseBufferBytes(buffer);
+                buffer.capacity = sCapacity;
+                ResourceAccounting.allocated(ResourceAccounting.Kind.BUFFER_OBJECT, getBytes(buffer.capacity));
+            }
+
+            gl11.glDrawElements(GL10.GL_TRIANGLES, count, GL10.GL_UNSIGNED_SHORT, first * SHORT_SIZE_IN_BYTES);
+
+            // Client side index arrays stay usable
+            gl11.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, 0);
+        } else {
+            sIndices.position(first);
+            gl.glDrawElements(GL10.GL_TRIANGLES, count, GL10.GL_UNSIGNED_SHORT, sIndices);
+        }
+    }
+
+    /**
+     * Forget the context's buffer object, e.g. after GL context loss. Buffers of other contexts are kept.
+     */
+    public static synchronized void invalidate(GL10 gl) {
+        ElementBuffer buffer = sBuffers.remove(gl);
+        if (buffer != null) {
+            releaseBufferBytes(buffer);
+        }
+    }
+
+    /**
+     * Delete the context's buffer object, it's created again on the next draw. Has to be called with the GL of the context.
+     */
+    public static synchronized void release(GL10 gl) {
+        ElementBuffer buffer = sBuffers.remove(gl);
+        if (buffer == null) {
+            return;
+        }
+
+        if (buffer.id != -1) {
+            ((GL11) gl).glDeleteBuffers(1, new int[]{buffer.id}, 0);
+        }
+        releaseBufferBytes(buffer);
+    }
+
+    private static void releaseBufferBytes(ElementBuffer buffer) {
+        if (buffer.capacity != 0) {
+            ResourceAccounting.released(ResourceAccounting.Kind.BUFFER_OBJECT, getBytes(buffer.capacity));
+            buffer.capacity = 0;
+        }
+    }
+
+    private static int getBytes(int numQuads) {
+        return numQuads * INDICES_PER_QUAD * SHORT_SIZE_IN_BYTES;
+    }
+
+    private static void ensureCapacity(int numQuads) {
+        if (numQuads > MAX_QUADS) {
+            throw new IllegalArgumentException("Can't index more than " + MAX_QUADS + " quads, requested " + numQuads);
+        }
+
+        if (numQuads <= sCapacity) {
+            return;
+        }
+
+        int capacity = Math.max(sCapacity, MIN_QUADS);
+        while (capacity < numQuads) {
+            capacity *= 2;
+        }
+        capacity = Math.min(capacity, MAX_QUADS);
+
+        ShortBuffer indices = ByteBuffer.allocateDirect(getBytes(capacity))
+                .order(ByteOrder.nativeOrder()).asShortBuffer();
+
+        for (int quad = 0; quad < capacity; quad++) {
+            int vertex = quad * VERTICES_PER_QUAD;
+            indices.put((short) vertex);
+            indices.put((short) (vertex + 1));
+            indices.put((short) (vertex + 2));
+            indices.put((short) vertex);
+            indices.put((short) (vertex + 2));
+            indices.put((short) (vertex + 3));
+        }
+
+        indices.position(0);
+
+        // The previous buffer is left to the garbage collector
+        if (sIndices != null) {
+            ResourceAccounting.released(ResourceAccounting.Kind.DIRECT_BUFFER, getBytes(sCapacity));
+        }
+        ResourceAccounting.allocated(ResourceAccounting.Kind.DIRECT_BUFFER, getBytes(capacity));
+
+        sIndices = indices;
+        sCapacity = capacity;
+    }
+}
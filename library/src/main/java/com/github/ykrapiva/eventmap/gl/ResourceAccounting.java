@@ -0,0 +1,161 @@
+package com.github.ykrapiva.eventmap.gl;
+
+import android.util.Log;
+
+/**
+ * Process wide account of memory held by event maps outside of the Java heap: direct buffers,
+ * textures and buffer objects. Owners report bytes as they create and delete resources,
+ * textures are estimated from the uploaded image sizes.
+ * <p/>
+ * A warning is logged, and the {@link Listener} is called, every time the total goes over the budget.
+ */
+public final class ResourceAccounting {
+    private static final String TAG = ResourceAccounting.class.getSimpleName();
+
+    public enum Kind {
+        /**
+         * Native memory of {@link java.nio.ByteBuffer#allocateDirect(int) direct buffers}
+         */
+        DIRECT_BUFFER,
+        TEXTURE,
+        /**
+         * Vertex and element buffer objects
+         */
+        BUFFER_OBJECT
+    }
+
+    public interface Listener {
+        /**
+         * Called on the thread that allocated the resource, mostly the GL thread, must not block.
+         */
+        void onBudgetExceeded(long totalBytes, long budgetBytes);
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private static final long[] sBytes = new long[KINDS.length];
+    private static final long[] sPeakBytes = new long[KINDS.length];
+    private static final int[] sCounts = new int[KINDS.length];
+    private static long sTotalBytes;
+    private static long sPeakTotalBytes;
+
+    private static long sBudgetBytes;
+    private static boolean sOverBudget;
+    private static volatile Listener sListener;
+
+    private ResourceAccounting() {
+    }
+
+    /**
+     * @param bytes Budget for the total of all kinds, 0 for none
+     */
+    public static synchronized void setBudget(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + bytes);
+        }
+        sBudgetBytes = bytes;
+        // Warn again if still over the new budget
+        sOverBudget = false;
+    }
+
+    public static synchronized long getBudget() {
+        return sBudgetBytes;
+    }
+
+    public static void setListener(Listener listener) {
+        sListener = listener;
+    }
+
+    public static synchronized long getBytes(Kind kind) {
+        return sBytes[kind.ordinal()];
+    }
+
+    public static synchronized long getPeakBytes(Kind kind) {
+        return sPeakBytes[kind.ordinal()];
+    }
+
+    /**
+     * @return number of live resources of the kind
+     */
+    public static synchronized int getCount(Kind kind) {
+        return sCounts[kind.ordinal()];
+    }
+
+    public static synchronized long getTotalBytes() {
+        return sTotalBytes;
+    }
+
+    public static synchronized long getPeakTotalBytes() {
+        return sPeakTotalBytes;
+    }
+
+    /**
+     * Starts tracking peaks from the current values.
+     */
+    public static synchronized void resetPeaks() {
+        for (int i = 0; i < KINDS.length; i++) {
+            sPeakBytes[i] = sBytes[i];
+        }
+        sPeakTotalBytes = sTotalBytes;
+    }
+
+    /**
+     * Records a created resource.
+     */
+    public static void allocated(Kind kind, long bytes) {
+        long totalBytes;
+        long budgetBytes;
+
+        synchronized (ResourceAccounting.class) {
+            int i = kind.ordinal();
+            sBytes[i] += bytes;
+            sPeakBytes[i] = Math.max(sPeakBytes[i], sBytes[i]);
+            sCounts[i]++;
+            sTotalBytes += bytes;
+            sPeakTotalBytes = Math.max(sPeakTotalBytes, sTotalBytes);
+
+            if (sBudgetBytes == 0 || sTotalBytes <= sBudgetBytes || sOverBudget) {
+                return;
+            }
+
+            sOverBudget = true;
+            totalBytes = sTotalBytes;
+            budgetBytes = sBudgetBytes;
+        }
+
+        Log.w(TAG, "Event map resources take " + totalBytes + " bytes, over the budget of " + budgetBytes + ": " + summary());
+
+        Listener listener = sListener;
+        if (listener != null) {
+            listener.onBudgetExceeded(totalBytes, budgetBytes);
+        }
+    }
+
+    /**
+     * Records a deleted resource, or one that's gone with its GL context.
+     */
+    public static synchronized void released(Kind kind, long bytes) {
+        int i = kind.ordinal();
+        sBytes[i] -= bytes;
+        sCounts[i]--;
+        sTotalBytes -= bytes;
+
+        if (sTotalBytes <= sBudgetBytes) {
+            sOverBudget = false;
+        }
+    }
+
+    /**
+     * @return current and peak bytes of every kind
+     */
+    public static synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < KINDS.length; i++) {
+            sb.append(KINDS[i].name().toLowerCase()).append(": ").append(sBytes[i])
+                    .append(" in ").append(sCounts[i])
+                    .append(" (peak ").append(sPeakBytes[i]).append("), ");
+        }
+        sb.append("total: ").append(sTotalBytes).append(" (peak ").append(sPeakTotalBytes).append(')');
+        return sb.toString();
+    }
+}
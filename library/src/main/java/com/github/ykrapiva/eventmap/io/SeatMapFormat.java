@@ -0,0 +1,50 @@
+package com.github.ykrapiva.eventmap.io;
+
+/**
+ * Compact binary seat map format.
+ * <p/>
+ * A file starts with a header: magic "EVMP", format version, map width and height (varints).
+ * It's followed by blocks of up to {@link #MAX_BLOCK_SEATS} seats and a zero length terminator.
+ * A block is a varint byte length followed by:
+ * <ul>
+ * <li>number of seats</li>
+ * <li>colors and titles first used in the block, appended to the dictionaries shared by all blocks</li>
+ * <li>columns of seat attributes: id, type, x, y, width, height, group as zigzag varint deltas from the previous seat
+ * of the block; color and title as dictionary indices; status as varint</li>
+ * </ul>
+ * Columns keep values of the same kind together and deltas of neighbouring seats are small, so most values fit into a byte.
+ * <p/>
+ * Titles are at most {@link #MAX_TITLE_LENGTH} bytes of UTF-8, dictionaries hold at most {@link #MAX_DICTIONARY_SIZE} entries.
+ */
+final class SeatMapFormat {
+    static final int MAGIC = 0x45564d50;
+    static final int VERSION = 1;
+    static final int MAX_BLOCK_SEATS = 1024;
+    static final int MAX_TITLE_LENGTH = 256;
+    static final int MAX_DICTIONARY_SIZE = 1 << 20;
+
+    // Seat count and dictionary sizes, then per seat a new color and title at most, a long id and nine int columns
+    static final int MAX_BLOCK_LENGTH = 3 * 5 + MAX_BLOCK_SEATS * (4 + 5 + MAX_TITLE_LENGTH + 10 + 9 * 5);
+
+    // Title index written for seats without a title, real indices are shifted by one
+    static final int NO_TITLE = 0;
+
+    private SeatMapFormat() {
+    }
+
+    static int zigzagEncode(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int zigzagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,320 @@
+package com.github.ykrapiva.eventmap.io;
+
+import com.github.ykrapiva.eventmap.EventMap;
+import com.github.ykrapiva.eventmap.EventMapFigure;
+import com.github.ykrapiva.eventmap.FigureType;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams seats out of the {@link SeatMapFormat binary seat map format} a block at a time,
+ * so that memory use doesn't depend on the map size. Seats are handed out through a single reused {@link SeatRecord}.
+ * <pre>
+ * SeatMapReader reader = new SeatMapReader(in);
+ * EventMap&lt;MyFigure&gt; eventMap = new EventMap&lt;MyFigure&gt;(reader.getMapWidth(), reader.getMapHeight());
+ * reader.readInto(eventMap, factory);
+ * reader.close();
+ * </pre>
+ * Truncated or corrupted streams fail with an {@link IOException}.
+ */
+public class SeatMapReader implements Closeable {
+    private static final int MAX_BLOCK_SEATS = SeatMapFormat.MAX_BLOCK_SEATS;
+    private static final FigureType[] FIGURE_TYPES = FigureType.values();
+
+    /**
+     * Receives every seat read.
+     */
+    public interface SeatListener {
+        void onSeat(SeatRecord record);
+    }
+
+    /**
+     * Creates figures for seats added to an event map.
+     */
+    public interface FigureFactory<T extends EventMapFigure> {
+        /**
+         * @return figure for the seat, or null to skip it
+         */
+        T createFigure(SeatRecord record);
+    }
+
+    private final InputStream mIn;
+    private final int mMapWidth;
+    private final int mMapHeight;
+
+    private final SeatRecord mRecord = new SeatRecord();
+    private final List<Integer> mColors = new ArrayList<Integer>();
+    private final List<String> mTitles = new ArrayList<String>();
+
+    private byte[] mBlock = new byte[4096];
+    private int mPosition;
+    private int mLimit;
+
+    // Columns of the current block
+    private final long[] mIds = new long[MAX_BLOCK_SEATS];
+    private final int[] mTypes = new int[MAX_BLOCK_SEATS];
+    private final int[] mXs = new int[MAX_BLOCK_SEATS];
+    private final int[] mYs = new int[MAX_BLOCK_SEATS];
+    private final int[] mWidths = new int[MAX_BLOCK_SEATS];
+    private final int[] mHeights = new int[MAX_BLOCK_SEATS];
+    private final int[] mGroups = new int[MAX_BLOCK_SEATS];
+
+    // Positions of the next value in columns decoded seat by seat
+    private int mColorColumn;
+    private int mTitleColumn;
+    private int mStatusColumn;
+
+    /**
+     * Reads the header right away.
+     *
+     * @param in Stream to read from, buffering is not needed
+     */
+    public SeatMapReader(InputStream in) throws IOException {
+        this.mIn = in;
+
+        int magic = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        if (magic != SeatMapFormat.MAGIC) {
+            throw new IOException("Not a seat map");
+        }
+
+        int version = (int) readStreamVarint(Integer.MAX_VALUE);
+        if (version != SeatMapFormat.VERSION) {
+            throw new IOException("Unsupported seat map version " + version);
+        }
+
+        mMapWidth = (int) readStreamVarint(Integer.MAX_VALUE);
+        mMapHeight = (int) readStreamVarint(Integer.MAX_VALUE);
+    }
+
+    public int getMapWidth() {
+        return mMapWidth;
+    }
+
+    public int getMapHeight() {
+        return mMapHeight;
+    }
+
+    /**
+     * Reads all the remaining seats.
+     */
+    public void read(SeatListener listener) throws IOException {
+        int numSeats;
+        while ((numSeats = readBlock()) > 0) {
+            for (int i = 0; i < numSeats; i++) {
+                decodeSeat(i);
+                listener.onSeat(mRecord);
+            }
+        }
+    }
+
+    /**
+     * Reads all the remaining seats into the event map, adding them a block at a time.
+     */
+    public <T extends EventMapFigure> void readInto(EventMap<T> eventMap, FigureFactory<T> factory) throws IOException {
+        List<T> figures = new ArrayList<T>(MAX_BLOCK_SEATS);
+
+        int numSeats;
+        while ((numSeats = readBlock()) > 0) {
+            for (int i = 0; i < numSeats; i++) {
+                decodeSeat(i);
+                T figure = factory.createFigure(mRecord);
+                if (figure != null) {
+                    figures.add(figure);
+                }
+            }
+
+            eventMap.add(figures);
+            figures.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mIn.close();
+    }
+
+    /**
+     * Reads the next block and decodes the columns which are delta coded.
+     *
+     * @return number of seats in the block, 0 at the end
+     */
+    private int readBlock() throws IOException {
+        int length = (int) readStreamVarint(SeatMapFormat.MAX_BLOCK_LENGTH);
+        if (length == 0) {
+            return 0;
+        }
+
+        if (length > mBlock.length) {
+            mBlock = new byte[Math.max(length, mBlock.length * 2)];
+        }
+
+        for (int read = 0; read < length; ) {
+            int count = mIn.read(mBlock, read, length - read);
+            if (count == -1) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+
+        mPosition = 0;
+        mLimit = length;
+
+        int numSeats = readCount(MAX_BLOCK_SEATS, "seats");
+        if (numSeats == 0) {
+            throw corrupted("empty block");
+        }
+
+        // Blocks only add entries their seats use
+        int numColors = readCount(Math.min(numSeats, SeatMapFormat.MAX_DICTIONARY_SIZE - mColors.size()), "colors");
+        for (; numColors > 0; numColors--) {
+            mColors.add(readInt());
+        }
+
+        int numTitles = readCount(Math.min(numSeats, SeatMapFormat.MAX_DICTIONARY_SIZE - mTitles.size()), "titles");
+        for (; numTitles > 0; numTitles--) {
+            int titleLength = readCount(Math.min(SeatMapFormat.MAX_TITLE_LENGTH, mLimit - mPosition), "title length");
+            mTitles.add(new String(mBlock, mPosition, titleLength, "UTF-8"));
+            mPosition += titleLength;
+        }
+
+        long id = 0;
+        for (int i = 0; i < numSeats; i++) {
+            id += SeatMapFormat.zigzagDecode(readVarint());
+            mIds[i] = id;
+        }
+
+        readDeltas(mTypes, numSeats);
+        for (int i = 0; i < numSeats; i++) {
+            if (mTypes[i] < 0 || mTypes[i] >= FIGURE_TYPES.length) {
+                throw corrupted("figure type " + mTypes[i]);
+            }
+        }
+        readDeltas(mXs, numSeats);
+        readDeltas(mYs, numSeats);
+        readDeltas(mWidths, numSeats);
+        readDeltas(mHeights, numSeats);
+
+        // Color, title, group and status columns follow, they are decoded seat by seat
+        mColorColumn = mPosition;
+        skipVarints(numSeats);
+        mTitleColumn = mPosition;
+        skipVarints(numSeats);
+        readDeltas(mGroups, numSeats);
+        mStatusColumn = mPosition;
+
+        return numSeats;
+    }
+
+    private void decodeSeat(int i) throws IOException {
+        SeatRecord record = mRecord;
+        record.id = mIds[i];
+        record.type = FIGURE_TYPES[mTypes[i]];
+        record.x = mXs[i];
+        record.y = mYs[i];
+        record.width = mWidths[i];
+        record.height = mHeights[i];
+        record.group = mGroups[i];
+
+        mPosition = mColorColumn;
+        record.color = mColors.get(readCount(mColors.size() - 1, "color index"));
+        mColorColumn = mPosition;
+
+        mPosition = mTitleColumn;
+        int title = readCount(mTitles.size(), "title index");
+        record.title = title != SeatMapFormat.NO_TITLE ? mTitles.get(title - 1) : null;
+        mTitleColumn = mPosition;
+
+        mPosition = mStatusColumn;
+        record.status = (int) readVarint();
+        mStatusColumn = mPosition;
+    }
+
+    private void readDeltas(int[] column, int numSeats) throws IOException {
+        int value = 0;
+        for (int i = 0; i < numSeats; i++) {
+            value += SeatMapFormat.zigzagDecode((int) readVarint());
+            column[i] = value;
+        }
+    }
+
+    private void skipVarints(int count) throws IOException {
+        while (count > 0) {
+            if (mPosition == mLimit) {
+                throw corrupted("column past the end of a block");
+            }
+            if ((mBlock[mPosition++] & 0x80) == 0) {
+                count--;
+            }
+        }
+    }
+
+    /**
+     * @return varint of the block not greater than max
+     */
+    private int readCount(int max, String what) throws IOException {
+        long value = readVarint();
+        if (value < 0 || value > max) {
+            throw corrupted(what + " " + value);
+        }
+        return (int) value;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (mPosition == mLimit) {
+                throw corrupted("varint past the end of a block");
+            }
+            byte b = mBlock[mPosition++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw corrupted("varint too long");
+    }
+
+    private int readInt() throws IOException {
+        if (mLimit - mPosition < 4) {
+            throw corrupted("int past the end of a block");
+        }
+        int value = ((mBlock[mPosition] & 0xFF) << 24) | ((mBlock[mPosition + 1] & 0xFF) << 16) | ((mBlock[mPosition + 2] & 0xFF) << 8) | (mBlock[mPosition + 3] & 0xFF);
+        mPosition += 4;
+        return value;
+    }
+
+    /**
+     * @return varint of the stream not greater than max
+     */
+    private long readStreamVarint(int max) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0 || value > max) {
+                    throw corrupted("value " + value + " over " + max);
+                }
+                return value;
+            }
+        }
+        throw corrupted("varint too long");
+    }
+
+    private static IOException corrupted(String detail) {
+        return new IOException("Corrupted seat map: " + detail);
+    }
+
+    private int readByte() throws IOException {
+        int b = mIn.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
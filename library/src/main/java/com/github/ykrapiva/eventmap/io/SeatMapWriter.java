@@ -0,0 +1,256 @@
+package com.github.ykrapiva.eventmap.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes seats in the {@link SeatMapFormat binary seat map format}. Seats are buffered a block at a time.
+ * <pre>
+ * SeatMapWriter writer = new SeatMapWriter(out, width, height);
+ * for (...) {
+ *     writer.write(record);
+ * }
+ * writer.close();
+ * </pre>
+ */
+public class SeatMapWriter implements Closeable {
+    private static final int MAX_BLOCK_SEATS = SeatMapFormat.MAX_BLOCK_SEATS;
+
+    private final OutputStream mOut;
+    private final ByteSink mBlock = new ByteSink();
+    private final ByteSink mHeader = new ByteSink();
+
+    // Dictionaries shared by all blocks and entries added by the current block
+    private final Map<Integer, Integer> mColorIndices = new HashMap<Integer, Integer>();
+    private final Map<String, Integer> mTitleIndices = new HashMap<String, Integer>();
+    private final List<Integer> mNewColors = new ArrayList<Integer>();
+    private final List<String> mNewTitles = new ArrayList<String>();
+
+    // Columns of the current block
+    private final long[] mIds = new long[MAX_BLOCK_SEATS];
+    private final int[] mTypes = new int[MAX_BLOCK_SEATS];
+    private final int[] mXs = new int[MAX_BLOCK_SEATS];
+    private final int[] mYs = new int[MAX_BLOCK_SEATS];
+    private final int[] mWidths = new int[MAX_BLOCK_SEATS];
+    private final int[] mHeights = new int[MAX_BLOCK_SEATS];
+    private final int[] mColors = new int[MAX_BLOCK_SEATS];
+    private final int[] mTitles = new int[MAX_BLOCK_SEATS];
+    private final int[] mGroups = new int[MAX_BLOCK_SEATS];
+    private final int[] mStatuses = new int[MAX_BLOCK_SEATS];
+    private int mNumSeats;
+
+    private boolean mClosed;
+
+    public SeatMapWriter(OutputStream out, int mapWidth, int mapHeight) throws IOException {
+        this.mOut = out;
+
+        mHeader.writeInt(SeatMapFormat.MAGIC);
+        mHeader.writeVarint(SeatMapFormat.VERSION);
+        mHeader.writeVarint(mapWidth);
+        mHeader.writeVarint(mapHeight);
+        mHeader.writeTo(mOut);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the title is longer than {@link SeatMapFormat#MAX_TITLE_LENGTH} bytes of UTF-8
+     * @throws IOException if the map has more colors or titles than {@link SeatMapFormat#MAX_DICTIONARY_SIZE}
+     */
+    public void write(SeatRecord record) throws IOException {
+        if (mClosed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+
+        int colorIndex = colorIndex(record.color);
+        int titleIndex = titleIndex(record.title);
+
+        int seat = mNumSeats++;
+        mIds[seat] = record.id;
+        mTypes[seat] = record.type.ordinal();
+        mXs[seat] = record.x;
+        mYs[seat] = record.y;
+        mWidths[seat] = record.width;
+        mHeights[seat] = record.height;
+        mColors[seat] = colorIndex;
+        mTitles[seat] = titleIndex;
+        mGroups[seat] = record.group;
+        mStatuses[seat] = record.status;
+
+        if (mNumSeats == MAX_BLOCK_SEATS) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Writes buffered seats and the terminator, closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+
+        flushBlock();
+        mHeader.reset();
+        mHeader.writeVarint(0);
+        mHeader.writeTo(mOut);
+        mClosed = true;
+        mOut.close();
+    }
+
+    private int colorIndex(int color) throws IOException {
+        Integer index = mColorIndices.get(color);
+        if (index == null) {
+            if (mColorIndices.size() == SeatMapFormat.MAX_DICTIONARY_SIZE) {
+                throw new IOException("Seat map has more than " + SeatMapFormat.MAX_DICTIONARY_SIZE + " colors");
+            }
+            index = mColorIndices.size();
+            mColorIndices.put(color, index);
+            mNewColors.add(color);
+        }
+        return index;
+    }
+
+    private int titleIndex(String title) throws IOException {
+        if (title == null) {
+            return SeatMapFormat.NO_TITLE;
+        }
+
+        Integer index = mTitleIndices.get(title);
+        if (index == null) {
+            if (title.getBytes("UTF-8").length > SeatMapFormat.MAX_TITLE_LENGTH) {
+                throw new IllegalArgumentException("Title is longer than " + SeatMapFormat.MAX_TITLE_LENGTH + " bytes: " + title);
+            }
+            if (mTitleIndices.size() == SeatMapFormat.MAX_DICTIONARY_SIZE) {
+                throw new IOException("Seat map has more than " + SeatMapFormat.MAX_DICTIONARY_SIZE + " titles");
+            }
+            index = mTitleIndices.size() + 1;
+            mTitleIndices.put(title, index);
+            mNewTitles.add(title);
+        }
+        return index;
+    }
+
+    private void flushBlock() throws IOException {
+        if (mNumSeats == 0) {
+            return;
+        }
+
+        mBlock.reset();
+        mBlock.writeVarint(mNumSeats);
+
+        mBlock.writeVarint(mNewColors.size());
+        for (int color : mNewColors) {
+            mBlock.writeInt(color);
+        }
+
+        mBlock.writeVarint(mNewTitles.size());
+        for (String title : mNewTitles) {
+            byte[] bytes = title.getBytes("UTF-8");
+            mBlock.writeVarint(bytes.length);
+            mBlock.write(bytes, 0, bytes.length);
+        }
+
+        long previousId = 0;
+        for (int i = 0; i < mNumSeats; i++) {
+            mBlock.writeVarint(SeatMapFormat.zigzagEncode(mIds[i] - previousId));
+            previousId = mIds[i];
+        }
+
+        writeDeltas(mTypes);
+        writeDeltas(mXs);
+        writeDeltas(mYs);
+        writeDeltas(mWidths);
+        writeDeltas(mHeights);
+
+        for (int i = 0; i < mNumSeats; i++) {
+            mBlock.writeVarint(mColors[i]);
+        }
+
+        for (int i = 0; i < mNumSeats; i++) {
+            mBlock.writeVarint(mTitles[i]);
+        }
+
+        writeDeltas(mGroups);
+
+        for (int i = 0; i < mNumSeats; i++) {
+            mBlock.writeVarint(mStatuses[i]);
+        }
+
+        mHeader.reset();
+        mHeader.writeVarint(mBlock.size());
+        mHeader.writeTo(mOut);
+        mBlock.writeTo(mOut);
+
+        mNewColors.clear();
+        mNewTitles.clear();
+        mNumSeats = 0;
+    }
+
+    private void writeDeltas(int[] column) {
+        int previous = 0;
+        for (int i = 0; i < mNumSeats; i++) {
+            mBlock.writeVarint(SeatMapFormat.zigzagEncode(column[i] - previous));
+            previous = column[i];
+        }
+    }
+
+    /**
+     * Growable byte array with varint encoding.
+     */
+    private static class ByteSink {
+        private byte[] mBytes = new byte[4096];
+        private int mSize;
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                mBytes[mSize++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            mBytes[mSize++] = (byte) value;
+        }
+
+        void writeVarint(int value) {
+            writeVarint(value & 0xFFFFFFFFL);
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            mBytes[mSize++] = (byte) (value >>> 24);
+            mBytes[mSize++] = (byte) (value >>> 16);
+            mBytes[mSize++] = (byte) (value >>> 8);
+            mBytes[mSize++] = (byte) value;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, mBytes, mSize, length);
+            mSize += length;
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        void reset() {
+            mSize = 0;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(mBytes, 0, mSize);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (mSize + extra > mBytes.length) {
+                byte[] bytes = new byte[Math.max(mBytes.length * 2, mSize + extra)];
+                System.arraycopy(mBytes, 0, bytes, 0, mSize);
+                mBytes = bytes;
+            }
+        }
+    }
+}
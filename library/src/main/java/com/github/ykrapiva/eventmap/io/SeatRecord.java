@@ -0,0 +1,39 @@
+package com.github.ykrapiva.eventmap.io;
+
+import com.github.ykrapiva.eventmap.FigureType;
+
+/**
+ * One seat of a binary seat map. Readers reuse the same instance for every seat, copy what has to be kept.
+ * Coordinates are integers in map units.
+ */
+public class SeatRecord {
+    public long id;
+    public FigureType type = FigureType.RECTANGLE;
+    public int x;
+    public int y;
+    public int width;
+    public int height;
+    public int color;
+    // Null if the seat has no title
+    public String title;
+    // Application defined grouping, e.g. row number
+    public int group;
+    // Application defined status
+    public int status;
+
+    @Override
+    public String toString() {
+        return "SeatRecord{" +
+                "id=" + id +
+                ", type=" + type +
+                ", x=" + x +
+                ", y=" + y +
+                ", width=" + width +
+                ", height=" + height +
+                ", color=" + color +
+                ", title='" + title + '\'' +
+                ", group=" + group +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -2,13 +2,15 @@ package com.github.ykrapiva.eventmap;
 
 import android.app.Activity;
 import android.graphics.Color;
-import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Bundle;
 import android.util.Log;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ykrapiva.eventmap.gl.ResourceAccounting;
+import com.github.ykrapiva.eventmap.io.SeatMapReader;
+import com.github.ykrapiva.eventmap.io.SeatRecord;
 import com.ykrapiva.eventmap.sample.R;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -22,11 +24,27 @@ public class EventMapActivity extends Activity implements EventMapView.EventMapS
     private static final int DEFAULT_SELECTED_PLACE_COLOR = 0xFF00FF00;
     private static final int DEFAULT_PRESSED_PLACE_COLOR = 0xFFFFFF00;
     private static final int DEFAULT_NOT_AVAILABLE_PLACE_COLOR = Color.TRANSPARENT;
+    // Maps converted by HallConverter
+    private static final String SEAT_MAP_EXTENSION = ".seats";
+    private static final int SIMULATED_UPDATES_PER_SECOND = 10000;
 
     private EventMapView<Figure> mEventMapView;
     private EventMap<Figure> mEventMap;
+    private SeatUpdateSimulator mSeatUpdateSimulator;
 
     String mMapFileName = "sample_map.json";
+    // Background of binary maps, which don't keep the image name
+    String mBackgroundFileName = "sample_hall.png";
+    // Whether to push random availability changes to the map
+    boolean mSimulateSeatUpdates = false;
+    // Whether to log frame cost histograms
+    boolean mLogFrameMetrics = false;
+    // Whether to log latencies of seat taps
+    boolean mTraceTaps = false;
+    // Whether to keep the GL context, and the map uploaded, while paused
+    boolean mPreserveGLContext = true;
+    // Texture and buffer memory to warn about going over, 0 for no limit
+    long mResourceBudgetBytes = 0;
 
     @SuppressWarnings("unchecked")
     @Override
@@ -35,12 +53,21 @@ public class EventMapActivity extends Activity implements EventMapView.EventMapS
         setContentView(R.layout.activity_event_map);
 
         mEventMap = loadEventMap();
+        mEventMap.setKeyExtractor(new EventMap.KeyExtractor<Figure>() {
+            @Override
+            public long getKey(Figure seat) {
+                return seat.getPlaceId();
+            }
+        });
 
         if (savedInstanceState != null) {
-            List<Long> selectedPlaceIds = (List<Long>) savedInstanceState.getSerializable(BUNDLE_KEY_SELECTED_PLACES);
-            for (Figure seat : mEventMap.getSeats()) {
-                if (selectedPlaceIds.contains(seat.getPlaceId())) {
-                    seat.setState(Figure.State.SELECTED);
+            long[] selectedPlaceIds = savedInstanceState.getLongArray(BUNDLE_KEY_SELECTED_PLACES);
+            if (selectedPlaceIds != null) {
+                for (long placeId : selectedPlaceIds) {
+                    Figure seat = mEventMap.findById(placeId);
+                    if (seat != null) {
+                        seat.setState(Figure.State.SELECTED);
+                    }
                 }
             }
         }
@@ -49,18 +76,63 @@ public class EventMapActivity extends Activity implements EventMapView.EventMapS
         mEventMapView.setBackgroundColor(Color.WHITE);
         mEventMapView.setEventMap(mEventMap);
         mEventMapView.setClickListener(this);
+        mEventMapView.setPreserveEGLContextOnPause(mPreserveGLContext);
+
+        ResourceAccounting.setBudget(mResourceBudgetBytes);
+
+        if (mLogFrameMetrics) {
+            FrameMetrics frameMetrics = new FrameMetrics();
+            frameMetrics.setListener(new FrameMetrics.Listener() {
+                @Override
+                public void onFrameMetrics(FrameMetrics metrics) {
+                    Log.d(TAG, metrics.toString());
+                }
+            });
+            mEventMapView.setFrameMetrics(frameMetrics);
+        }
+
+        if (mTraceTaps) {
+            TapTracer tapTracer = new TapTracer();
+            tapTracer.setListener(new TapTracer.Listener() {
+                @Override
+                public void onTapTraced(TapTrace trace) {
+                    Log.d(TAG, trace.toString());
+                }
+            });
+            mEventMapView.setTapTracer(tapTracer);
+        }
+
+        if (mSimulateSeatUpdates) {
+            SeatUpdateQueue updateQueue = new SeatUpdateQueue();
+            mEventMap.setUpdateQueue(updateQueue);
+            mSeatUpdateSimulator = new SeatUpdateSimulator(updateQueue, mEventMap.getSeats(), SIMULATED_UPDATES_PER_SECOND);
+        }
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         mEventMapView.onPause();
+
+        if (mSeatUpdateSimulator != null) {
+            mSeatUpdateSimulator.stop();
+        }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         mEventMapView.onResume();
+
+        if (mSeatUpdateSimulator != null) {
+            mSeatUpdateSimulator.start();
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        mEventMapView.onTrimMemory(level);
     }
 
     @Override
@@ -100,77 +172,59 @@ public class EventMapActivity extends Activity implements EventMapView.EventMapS
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
 
-        ArrayList<Long> selectedPlaceIds = new ArrayList<Long>();
+        List<Long> selectedPlaceIds = new ArrayList<Long>();
         for (Figure seat : mEventMap.getSeats()) {
             if (seat.getState() == Figure.State.SELECTED) {
                 selectedPlaceIds.add(seat.getPlaceId());
             }
         }
 
-        outState.putSerializable(BUNDLE_KEY_SELECTED_PLACES, selectedPlaceIds);
+        long[] placeIds = new long[selectedPlaceIds.size()];
+        for (int i = 0; i < placeIds.length; i++) {
+            placeIds[i] = selectedPlaceIds.get(i);
+        }
+
+        outState.putLongArray(BUNDLE_KEY_SELECTED_PLACES, placeIds);
     }
 
 
     private EventMap<Figure> loadEventMap() {
-        Hall hall;
-
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            InputStream is = getAssets().open(mMapFileName);
-            List<Hall> halls = mapper.readValue(is, mapper.getTypeFactory().constructCollectionType(List.class, Hall.class));
-            hall = halls.get(0);
-            is.close();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        if (mMapFileName.endsWith(SEAT_MAP_EXTENSION)) {
+            return loadBinaryEventMap();
         }
 
+        final Map<Figure.State, Integer> colorMapBase = createColorMapBase();
 
-        int mapWidth = hall.width;
-        int mapHeight = hall.height;
-
-        // No map dimensions provided ? calculate them
-        if (mapWidth == 0 || mapHeight == 0) {
-            for (Hall.Sector sector : hall.sectors) {
-                for (Hall.Row row : sector.rows) {
-                    for (Hall.Place place : row.places) {
-                        Rect rect = new Rect(place.x, place.y, place.x + place.width, place.y + place.height);
-                        mapWidth = Math.max(mapWidth, rect.right);
-                        mapHeight = Math.max(mapHeight, rect.bottom);
-                    }
+        HallStreamLoader<Figure> loader = new HallStreamLoader<Figure>(new HallStreamLoader.FigureFactory<Figure>() {
+            @Override
+            public Figure createFigure(Hall.Row row, Hall.Place place) {
+                if (place.prices == null || place.prices.isEmpty()) {
+                    Log.w(TAG, "Place id " + place.placeId + " has no prices");
+                    return null;
                 }
-            }
-        }
 
-        EventMap<Figure> eventMap = new EventMap<Figure>(mapWidth, mapHeight);
-
-        Map<Figure.State, Integer> colorMapBase = new HashMap<Figure.State, Integer>();
-        colorMapBase.put(Figure.State.SELECTED, DEFAULT_SELECTED_PLACE_COLOR);
-        colorMapBase.put(Figure.State.NOT_AVAILABLE, DEFAULT_NOT_AVAILABLE_PLACE_COLOR);
-
-        for (Hall.Sector sector : hall.sectors) {
-            for (Hall.Row row : sector.rows) {
-                for (Hall.Place place : row.places) {
-                    RectF rect = new RectF(place.x, place.y, place.x + place.width, place.y + place.height);
-
-                    Map<Figure.State, Integer> colorMap = new HashMap<Figure.State, Integer>(colorMapBase);
+                RectF rect = new RectF(place.x, place.y, place.x + place.width, place.y + place.height);
+                Map<Figure.State, Integer> colorMap = createColorMap(colorMapBase, 0xFF000000 | place.prices.get(0).color);
+                return new Figure(rect, colorMap, place.placeId, row.number, place.number, place.status == 0 ? Figure.State.AVAILABLE : Figure.State.NOT_AVAILABLE);
+            }
+        });
 
-                    if (place.prices == null || place.prices.isEmpty()) {
-                        Log.w(TAG, "Place id " + place.placeId + " has no prices");
-                        continue;
-                    }
-                    colorMap.put(Figure.State.AVAILABLE, 0xFF000000 | place.prices.get(0).color);
-                    colorMap.put(Figure.State.PRESSED, DEFAULT_PRESSED_PLACE_COLOR);
+        EventMap<Figure> eventMap;
 
-                    Figure seat = new Figure(rect, colorMap, place.placeId, row.number, place.number, place.status == 0 ? Figure.State.AVAILABLE : Figure.State.NOT_AVAILABLE);
-                    eventMap.add(seat);
+        try {
+            eventMap = loader.load(new HallStreamLoader.Source() {
+                @Override
+                public InputStream open() throws IOException {
+                    return getAssets().open(mMapFileName);
                 }
-            }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
 
-
         // Load background image safely
         try {
-            InputStream is = getAssets().open(hall.image);
+            InputStream is = getAssets().open(loader.getHall().image);
             eventMap.setBackground(is);
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -178,4 +232,50 @@ public class EventMapActivity extends Activity implements EventMapView.EventMapS
 
         return eventMap;
     }
+
+    /**
+     * Loads a map converted to the binary format by {@link HallConverter}.
+     */
+    private EventMap<Figure> loadBinaryEventMap() {
+        final Map<Figure.State, Integer> colorMapBase = createColorMapBase();
+        EventMap<Figure> eventMap;
+
+        try {
+            SeatMapReader reader = new SeatMapReader(new BufferedInputStream(getAssets().open(mMapFileName)));
+            try {
+                eventMap = new EventMap<Figure>(reader.getMapWidth(), reader.getMapHeight());
+                reader.readInto(eventMap, new SeatMapReader.FigureFactory<Figure>() {
+                    @Override
+                    public Figure createFigure(SeatRecord record) {
+                        RectF rect = new RectF(record.x, record.y, record.x + record.width, record.y + record.height);
+                        Map<Figure.State, Integer> colorMap = createColorMap(colorMapBase, record.color);
+                        int placeNumber = record.title != null ? Integer.parseInt(record.title) : 0;
+                        return new Figure(rect, colorMap, record.id, record.group, placeNumber, record.status == 0 ? Figure.State.AVAILABLE : Figure.State.NOT_AVAILABLE);
+                    }
+                });
+            } finally {
+                reader.close();
+            }
+
+            eventMap.setBackground(getAssets().open(mBackgroundFileName));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return eventMap;
+    }
+
+    private static Map<Figure.State, Integer> createColorMapBase() {
+        Map<Figure.State, Integer> colorMapBase = new HashMap<Figure.State, Integer>();
+        colorMapBase.put(Figure.State.SELECTED, DEFAULT_SELECTED_PLACE_COLOR);
+        colorMapBase.put(Figure.State.NOT_AVAILABLE, DEFAULT_NOT_AVAILABLE_PLACE_COLOR);
+        return colorMapBase;
+    }
+
+    private static Map<Figure.State, Integer> createColorMap(Map<Figure.State, Integer> colorMapBase, int availableColor) {
+        Map<Figure.State, Integer> colorMap = new HashMap<Figure.State, Integer>(colorMapBase);
+        colorMap.put(Figure.State.AVAILABLE, availableColor);
+        colorMap.put(Figure.State.PRESSED, DEFAULT_PRESSED_PLACE_COLOR);
+        return colorMap;
+    }
 }
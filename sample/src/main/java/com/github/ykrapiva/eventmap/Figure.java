@@ -41,6 +41,10 @@ public class Figure extends EventMapFigure {
         setState(originalState);
     }
 
+    public int getColor(State state) {
+        return colorMap.get(state);
+    }
+
     public State getState() {
         return currentState;
     }
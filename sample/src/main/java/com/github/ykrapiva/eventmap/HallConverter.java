@@ -0,0 +1,90 @@
+package com.github.ykrapiva.eventmap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ykrapiva.eventmap.io.SeatMapWriter;
+import com.github.ykrapiva.eventmap.io.SeatRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Converts halls from the JSON schema of {@link Hall} into the binary seat map format.
+ * Can be run on a desktop JVM: {@code HallConverter sample_map.json sample_map.seats}
+ * <p/>
+ * Places are written with row number as group, place number as title, first price color as color.
+ * Places without prices are skipped.
+ */
+public class HallConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: HallConverter <hall.json> <hall.seats>");
+            System.exit(1);
+        }
+
+        InputStream in = new FileInputStream(args[0]);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]));
+
+        try {
+            convert(in, out);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Converts the first hall of a JSON list of halls, closes the output stream.
+     */
+    public static void convert(InputStream jsonIn, OutputStream out) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Hall> halls = mapper.readValue(jsonIn, mapper.getTypeFactory().constructCollectionType(List.class, Hall.class));
+        convert(halls.get(0), out);
+    }
+
+    public static void convert(Hall hall, OutputStream out) throws IOException {
+        int mapWidth = hall.width;
+        int mapHeight = hall.height;
+
+        // No map dimensions provided ? calculate them
+        if (mapWidth == 0 || mapHeight == 0) {
+            for (Hall.Sector sector : hall.sectors) {
+                for (Hall.Row row : sector.rows) {
+                    for (Hall.Place place : row.places) {
+                        mapWidth = Math.max(mapWidth, place.x + place.width);
+                        mapHeight = Math.max(mapHeight, place.y + place.height);
+                    }
+                }
+            }
+        }
+
+        SeatMapWriter writer = new SeatMapWriter(out, mapWidth, mapHeight);
+        SeatRecord record = new SeatRecord();
+
+        for (Hall.Sector sector : hall.sectors) {
+            for (Hall.Row row : sector.rows) {
+                for (Hall.Place place : row.places) {
+                    if (place.prices == null || place.prices.isEmpty()) {
+                        continue;
+                    }
+
+                    record.id = place.placeId;
+                    record.x = place.x;
+                    record.y = place.y;
+                    record.width = place.width;
+                    record.height = place.height;
+                    record.color = 0xFF000000 | place.prices.get(0).color;
+                    record.title = String.valueOf(place.number);
+                    record.group = row.number;
+                    record.status = place.status;
+                    writer.write(record);
+                }
+            }
+        }
+
+        writer.close();
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.ykrapiva.eventmap;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a hall in the JSON schema of {@link Hall} with a pull parser, without building the whole object tree.
+ * Places are read one by one and added to the event map in batches of {@link #setBatchSize(int) batch size} figures.
+ * <p/>
+ * If the hall has no dimensions before its sectors, they are calculated from places in the first pass over the stream
+ * and the places are added in the second pass, that's why the stream is requested from a {@link Source}.
+ * <pre>
+ * HallStreamLoader&lt;MyFigure&gt; loader = new HallStreamLoader&lt;MyFigure&gt;(factory);
+ * EventMap&lt;MyFigure&gt; eventMap = loader.load(source);
+ * String image = loader.getHall().image;
+ * </pre>
+ */
+public class HallStreamLoader<T extends EventMapFigure> {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * Opens the JSON stream, may be called twice.
+     */
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+
+    public interface FigureFactory<T extends EventMapFigure> {
+        /**
+         * @param row   Row of the place, only fields preceding its places are set
+         * @param place Place to create a figure for
+         * @return figure for the place, or null to skip it
+         */
+        T createFigure(Hall.Row row, Hall.Place place);
+    }
+
+    private final ObjectMapper mMapper = new ObjectMapper();
+    private final FigureFactory<T> mFactory;
+    private int mBatchSize = DEFAULT_BATCH_SIZE;
+    private Hall mHall;
+
+    public HallStreamLoader(FigureFactory<T> factory) {
+        this.mFactory = factory;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.mBatchSize = batchSize;
+    }
+
+    /**
+     * @return fields of the last loaded hall except for its sectors, which are null
+     */
+    public Hall getHall() {
+        return mHall;
+    }
+
+    /**
+     * Loads the first hall of the stream, which is either a hall or a list of halls.
+     */
+    public EventMap<T> load(Source source) throws IOException {
+        Pass pass = new Pass(null);
+        Hall hall = read(source, pass);
+
+        if (pass.mEventMap == null) {
+            // No dimensions before sectors, places were measured instead
+            int mapWidth = hall.width;
+            int mapHeight = hall.height;
+            if (mapWidth == 0 || mapHeight == 0) {
+                mapWidth = pass.mMapWidth;
+                mapHeight = pass.mMapHeight;
+            }
+
+            pass = new Pass(new EventMap<T>(mapWidth, mapHeight));
+            hall = read(source, pass);
+        }
+
+        mHall = hall;
+        return pass.mEventMap;
+    }
+
+    private Hall read(Source source, Pass pass) throws IOException {
+        InputStream in = source.open();
+
+        try {
+            JsonParser parser = mMapper.getFactory().createParser(in);
+
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException("Hall expected", parser.getCurrentLocation());
+            }
+
+            Hall hall = new Hall();
+            readHall(parser, hall, pass);
+            pass.flush();
+            return hall;
+        } finally {
+            in.close();
+        }
+    }
+
+    private void readHall(JsonParser parser, Hall hall, Pass pass) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+
+            if ("sectors".equals(name)) {
+                pass.onSectors(hall);
+                readSectors(parser, pass);
+            } else if ("siteId".equals(name)) {
+                hall.siteId = parser.getValueAsLong();
+            } else if ("hallId".equals(name)) {
+                hall.hallId = parser.getValueAsLong();
+            } else if ("name".equals(name)) {
+                hall.name = parser.getValueAsString();
+            } else if ("image".equals(name)) {
+                hall.image = parser.getValueAsString();
+            } else if ("width".equals(name)) {
+                hall.width = parser.getValueAsInt();
+            } else if ("height".equals(name)) {
+                hall.height = parser.getValueAsInt();
+            } else if ("placeShape".equals(name)) {
+                hall.placeShape = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readSectors(JsonParser parser, Pass pass) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+
+                if ("rows".equals(name) && parser.getCurrentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readRow(parser, pass);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readRow(JsonParser parser, Pass pass) throws IOException {
+        Hall.Row row = new Hall.Row();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+
+            if ("places".equals(name) && parser.getCurrentToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    pass.onPlace(row, mMapper.readValue(parser, Hall.Place.class));
+                }
+            } else if ("rowId".equals(name)) {
+                row.rowId = parser.getValueAsLong();
+            } else if ("number".equals(name)) {
+                row.number = parser.getValueAsInt();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Either adds places to the event map, or measures them if the event map isn't known yet.
+     */
+    private class Pass {
+        private final List<T> mBatch = new ArrayList<T>();
+        private EventMap<T> mEventMap;
+        private int mMapWidth;
+        private int mMapHeight;
+
+        Pass(EventMap<T> eventMap) {
+            this.mEventMap = eventMap;
+        }
+
+        void onSectors(Hall hall) {
+            if (mEventMap == null && hall.width != 0 && hall.height != 0) {
+                mEventMap = new EventMap<T>(hall.width, hall.height);
+            }
+        }
+
+        void onPlace(Hall.Row row, Hall.Place place) {
+            if (mEventMap == null) {
+                mMapWidth = Math.max(mMapWidth, place.x + place.width);
+                mMapHeight = Math.max(mMapHeight, place.y + place.height);
+                return;
+            }
+
+            T figure = mFactory.createFigure(row, place);
+            if (figure != null) {
+                mBatch.add(figure);
+                if (mBatch.size() >= mBatchSize) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            if (!mBatch.isEmpty()) {
+                mEventMap.add(mBatch);
+                mBatch.clear();
+            }
+        }
+    }
+}
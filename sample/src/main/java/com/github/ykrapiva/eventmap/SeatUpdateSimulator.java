@@ -0,0 +1,76 @@
+package com.github.ykrapiva.eventmap;
+
+import android.util.Log;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates a backend pushing seat availability changes: offers updates of random seats at a fixed rate
+ * and logs how many of them were coalesced or rejected by the queue.
+ * Only seat colors change, figure states are left as they are.
+ */
+public class SeatUpdateSimulator implements Runnable {
+    private static final String TAG = SeatUpdateSimulator.class.getSimpleName();
+    private static final long TICK_MILLIS = 10;
+    private static final long REPORT_MILLIS = 5000;
+
+    private final SeatUpdateQueue mQueue;
+    private final List<Figure> mSeats;
+    private final int mUpdatesPerSecond;
+    private final Random mRandom = new Random();
+    private volatile Thread mThread;
+
+    public SeatUpdateSimulator(SeatUpdateQueue queue, List<Figure> seats, int updatesPerSecond) {
+        this.mQueue = queue;
+        this.mSeats = seats;
+        this.mUpdatesPerSecond = updatesPerSecond;
+    }
+
+    public void start() {
+        mThread = new Thread(this, TAG);
+        mThread.start();
+    }
+
+    public void stop() {
+        Thread thread = mThread;
+        mThread = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        long offered = 0;
+        long rejected = 0;
+        long startTime = System.currentTimeMillis();
+        long reportTime = startTime + REPORT_MILLIS;
+
+        while (mThread == Thread.currentThread() && !mSeats.isEmpty()) {
+            // Catch up with the rate rather than sleeping a fixed amount per update
+            long elapsed = System.currentTimeMillis() - startTime;
+            long due = elapsed * mUpdatesPerSecond / 1000 - offered;
+
+            for (; due > 0; due--) {
+                Figure seat = mSeats.get(mRandom.nextInt(mSeats.size()));
+                Figure.State state = mRandom.nextBoolean() ? Figure.State.AVAILABLE : Figure.State.NOT_AVAILABLE;
+                if (!mQueue.offer(seat.getPlaceId(), seat.getColor(state))) {
+                    rejected++;
+                }
+                offered++;
+            }
+
+            if (System.currentTimeMillis() >= reportTime) {
+                Log.d(TAG, "Offered " + offered + ", coalesced " + mQueue.getCoalescedCount() + ", rejected " + rejected + ", pending " + mQueue.size());
+                reportTime += REPORT_MILLIS;
+            }
+
+            try {
+                Thread.sleep(TICK_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}